@@ -7,6 +7,7 @@ import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface IContestClient {
     Action<HttpRequest, HttpResponse> getHttpMessageTransformer();
@@ -96,5 +97,39 @@ public interface IContestClient {
      * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
      */
      ContestantResponse getContestant(UUID sessionId, String contestantId, ChampionQueryOptions options) throws NexosisClientException;
-}
 
+    /**
+     * Asynchronous version of {@link #getContest(UUID) getContest}.
+     *
+     * @return A future completed with the result of getContest, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ContestResponse> getContestAsync(UUID sessionId);
+
+    /**
+     * Asynchronous version of {@link #getChampion(UUID, ChampionQueryOptions) getChampion}.
+     *
+     * @return A future completed with the result of getChampion, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ContestantResponse> getChampionAsync(UUID sessionId, ChampionQueryOptions options);
+
+    /**
+     * Asynchronous version of {@link #getSelection(UUID) getSelection}.
+     *
+     * @return A future completed with the result of getSelection, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ContestSelectionResponse> getSelectionAsync(UUID sessionId);
+
+    /**
+     * Asynchronous version of {@link #listContestants(UUID) listContestants}.
+     *
+     * @return A future completed with the result of listContestants, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ChampionContestantList> listContestantsAsync(UUID sessionId);
+
+    /**
+     * Asynchronous version of {@link #getContestant(UUID, String, ChampionQueryOptions) getContestant}.
+     *
+     * @return A future completed with the result of getContestant, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ContestantResponse> getContestantAsync(UUID sessionId, String contestantId, ChampionQueryOptions options);
+}
@@ -2,12 +2,20 @@ package com.nexosis;
 
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
+import com.nexosis.impl.ChunkedUploadPolicy;
 import com.nexosis.impl.DataSet;
 import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.PageIterator;
+import com.nexosis.impl.PrefetchPolicy;
+import com.nexosis.impl.RowCursor;
 import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  *
@@ -27,6 +35,21 @@ public interface IDataSetClient {
      */
     DataSetSummary create(IDataSetSource source) throws NexosisClientException;
 
+    /**
+     * Save data in a dataset, sending its rows in chunks which are appended by separate requests, several at a
+     * time. Only chunks which fail are sent again. Sources other than DataSetDetailSource and DataSetRowSource
+     * are sent in a single request.
+     * <P>
+     * PUT to https://ml.nexosis.com/v1/v1/{dataSetName}
+     * <P>
+     * @param source A {@link IDataSetSource IDataSetSource} containing the data.  Create one of these with {@link DataSet DataSet.From}.
+     * @param policy A {@link ChunkedUploadPolicy ChunkedUploadPolicy} with the chunk size and number of concurrent requests.
+     * @return The {@link DataSetSummary DataSetSummary} returned for the last chunk to complete. It is not a total of the
+     * chunks, as a summary has no row counts; its columns and quotas are the latest the server sent.
+     * @throws NexosisClientException if the first chunk fails, or once all chunks have finished if any of them failed.
+     */
+    DataSetSummary create(IDataSetSource source, ChunkedUploadPolicy policy) throws NexosisClientException;
+
     /**
      * Gets the list of all data sets that have been saved to the system.
      * <P>
@@ -70,6 +93,70 @@ public interface IDataSetClient {
      */
     void get(DataSetDataQuery query, OutputStream output) throws NexosisClientException;
 
+    /**
+     * Get the data in the set and write it to a file through a fixed size buffer, so an export of any size can
+     * be saved without holding it in memory. The data is written to a temporary file in the same directory which
+     * then replaces the target, so the target never holds a partial export.
+     * <P>
+     * GET of https://ml.nexosis.com/api/data/{dataSetName}
+     * <P>
+     * @param query A DataSetDataQuery with the filter criteria for retrieving data from the DataSet.  Create one of these with DataSet.Where
+     * @param target The file to create or replace.
+     * @return A {@link FileDownload FileDownload} with the number of bytes written and the rate they were written at.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or the file cannot be written.
+     */
+    FileDownload download(DataSetDataQuery query, Path target) throws NexosisClientException;
+
+    /**
+     * Get the data in the set, reading the rows one at a time as they are downloaded rather than loading them
+     * into a list. The cursor must be closed.
+     * <P>
+     * GET of https://ml.nexosis.com/api/data/{dataSetName}
+     * <P>
+     * @param query A DataSetDataQuery with the filter criteria for retrieving data from the DataSet.  Create one of these with DataSet.Where
+     * @return A {@link RowCursor RowCursor} positioned before the first row.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
+     */
+    RowCursor getRows(DataSetDataQuery query) throws NexosisClientException;
+
+    /**
+     * Get the data in the set as a {@link DataFrame DataFrame}, storing each column as an array typed by its
+     * metadata rather than a map of strings per row.
+     * <P>
+     * GET of https://ml.nexosis.com/api/data/{dataSetName}
+     * <P>
+     * @param query A DataSetDataQuery with the filter criteria for retrieving data from the DataSet.  Create one of these with DataSet.Where
+     * @return A {@link DataFrame DataFrame} holding the rows of the page.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
+     */
+    DataFrame getFrame(DataSetDataQuery query) throws NexosisClientException;
+
+    /**
+     * Get every page of the data from the page of the query onwards, fetching the following pages in the
+     * background while the caller reads the current one. The iterator should be closed if it is not read to the end.
+     * <P>
+     * GET of https://ml.nexosis.com/api/data/{dataSetName}
+     * <P>
+     * @param query A DataSetDataQuery with the filter criteria for retrieving data from the DataSet.  Create one of these with DataSet.Where
+     * @param policy A {@link PrefetchPolicy PrefetchPolicy} with how many pages to fetch ahead.
+     * @return A {@link PageIterator PageIterator} holding the first page.
+     * @throws NexosisClientException when 4xx or 5xx response is received for the first page, or errors in parsing the response.
+     */
+    PageIterator<DataSetData> getPages(DataSetDataQuery query, PrefetchPolicy policy) throws NexosisClientException;
+
+    /**
+     * Get every row of the data from the page of the query onwards as a stream, fetching the following pages in
+     * the background while the caller reads the current one. The stream should be closed if it is not read to the end.
+     * <P>
+     * GET of https://ml.nexosis.com/api/data/{dataSetName}
+     * <P>
+     * @param query A DataSetDataQuery with the filter criteria for retrieving data from the DataSet.  Create one of these with DataSet.Where
+     * @param policy A {@link PrefetchPolicy PrefetchPolicy} with how many pages to fetch ahead.
+     * @return A sequential stream of the rows, which throws an {@link com.nexosis.impl.UncheckedClientException UncheckedClientException} if a later page cannot be fetched.
+     * @throws NexosisClientException when 4xx or 5xx response is received for the first page, or errors in parsing the response.
+     */
+    Stream<Map<String, String>> getAllRows(DataSetDataQuery query, PrefetchPolicy policy) throws NexosisClientException;
+
     /**
      * Remove data from a data set or the entire set.
      * <P>
@@ -79,4 +166,88 @@ public interface IDataSetClient {
      * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
      */
     void remove(DataSetRemoveCriteria criteria) throws NexosisClientException;
+
+    /**
+     * Asynchronous version of {@link #create(IDataSetSource) create}.
+     *
+     * @return A future completed with the result of create, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataSetSummary> createAsync(IDataSetSource source);
+
+    /**
+     * Asynchronous version of {@link #create(IDataSetSource, ChunkedUploadPolicy) create}.
+     *
+     * @return A future completed with the result of create, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataSetSummary> createAsync(IDataSetSource source, ChunkedUploadPolicy policy);
+
+    /**
+     * Asynchronous version of {@link #list() list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataSetList> listAsync();
+
+    /**
+     * Asynchronous version of {@link #list(DataSetSummaryQuery) list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataSetList> listAsync(DataSetSummaryQuery query);
+
+    /**
+     * Asynchronous version of {@link #get(DataSetDataQuery) get}.
+     *
+     * @return A future completed with the result of get, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataSetData> getAsync(DataSetDataQuery query);
+
+    /**
+     * Asynchronous version of {@link #get(DataSetDataQuery, OutputStream) get}.
+     *
+     * @return A future completed when get finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> getAsync(DataSetDataQuery query, OutputStream output);
+
+    /**
+     * Asynchronous version of {@link #download(DataSetDataQuery, Path) download}.
+     *
+     * @return A future completed with the result of download, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<FileDownload> downloadAsync(DataSetDataQuery query, Path target);
+
+    /**
+     * Asynchronous version of {@link #getRows(DataSetDataQuery) getRows}.
+     *
+     * @return A future completed with the open cursor, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<RowCursor> getRowsAsync(DataSetDataQuery query);
+
+    /**
+     * Asynchronous version of {@link #getFrame(DataSetDataQuery) getFrame}.
+     *
+     * @return A future completed with the result of getFrame, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataFrame> getFrameAsync(DataSetDataQuery query);
+
+    /**
+     * Asynchronous version of {@link #getPages(DataSetDataQuery, PrefetchPolicy) getPages}.
+     *
+     * @return A future completed with the iterator once the first page has arrived, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<PageIterator<DataSetData>> getPagesAsync(DataSetDataQuery query, PrefetchPolicy policy);
+
+    /**
+     * Asynchronous version of {@link #getAllRows(DataSetDataQuery, PrefetchPolicy) getAllRows}.
+     *
+     * @return A future completed with the stream once the first page has arrived, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Stream<Map<String, String>>> getAllRowsAsync(DataSetDataQuery query, PrefetchPolicy policy);
+
+    /**
+     * Asynchronous version of {@link #remove(DataSetRemoveCriteria) remove}.
+     *
+     * @return A future completed when remove finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> removeAsync(DataSetRemoveCriteria criteria);
 }
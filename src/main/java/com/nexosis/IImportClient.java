@@ -7,6 +7,7 @@ import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface IImportClient {
     Action<HttpRequest, HttpResponse> getHttpMessageTransformer();
@@ -69,4 +70,39 @@ public interface IImportClient {
      *                                GET of https://ml.nexosis.com/api/imports
      */
     ImportDetail ImportFromAzure(ImportFromAzureRequest detail) throws NexosisClientException;
+
+    /**
+     * Asynchronous version of {@link #list(ImportDetailQuery) list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ImportDetails> listAsync(ImportDetailQuery query);
+
+    /**
+     * Asynchronous version of {@link #get(UUID) get}.
+     *
+     * @return A future completed with the result of get, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ImportDetail> getAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #importFromS3(ImportFromS3Request) importFromS3}.
+     *
+     * @return A future completed with the result of importFromS3, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ImportDetail> importFromS3Async(ImportFromS3Request detail);
+
+    /**
+     * Asynchronous version of {@link #ImportFromUrl(ImportFromUrlRequest) ImportFromUrl}.
+     *
+     * @return A future completed with the result of ImportFromUrl, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ImportDetail> ImportFromUrlAsync(ImportFromUrlRequest detail);
+
+    /**
+     * Asynchronous version of {@link #ImportFromAzure(ImportFromAzureRequest) ImportFromAzure}.
+     *
+     * @return A future completed with the result of ImportFromAzure, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ImportDetail> ImportFromAzureAsync(ImportFromAzureRequest detail);
 }
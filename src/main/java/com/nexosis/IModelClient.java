@@ -7,6 +7,7 @@ import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface IModelClient {
@@ -52,4 +53,32 @@ public interface IModelClient {
      * @throws NexosisClientException Thrown when 4xx or 5xx response is received from server, or errors in parsing the response.
      */
     void remove(ModelRemoveCriteria criteria) throws NexosisClientException;
-}
\ No newline at end of file
+
+    /**
+     * Asynchronous version of {@link #get(UUID) get}.
+     *
+     * @return A future completed with the result of get, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ModelSummary> getAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #list(ModelSummaryQuery) list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ModelList> listAsync(ModelSummaryQuery query);
+
+    /**
+     * Asynchronous version of {@link #predict(ModelPredictionRequest) predict}.
+     *
+     * @return A future completed with the result of predict, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ModelPredictionResult> predictAsync(ModelPredictionRequest request);
+
+    /**
+     * Asynchronous version of {@link #remove(ModelRemoveCriteria) remove}.
+     *
+     * @return A future completed when remove finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> removeAsync(ModelRemoveCriteria criteria);
+}
@@ -6,6 +6,8 @@ import com.nexosis.impl.NexosisClientException;
 import com.nexosis.model.AccountQuotas;
 import com.nexosis.util.Action;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The primary interface to the Nexosis API.
  */
@@ -24,6 +26,13 @@ public interface INexosisClient
      */
     AccountQuotas getAccountQuotas() throws NexosisClientException;
 
+    /**
+     * Asynchronously gets the current account balance.
+     * <P>
+     * @return A future completed with the {@link com.nexosis.model.AccountQuotas AccountBalance}, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<AccountQuotas> getAccountQuotasAsync();
+
     /**
      * Access to the Session based operations in the API.
      * <p>
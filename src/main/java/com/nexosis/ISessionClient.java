@@ -3,11 +3,17 @@ package com.nexosis;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
 import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.PageIterator;
+import com.nexosis.impl.PrefetchPolicy;
+import com.nexosis.impl.ResultPages;
+import com.nexosis.impl.RowCursor;
 import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -133,6 +139,44 @@ public interface ISessionClient {
      */
     ReturnsStatus getResults(SessionResultQuery query, OutputStream output) throws NexosisClientException;
 
+    /**
+     * Get the results of the session and write them to a file through a fixed size buffer, so results of any size
+     * can be saved without holding them in memory. The results are written to a temporary file in the same
+     * directory which then replaces the target. Results which are not complete are not written.
+     * <P>
+     * GET of https://ml.nexosis.com/api/sessions/{id}/results
+     * <P>
+     * @param query     The {@link SessionResultQuery SessionQuery} with the criteria for which what result to return
+     * @param target    The file to create or replace.
+     * @return A {@link FileDownload FileDownload} with the status of the session, and the number of bytes written and the rate they were written at.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or the file cannot be written.
+     */
+    FileDownload downloadResults(SessionResultQuery query, Path target) throws NexosisClientException;
+
+    /**
+     * Get the results of the session, reading the rows one at a time as they are downloaded rather than loading
+     * them into a list. The cursor must be closed.
+     * <P>
+     * GET of https://ml.nexosis.com/api/sessions/{id}/results
+     * <P>
+     * @param query The {@link SessionResultQuery SessionQuery} with the criteria for which what result to return
+     * @return A {@link RowCursor RowCursor} positioned before the first row.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
+     */
+    RowCursor getResultRows(SessionResultQuery query) throws NexosisClientException;
+
+    /**
+     * Get the results of the session as a {@link DataFrame DataFrame}, storing each column as an array typed by
+     * its metadata rather than a map of strings per row.
+     * <P>
+     * GET of https://ml.nexosis.com/api/sessions/{id}/results
+     * <P>
+     * @param query The {@link SessionResultQuery SessionQuery} with the criteria for which what result to return
+     * @return A {@link DataFrame DataFrame} holding the rows of the page.
+     * @throws NexosisClientException when 4xx or 5xx response is received from server, or errors in parsing the response.
+     */
+    DataFrame getResultFrame(SessionResultQuery query) throws NexosisClientException;
+
     /**
      * Gets the confusion matrix for the classification model generated by a model-building session
      * <p>
@@ -215,4 +259,183 @@ public interface ISessionClient {
      * @throws NexosisClientException
      */
     FeatureImportanceResponse getFeatureImportanceScores(UUID id, PagingInfo pagingInfo) throws NexosisClientException;
+
+    /**
+     * Gets every page of a paged result of the session in order, from the page of pagingInfo onwards. The first
+     * page is read to find the number of pages, then the following pages are fetched in the background, several at
+     * once if the policy allows. The iterator should be closed if it is not read to the end.
+     * <P>
+     * GET of https://ml.nexosis.com/api/sessions/{id}/results/...
+     * <P>
+     * @param id The identifier of the session.
+     * @param results Which result to read, such as {@link ResultPages#ANOMALY_SCORES ResultPages.ANOMALY_SCORES}.
+     * @param pagingInfo Paging instructions. PageNumber: 0 and PageSize: 50 by default
+     * @param policy A {@link PrefetchPolicy PrefetchPolicy} with how many pages to fetch ahead, and how many at once.
+     * @return A {@link PageIterator PageIterator} holding the first page.
+     * @throws NexosisClientException Thrown when 4xx or 5xx response is received for the first page, or errors in parsing the response.
+     */
+    <P extends SessionResponse> PageIterator<P> getResultPages(UUID id, ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy) throws NexosisClientException;
+
+    /**
+     * Gets every page of a paged result of the session, from the page of pagingInfo onwards, as one response.
+     * The pages after the first are fetched several at once if the policy allows, and their data is added to
+     * the first page in order.
+     * <P>
+     * GET of https://ml.nexosis.com/api/sessions/{id}/results/...
+     * <P>
+     * @param id The identifier of the session.
+     * @param results Which result to read, such as {@link ResultPages#ANOMALY_SCORES ResultPages.ANOMALY_SCORES}.
+     * @param pagingInfo Paging instructions. PageNumber: 0 and PageSize: 50 by default
+     * @param policy A {@link PrefetchPolicy PrefetchPolicy} with how many pages to fetch at once. The prefetch depth should be at least the concurrency.
+     * @return The first page holding the data of every page.
+     * @throws NexosisClientException Thrown when 4xx or 5xx response is received for any page, or errors in parsing the response.
+     */
+    <P extends SessionResponse> P getAllResults(UUID id, ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy) throws NexosisClientException;
+
+    /**
+     * Asynchronous version of {@link #createForecast(ForecastSessionRequest) createForecast}.
+     *
+     * @return A future completed with the result of createForecast, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResponse> createForecastAsync(ForecastSessionRequest request);
+
+    /**
+     * Asynchronous version of {@link #analyzeImpact(ImpactSessionRequest) analyzeImpact}.
+     *
+     * @return A future completed with the result of analyzeImpact, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResponse> analyzeImpactAsync(ImpactSessionRequest request);
+
+    /**
+     * Asynchronous version of {@link #trainModel(ModelSessionRequest) trainModel}.
+     *
+     * @return A future completed with the result of trainModel, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResponse> trainModelAsync(ModelSessionRequest request);
+
+    /**
+     * Asynchronous version of {@link #list(SessionQuery) list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResponses> listAsync(SessionQuery query);
+
+    /**
+     * Asynchronous version of {@link #remove(SessionRemoveCriteria) remove}.
+     *
+     * @return A future completed when remove finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> removeAsync(SessionRemoveCriteria criteria);
+
+    /**
+     * Asynchronous version of {@link #remove(UUID) remove}.
+     *
+     * @return A future completed when remove finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> removeAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #get(UUID) get}.
+     *
+     * @return A future completed with the result of get, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResponse> getAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #getStatus(UUID) getStatus}.
+     *
+     * @return A future completed with the result of getStatus, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResultStatus> getStatusAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #getResults(SessionResultQuery) getResults}.
+     *
+     * @return A future completed with the result of getResults, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResult> getResultsAsync(SessionResultQuery query);
+
+    /**
+     * Asynchronous version of {@link #getResults(SessionResultQuery, OutputStream) getResults}.
+     *
+     * @return A future completed with the result of getResults, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ReturnsStatus> getResultsAsync(SessionResultQuery query, OutputStream output);
+
+    /**
+     * Asynchronous version of {@link #downloadResults(SessionResultQuery, Path) downloadResults}.
+     *
+     * @return A future completed with the result of downloadResults, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<FileDownload> downloadResultsAsync(SessionResultQuery query, Path target);
+
+    /**
+     * Asynchronous version of {@link #getResultRows(SessionResultQuery) getResultRows}.
+     *
+     * @return A future completed with the open cursor, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<RowCursor> getResultRowsAsync(SessionResultQuery query);
+
+    /**
+     * Asynchronous version of {@link #getResultFrame(SessionResultQuery) getResultFrame}.
+     *
+     * @return A future completed with the result of getResultFrame, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DataFrame> getResultFrameAsync(SessionResultQuery query);
+
+    /**
+     * Asynchronous version of {@link #getConfusionMatrix(UUID) getConfusionMatrix}.
+     *
+     * @return A future completed with the result of getConfusionMatrix, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ConfusionMatrixResponse> getConfusionMatrixAsync(UUID id);
+
+    /**
+     * Asynchronous version of {@link #getResultAnomalyScores(UUID, PagingInfo) getResultAnomalyScores}.
+     *
+     * @return A future completed with the result of getResultAnomalyScores, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResult> getResultAnomalyScoresAsync(UUID id, PagingInfo pagingInfo);
+
+    /**
+     * Asynchronous version of {@link #getResultClassScores(UUID, PagingInfo) getResultClassScores}.
+     *
+     * @return A future completed with the result of getResultClassScores, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<SessionResult> getResultClassScoresAsync(UUID id, PagingInfo pagingInfo);
+
+    /**
+     * Asynchronous version of {@link #getTimeseriesOutliers(UUID, PagingInfo) getTimeseriesOutliers}.
+     *
+     * @return A future completed with the result of getTimeseriesOutliers, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<OutliersResponse> getTimeseriesOutliersAsync(UUID id, PagingInfo pagingInfo);
+
+    /**
+     * Asynchronous version of {@link #getDistanceMetrics(UUID, PagingInfo) getDistanceMetrics}.
+     *
+     * @return A future completed with the result of getDistanceMetrics, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<DistanceMetricResponse> getDistanceMetricsAsync(UUID id, PagingInfo pagingInfo);
+
+    /**
+     * Asynchronous version of {@link #getFeatureImportanceScores(UUID, PagingInfo) getFeatureImportanceScores}.
+     *
+     * @return A future completed with the result of getFeatureImportanceScores, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<FeatureImportanceResponse> getFeatureImportanceScoresAsync(UUID id, PagingInfo pagingInfo);
+
+    /**
+     * Asynchronous version of {@link #getResultPages(UUID, ResultPages, PagingInfo, PrefetchPolicy) getResultPages}.
+     *
+     * @return A future completed with the iterator once the first page has arrived, or exceptionally with a NexosisClientException.
+     */
+    <P extends SessionResponse> CompletableFuture<PageIterator<P>> getResultPagesAsync(UUID id, ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy);
+
+    /**
+     * Asynchronous version of {@link #getAllResults(UUID, ResultPages, PagingInfo, PrefetchPolicy) getAllResults}.
+     *
+     * @return A future completed with the result of getAllResults, or exceptionally with a NexosisClientException.
+     */
+    <P extends SessionResponse> CompletableFuture<P> getAllResultsAsync(UUID id, ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy);
 }
@@ -6,6 +6,8 @@ import com.nexosis.impl.NexosisClientException;
 import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface IViewClient {
     Action<HttpRequest, HttpResponse> getHttpMessageTransformer();
     void setHttpMessageTransformer(Action<HttpRequest, HttpResponse> httpMessageTransformer);
@@ -45,4 +47,31 @@ public interface IViewClient {
      */
     void remove(ViewDeleteCriteria criteria) throws NexosisClientException;
 
+    /**
+     * Asynchronous version of {@link #list(ViewQuery) list}.
+     *
+     * @return A future completed with the result of list, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ViewDefinitionList> listAsync(ViewQuery viewQuery);
+
+    /**
+     * Asynchronous version of {@link #get(ViewDataQuery) get}.
+     *
+     * @return A future completed with the result of get, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ViewDetail> getAsync(ViewDataQuery query);
+
+    /**
+     * Asynchronous version of {@link #create(String, ViewInfo) create}.
+     *
+     * @return A future completed with the result of create, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<ViewDefinition> createAsync(String viewName, ViewInfo view);
+
+    /**
+     * Asynchronous version of {@link #remove(ViewDeleteCriteria) remove}.
+     *
+     * @return A future completed when remove finishes, or exceptionally with a NexosisClientException.
+     */
+    CompletableFuture<Void> removeAsync(ViewDeleteCriteria criteria);
 }
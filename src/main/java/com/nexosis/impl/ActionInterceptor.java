@@ -0,0 +1,27 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.nexosis.util.Action;
+
+/**
+ * Runs the http message transformer of a sub-client as the innermost interceptor of a call: with a null
+ * response before the request is sent, and again with the response once it succeeds.
+ */
+class ActionInterceptor implements Interceptor {
+    private final Action<HttpRequest, HttpResponse> action;
+
+    ActionInterceptor(Action<HttpRequest, HttpResponse> action) {
+        this.action = action;
+    }
+
+    @Override
+    public void onRequest(CallContext context) throws Exception {
+        action.invoke(context.getRequest(), null);
+    }
+
+    @Override
+    public void onResponse(CallContext context) throws Exception {
+        action.invoke(context.getRequest(), context.getResponse());
+    }
+}
@@ -4,38 +4,291 @@ package com.nexosis.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import com.google.api.client.http.*;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.Json;
+import com.google.api.client.util.IOUtils;
+import com.nexosis.model.Columns;
+import com.nexosis.model.DataSetFileSource;
+import com.nexosis.model.DataSetRowSource;
 import com.nexosis.model.ErrorResponse;
+import com.nexosis.model.FileDownload;
 import com.nexosis.model.ReturnsQuotas;
 import com.nexosis.model.ReturnsStatus;
 import com.nexosis.model.SessionStatus;
 import com.nexosis.util.Action;
+import com.nexosis.util.ByteBufferInputStream;
+import com.nexosis.util.GzipEncoding;
 import com.nexosis.util.HttpMethod;
+import com.nexosis.util.JacksonBindings;
 import com.nexosis.util.JacksonMapperHttpContent;
 import com.nexosis.util.JacksonMapperParser;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ApiConnection {
 
     private String key;
     private String endpoint;
+    private String endpointPath;
     private HttpTransport httpTransport;
     private ObjectMapper mapper = new ObjectMapper();
+    private final JacksonBindings bindings = new JacksonBindings(mapper);
+    private final JacksonMapperParser parser = new JacksonMapperParser(bindings);
+    private boolean bytecodeBinding = false;
+    private int connectTimeout = 20 * 1000;
+    private int readTimeout = 20 * 1000;
+    private ExecutorService executor;
+    private Retrier retrier = new Retrier(RetryPolicy.none(), new RetryStatistics());
+    private final QuotaBudget quotaBudget = new QuotaBudget();
+    private final HedgingStatistics hedgingStatistics = new HedgingStatistics();
+    private Hedger hedger;
+    private CircuitBreakerPolicy circuitBreakerPolicy;
+    private CompressionPolicy compressionPolicy;
+    private String acceptEncoding = "gzip, deflate";
+    private boolean compressedPassThrough = false;
+    private final CoalescingStatistics coalescingStatistics = new CoalescingStatistics();
+    private Coalescer coalescer;
+    private final ValidatorCacheStatistics validatorCacheStatistics = new ValidatorCacheStatistics();
+    private ValidatorCache validatorCache;
+    private final ResourceCacheStatistics resourceCacheStatistics = new ResourceCacheStatistics();
+    private ResourceCache resourceCache;
+    private final DiskCacheStatistics diskCacheStatistics = new DiskCacheStatistics();
+    private DiskCache diskCache;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private volatile Interceptor[] interceptors = new Interceptor[0];
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
 
     ObjectMapper getObjectMapper(){
         return mapper;
     }
 
+    JacksonBindings getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @param bytecodeBinding true to bind JSON with classes generated at runtime instead of reflection. Must be
+     *                        set before the first request.
+     */
+    synchronized void setBytecodeBinding(boolean bytecodeBinding) {
+        if (bytecodeBinding && !this.bytecodeBinding) {
+            mapper.registerModule(new AfterburnerModule());
+            bindings.clear();
+            this.bytecodeBinding = true;
+        }
+    }
+
+    boolean isBytecodeBinding() {
+        return bytecodeBinding;
+    }
+
     String getApiKey() {
         return key;
     }
+
+    /**
+     * @param connectTimeout Timeout in milliseconds to establish a connection, 0 for an infinite timeout
+     */
+    void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * @param readTimeout Timeout in milliseconds to read data from an established connection, 0 for an infinite timeout
+     */
+    void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+    /**
+     * @param executor The executor on which asynchronous requests are run
+     */
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param retryPolicy The policy for retrying requests which fail with transient errors
+     */
+    void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retrier = new Retrier(retryPolicy, retrier.getStatistics());
+    }
+
+    RetryStatistics getRetryStatistics() {
+        return retrier.getStatistics();
+    }
+
+    QuotaBudget getQuotaBudget() {
+        return quotaBudget;
+    }
+
+    /**
+     * @param hedgingPolicy The policy for hedging slow GET and HEAD requests, or null to disable hedging
+     */
+    void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        if (hedger != null) {
+            hedger.close();
+        }
+        hedger = hedgingPolicy == null ? null : new Hedger(hedgingPolicy, hedgingStatistics, requestFactory);
+    }
+
+    HedgingStatistics getHedgingStatistics() {
+        return hedgingStatistics;
+    }
+
+    /**
+     * @param circuitBreakerPolicy The policy of the circuit breaker kept for each endpoint family, or null to disable them
+     */
+    void setCircuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        circuitBreakers.clear();
+    }
+
+    /**
+     * @param family An endpoint family such as {@code sessions}
+     * @return The breaker guarding the family, or null when circuit breakers are disabled
+     */
+    CircuitBreaker getCircuitBreaker(String family) {
+        CircuitBreakerPolicy policy = circuitBreakerPolicy;
+        if (policy == null) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(family, key -> new CircuitBreaker(key, policy));
+    }
+
+    Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    /**
+     * @param compressionPolicy The policy for compressing PUT and POST bodies, or null to send them uncompressed
+     */
+    void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    /**
+     * @param responseCompression true to ask for gzip or deflate compressed responses to GET requests
+     */
+    void setResponseCompression(boolean responseCompression) {
+        this.acceptEncoding = responseCompression ? "gzip, deflate" : null;
+    }
+
+    /**
+     * @param compressedPassThrough true to write compressed downloads to the caller's OutputStream without decoding them
+     */
+    void setCompressedPassThrough(boolean compressedPassThrough) {
+        this.compressedPassThrough = compressedPassThrough;
+    }
+
+    /**
+     * @param requestCoalescing true to let concurrent identical GET and HEAD calls share a single request
+     */
+    void setRequestCoalescing(boolean requestCoalescing) {
+        this.coalescer = requestCoalescing ? new Coalescer(coalescingStatistics) : null;
+    }
+
+    CoalescingStatistics getCoalescingStatistics() {
+        return coalescingStatistics;
+    }
+
+    /**
+     * @param validatorCachePolicy The policy for caching GET responses and revalidating them with conditional
+     *                             requests, or null to always download them in full
+     */
+    void setValidatorCachePolicy(ValidatorCachePolicy validatorCachePolicy) {
+        this.validatorCache = validatorCachePolicy == null ? null : new ValidatorCache(validatorCachePolicy, validatorCacheStatistics);
+    }
+
+    ValidatorCacheStatistics getValidatorCacheStatistics() {
+        return validatorCacheStatistics;
+    }
+
+    /**
+     * @param resourceCachePolicy The policy for caching completed session results and models in memory, or null
+     *                            to always request them
+     */
+    void setResourceCachePolicy(ResourceCachePolicy resourceCachePolicy) {
+        this.resourceCache = resourceCachePolicy == null ? null : new ResourceCache(resourceCachePolicy, resourceCacheStatistics);
+    }
+
+    ResourceCacheStatistics getResourceCacheStatistics() {
+        return resourceCacheStatistics;
+    }
+
+    /**
+     * @param diskCachePolicy The policy for keeping completed session results on disk, or null to always download them
+     * @throws IllegalArgumentException if the cache directory cannot be created or read
+     */
+    void setDiskCachePolicy(DiskCachePolicy diskCachePolicy) {
+        try {
+            this.diskCache = diskCachePolicy == null ? null : new DiskCache(diskCachePolicy, diskCacheStatistics);
+        } catch (IOException ioe) {
+            throw new IllegalArgumentException("Cannot use " + diskCachePolicy.getDirectory() + " as a disk cache.", ioe);
+        }
+    }
+
+    DiskCacheStatistics getDiskCacheStatistics() {
+        return diskCacheStatistics;
+    }
+
+    MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds an interceptor at the end of the chain every request passes through.
+     */
+    synchronized void addInterceptor(Interceptor interceptor) {
+        Interceptor[] chain = Arrays.copyOf(interceptors, interceptors.length + 1);
+        chain[chain.length - 1] = interceptor;
+        interceptors = chain;
+    }
+
+    List<Interceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    /**
+     * Releases the threads held for hedged requests.
+     */
+    void close() {
+        if (hedger != null) {
+            hedger.close();
+        }
+    }
+
+    /**
+     * @return The client executor, created with the default bounds if none was set
+     */
+    synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = ClientExecutors.bounded(ClientExecutors.DEFAULT_THREADS, ClientExecutors.DEFAULT_QUEUE_SIZE);
+        }
+        return executor;
+    }
+
     private HttpRequestFactory requestFactory;
     /**
      *
@@ -56,16 +309,19 @@ public class ApiConnection {
      */
     ApiConnection(String endpoint, String key, HttpTransport httpTransport) {
         this.endpoint = endpoint;
+        this.endpointPath = new GenericUrl(endpoint).getRawPath();
         this.httpTransport = httpTransport;
         this.key = key;
         mapper.registerModule(new JodaModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
-        this.requestFactory = httpTransport.createRequestFactory(new HttpRequestInitializer() {
+        this.requestFactory = new DecodingTransport(new MeteredTransport(httpTransport, metrics, endpoint, this::relativePath)).createRequestFactory(new HttpRequestInitializer() {
             @Override
             public void initialize(HttpRequest request) throws IOException {
                 request.setSuppressUserAgentSuffix(true);
-                request.setParser(new JacksonMapperParser(getObjectMapper()));
+                request.setConnectTimeout(connectTimeout);
+                request.setReadTimeout(readTimeout);
+                request.setParser(parser);
                 request.setHeaders(new HttpHeaders()
                         .set("api-key", getApiKey() )
                         .setUserAgent(NexosisClient.CLIENT_VERSION));
@@ -87,7 +343,7 @@ public class ApiConnection {
             GenericUrl uri = prepareURI(path, parameters);
 
             HttpRequest request = requestFactory.buildGetRequest(uri);
-            request.getHeaders().setAccept(acceptType);
+            request.getHeaders().setAccept(acceptType).setAcceptEncoding(downloadAcceptEncoding());
             makeRequest(request, httpMessageTransformer, output);
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
@@ -104,7 +360,7 @@ public class ApiConnection {
 
             GenericUrl uri = prepareURI(path, parameters);
             HttpRequest request = requestFactory.buildGetRequest(uri);
-            request.getHeaders().setAccept(acceptType);
+            request.getHeaders().setAccept(acceptType).setAcceptEncoding(downloadAcceptEncoding());
             return makeRequest(type, request, httpMessageTransformer, output);
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
@@ -115,6 +371,76 @@ public class ApiConnection {
         return get(type, path, parameters, httpMessageTransformer, output, null);
     }
 
+    /**
+     * Writes a response body to a file, replacing it only once the whole body has been written. A session result
+     * which is not complete is not written.
+     */
+    FileDownload download(String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer, Path target, String acceptType) throws NexosisClientException {
+        try {
+            if (StringUtils.isEmpty(acceptType)) {
+                acceptType = Json.MEDIA_TYPE;
+            }
+
+            GenericUrl uri = prepareURI(path, parameters);
+            HttpRequest request = requestFactory.buildGetRequest(uri);
+            request.getHeaders().setAccept(acceptType).setAcceptEncoding(downloadAcceptEncoding());
+
+            HttpResponse response = makeRequest(request, httpMessageTransformer);
+            try {
+                FileDownload result = new FileDownload(target);
+                result.AssignStatus(response.getHeaders());
+                if (result.getSessionStatus() != null && result.getSessionStatus() != SessionStatus.COMPLETED) {
+                    return result;
+                }
+
+                long started = System.nanoTime();
+                InputStream content = openDownload(response);
+                try {
+                    long written = FileDownloader.write(content == null ? new ByteArrayInputStream(new byte[0]) : content, target);
+                    result.setWritten(written, System.nanoTime() - started);
+                } finally {
+                    if (content != null) {
+                        content.close();
+                    }
+                }
+                return result;
+            } finally {
+                response.disconnect();
+            }
+        } catch (HttpResponseException hre) {
+            throw GenerateNexosisException(hre);
+        } catch (IOException ioe) {
+            throw new NexosisClientException("IO Error while writing the response to " + target + ": " + ioe.getMessage(), ioe);
+        }
+    }
+
+    /**
+     * Gets a page of rows, returning a cursor which parses them as the body is read. The response is not
+     * cached or coalesced since its body is consumed by the caller.
+     */
+    RowCursor getRows(String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        try {
+            GenericUrl uri = prepareURI(path, parameters);
+
+            HttpRequest request = requestFactory.buildGetRequest(uri);
+            request.getHeaders().setAccept(Json.MEDIA_TYPE).setAcceptEncoding(acceptEncoding);
+
+            HttpResponse response = makeRequest(request, httpMessageTransformer);
+            try {
+                InputStream content = response.getContent();
+                if (content == null) {
+                    throw new IOException("The response has no content.");
+                }
+                return new RowCursor(response, mapper.getFactory().createParser(content), bindings);
+            } catch (IOException | RuntimeException e) {
+                response.disconnect();
+                throw e;
+            }
+        } catch (IOException ioe) {
+            throw new NexosisClientException("IO Error while making HTTP Request", ioe);
+        }
+    }
+
     public <T> T get(Class<T> type, String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
         return get(type, path, parameters, httpMessageTransformer, (String)null);
     }
@@ -128,7 +454,20 @@ public class ApiConnection {
             GenericUrl uri = prepareURI(path, parameters);
 
             HttpRequest request = requestFactory.buildGetRequest(uri);
-            request.getHeaders().setAccept(acceptType);
+            request.getHeaders().setAccept(acceptType).setAcceptEncoding(acceptEncoding);
+
+            ValidatorCache validatorCache = this.validatorCache;
+            if (validatorCache != null && validatorCache.caches(type)) {
+                return getConditional(validatorCache, type, request, uri.build() + " " + acceptType, httpMessageTransformer);
+            }
+
+            Coalescer coalescer = this.coalescer;
+            if (coalescer != null) {
+                Coalescer.Response response = coalescer.execute(
+                        Coalescer.key(HttpMethod.GET, uri.build(), acceptType, httpMessageTransformer),
+                        () -> buffer(request, httpMessageTransformer));
+                return parse(type, request, response);
+            }
 
             return makeRequest(type, request, httpMessageTransformer);
         } catch (IOException ioe) {
@@ -136,6 +475,74 @@ public class ApiConnection {
         }
     }
 
+    /**
+     * Gets a resource which never changes once its session has completed, answering from the resource cache
+     * when one is configured. Resources which could still change are returned but not cached.
+     */
+    <T> T getImmutable(Class<T> type, String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        return getImmutable(type, path, parameters, httpMessageTransformer, null);
+    }
+
+    /**
+     * Gets a resource which never changes once its session has completed, also keeping it in the disk cache
+     * when it is one of the results of {@code sessionId}.
+     */
+    <T> T getImmutable(Class<T> type, String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer, UUID sessionId) throws NexosisClientException {
+        ResourceCache resourceCache = this.resourceCache;
+        String key = null;
+        if (resourceCache != null) {
+            key = prepareURI(path, parameters).build() + " " + type.getName();
+            Object cached = resourceCache.get(key);
+            if (type.isInstance(cached)) {
+                return type.cast(cached);
+            }
+        }
+
+        DiskCache diskCache = this.diskCache;
+        T value = diskCache != null && sessionId != null
+                ? getStored(diskCache, type, path, parameters, httpMessageTransformer, sessionId)
+                : get(type, path, parameters, httpMessageTransformer);
+
+        if (resourceCache != null) {
+            resourceCache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Parses a response body straight from the disk cache, or downloads it and appends it to the cache once
+     * its session has completed.
+     */
+    private <T> T getStored(DiskCache diskCache, Class<T> type, String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer, UUID sessionId) throws NexosisClientException {
+        try {
+            GenericUrl uri = prepareURI(path, parameters);
+            HttpRequest request = requestFactory.buildGetRequest(uri);
+            request.getHeaders().setAccept(Json.MEDIA_TYPE).setAcceptEncoding(acceptEncoding);
+
+            String key = uri.build();
+            ByteBuffer stored = diskCache.get(sessionId, key);
+            if (stored != null) {
+                try {
+                    long started = System.nanoTime();
+                    T value = request.getParser().parseAndClose(new ByteBufferInputStream(stored), StandardCharsets.UTF_8, type);
+                    recordDeserialization(request, System.nanoTime() - started);
+                    return value;
+                } catch (IOException unreadable) {
+                    diskCache.invalidate(sessionId);
+                }
+            }
+
+            Coalescer.Response response = buffer(request, httpMessageTransformer);
+            T value = parse(type, request, response);
+            if (ResourceCache.isImmutable(value)) {
+                diskCache.put(sessionId, key, response.getBody());
+            }
+            return value;
+        } catch (IOException ioe) {
+            throw new NexosisClientException("Internal Error.", ioe);
+        }
+    }
+
     public HttpHeaders head(String path, Map<String,Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException
     {
         String acceptType = Json.MEDIA_TYPE;
@@ -145,6 +552,14 @@ public class ApiConnection {
             HttpRequest request = requestFactory.buildHeadRequest(uri);
             request.getHeaders().setAccept(acceptType);
 
+            Coalescer coalescer = this.coalescer;
+            if (coalescer != null) {
+                return coalescer.execute(Coalescer.key(HttpMethod.HEAD, uri.build(), acceptType, httpMessageTransformer), () -> {
+                    HttpResponse response = makeRequest(request, httpMessageTransformer);
+                    return new Coalescer.Response(response.getStatusCode(), response.getHeaders(), new byte[0]);
+                }).getHeaders();
+            }
+
             return makeRequest(request, httpMessageTransformer).getHeaders();
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
@@ -169,14 +584,25 @@ public class ApiConnection {
         return sendStreamContent(type, path, parameters, HttpMethod.POST, body, Json.MEDIA_TYPE, httpMessageTransformer);
     }
 
+    /**
+     * Puts rows which are appended to a data set. The request is only retried when the server cannot have
+     * processed it, since sending it again would append the rows twice.
+     */
+    <T> T append(Class<T> type, String path, Map<String, Object> parameters, Object body, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        return sendContent(type, path, parameters, HttpMethod.PUT, new AppendContent(bindings.writer(body.getClass()), body), httpMessageTransformer);
+    }
+
     private <T> T sendObjectContent(Class<T> type, String path, Map<String, Object> parameters, HttpMethod method, Object body, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        return sendContent(type, path, parameters, method, new JacksonMapperHttpContent(bindings.writer(body.getClass()), body), httpMessageTransformer);
+    }
+
+    private <T> T sendContent(Class<T> type, String path, Map<String, Object> parameters, HttpMethod method, JacksonMapperHttpContent contentSend, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
         String acceptType = Json.MEDIA_TYPE;
         try {
 
             GenericUrl uri = prepareURI(path, parameters);
 
             HttpRequest request = null;
-            HttpContent contentSend = new JacksonMapperHttpContent(getObjectMapper(), body);
 
             switch (method) {
                 case PUT:
@@ -188,6 +614,55 @@ public class ApiConnection {
             }
             request.getHeaders().setAccept(acceptType).setContentType(acceptType);
 
+            CompressionPolicy compression = compressionPolicy;
+            // serialized once here, as measuring the body and then writing it would serialize it twice
+            if (compression != null && contentSend.buffer() >= compression.getMinSizeBytes()) {
+                request.setEncoding(new GzipEncoding(compression.getLevel()));
+            }
+
+            return makeRequest(type, request, httpMessageTransformer);
+        } catch (IOException ioe) {
+            throw new NexosisClientException("Internal Error.", ioe);
+        }
+    }
+
+    /**
+     * Puts a data set whose rows are written as they are produced, with chunked transfer encoding.
+     */
+    <T> T put(Class<T> type, String path, Map<String, Object> parameters, DataSetRowSource source, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        try {
+            GenericUrl uri = prepareURI(path, parameters);
+            HttpContent content = new RowsContent(mapper.getFactory(), bindings.writer(Columns.class), source.getColumns(), source.getRows());
+
+            HttpRequest request = requestFactory.buildPutRequest(uri, content);
+            request.getHeaders().setAccept(Json.MEDIA_TYPE).setContentType(Json.MEDIA_TYPE);
+
+            CompressionPolicy compression = compressionPolicy;
+            // the size is unknown until the rows are written, and a streamed upload is expected to be large
+            if (compression != null) {
+                request.setEncoding(new GzipEncoding(compression.getLevel()));
+            }
+            return makeRequest(type, request, httpMessageTransformer);
+        } catch (IOException ioe) {
+            throw new NexosisClientException("Internal Error.", ioe);
+        }
+    }
+
+    /**
+     * Puts a data set from a file, or a range of one, with a known Content-Length.
+     */
+    <T> T put(Class<T> type, String path, Map<String, Object> parameters, DataSetFileSource source, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        try {
+            GenericUrl uri = prepareURI(path, parameters);
+            HttpContent content = new FileRangeContent(source);
+
+            HttpRequest request = requestFactory.buildPutRequest(uri, content);
+            request.getHeaders().setAccept(Json.MEDIA_TYPE).setContentType(source.getContentType());
+
+            CompressionPolicy compression = compressionPolicy;
+            if (compression != null && content.getLength() >= compression.getMinSizeBytes()) {
+                request.setEncoding(new GzipEncoding(compression.getLevel()));
+            }
             return makeRequest(type, request, httpMessageTransformer);
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
@@ -200,6 +675,14 @@ public class ApiConnection {
         try {
             GenericUrl uri = prepareURI(path, parameters);
             HttpRequest request = null;
+            CompressionPolicy compression = compressionPolicy;
+            boolean compress = false;
+            if (compression != null) {
+                if (!body.markSupported()) {
+                    body = new BufferedInputStream(body);
+                }
+                compress = hasAtLeast(body, compression.getMinSizeBytes());
+            }
             InputStreamContent inputStream = new InputStreamContent(contentType, body);
             switch (method) {
                 case PUT:
@@ -210,12 +693,38 @@ public class ApiConnection {
                     break;
             }
             request.getHeaders().setAccept(acceptType).setContentType(contentType);
+            if (compress) {
+                request.setEncoding(new GzipEncoding(compression.getLevel()));
+            }
             return makeRequest(type, request, httpMessageTransformer);
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
         }
     }
 
+    /**
+     * Reads ahead in a stream to find out whether it holds at least the given number of bytes, then rewinds it.
+     */
+    private static boolean hasAtLeast(InputStream body, int bytes) throws IOException {
+        if (bytes == 0) {
+            return true;
+        }
+        body.mark(bytes);
+        try {
+            long read = 0;
+            byte[] buffer = new byte[Math.min(bytes, 8192)];
+            while (read < bytes) {
+                int count = body.read(buffer, 0, (int) Math.min(buffer.length, bytes - read));
+                if (count < 0) {
+                    return false;
+                }
+                read += count;
+            }
+            return true;
+        } finally {
+            body.reset();
+        }
+    }
 
     public void delete(String path, Map<String, Object> parameters, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
         String acceptType = Json.MEDIA_TYPE;
@@ -226,6 +735,22 @@ public class ApiConnection {
             request.getHeaders().setAccept(acceptType);
             HttpResponse response = makeRequest(request, httpMessageTransformer);
             response.disconnect();
+
+            ResourceCache resourceCache = this.resourceCache;
+            if (resourceCache != null) {
+                // drops everything under the deleted resource, or everything of its kind when deleting by criteria
+                resourceCache.invalidate(prepareURI(path, null).build());
+            }
+
+            DiskCache diskCache = this.diskCache;
+            if (diskCache != null && "sessions".equals(Endpoints.family(relativePath(uri)))) {
+                String[] segments = relativePath(uri).split("/");
+                try {
+                    diskCache.invalidate(UUID.fromString(segments[1]));
+                } catch (IndexOutOfBoundsException | IllegalArgumentException byCriteria) {
+                    diskCache.clear();
+                }
+            }
         } catch (IOException ioe) {
             throw new NexosisClientException("Internal Error.", ioe);
         }
@@ -237,7 +762,7 @@ public class ApiConnection {
         try {
             response = makeRequest(request, httpMessageTransformer);
             try {
-                T object = response.parseAs(type);
+                T object = parseAs(response, type);
                 if (ReturnsQuotas.class.isAssignableFrom(object.getClass())) {
                     ((ReturnsQuotas) object).AssignQuotas(response.getHeaders());
                 }
@@ -263,7 +788,7 @@ public class ApiConnection {
             response = makeRequest(request, httpMessageTransformer);
             try {
                 // Write content to stream if status is complete
-                response.download(output);
+                download(response, output);
             } finally {
                 response.disconnect();
             }
@@ -287,7 +812,7 @@ public class ApiConnection {
                     ((ReturnsStatus) object).AssignStatus(response.getHeaders());
                     if (((ReturnsStatus) object).getSessionStatus().equals(SessionStatus.COMPLETED)) {
                         // Write content to stream if status is complete
-                        response.download(output);
+                        download(response, output);
                     }
                 }
 
@@ -302,26 +827,303 @@ public class ApiConnection {
         }
     }
 
+    /**
+     * Sends a GET with the validators of a cached response, returning the cached object if it is not modified.
+     */
+    private <T> T getConditional(ValidatorCache cache, Class<T> type, HttpRequest request, String key, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        cache.getStatistics().recordRequest();
+
+        ValidatorCache.Cached cached = cache.get(key);
+        if (cached != null && type.isInstance(cached.getValue())) {
+            if (cached.getEtag() != null)
+                request.getHeaders().setIfNoneMatch(cached.getEtag());
+            if (cached.getLastModified() != null)
+                request.getHeaders().setIfModifiedSince(cached.getLastModified());
+            // a 304 is returned as a response rather than thrown
+            request.setThrowExceptionOnExecuteError(false);
+            cache.getStatistics().recordConditionalRequest();
+        } else {
+            cached = null;
+        }
+
+        try {
+            HttpResponse response = makeRequest(request, httpMessageTransformer);
+            try {
+                if (cached != null && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                    cache.getStatistics().recordNotModified();
+                    return type.cast(cached.getValue());
+                }
+
+                T object = parseAs(response, type);
+                if (ReturnsQuotas.class.isAssignableFrom(object.getClass())) {
+                    ((ReturnsQuotas) object).AssignQuotas(response.getHeaders());
+                }
+                cache.put(key, response.getHeaders().getETag(), response.getHeaders().getLastModified(), object);
+                return object;
+            } finally {
+                response.disconnect();
+            }
+        } catch (IOException ioe) {
+            throw new NexosisClientException("IO Error while making HTTP Request", ioe);
+        }
+    }
+
+    /**
+     * Parses a response body as it is downloaded, recording the time spent parsing apart from the time spent
+     * waiting for the body to arrive.
+     */
+    private <T> T parseAs(HttpResponse response, Class<T> type) throws IOException {
+        if (!metrics.isEnabled()) {
+            return response.parseAs(type);
+        }
+        MeteredTransport.MeteredContent content = MeteredTransport.metered(response.getContent());
+        long waited = content == null ? 0 : content.getReadNanos();
+        long started = System.nanoTime();
+
+        T object = response.parseAs(type);
+
+        long elapsed = System.nanoTime() - started;
+        if (content != null) {
+            elapsed -= content.getReadNanos() - waited;
+        }
+        recordDeserialization(response.getRequest(), elapsed);
+        return object;
+    }
+
+    private void recordDeserialization(HttpRequest request, long nanos) {
+        EndpointMetrics endpoint = metrics.endpoint(request.getRequestMethod(), relativePath(request.getUrl()));
+        if (endpoint != null) {
+            endpoint.recordDeserialization(nanos);
+        }
+    }
+
+    /**
+     * Sends a request and reads its response in full so it can be shared by coalesced calls.
+     */
+    private Coalescer.Response buffer(HttpRequest request, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        HttpResponse response = makeRequest(request, httpMessageTransformer);
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            InputStream content = response.getContent();
+            if (content != null) {
+                IOUtils.copy(content, body);
+            }
+            return new Coalescer.Response(response.getStatusCode(), response.getHeaders(), body.toByteArray());
+        } catch (IOException ioe) {
+            throw new NexosisClientException("IO Error while making HTTP Request", ioe);
+        } finally {
+            try {
+                response.disconnect();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Deserializes a caller's own copy of a shared response.
+     */
+    private <T> T parse(Class<T> type, HttpRequest request, Coalescer.Response response) throws NexosisClientException {
+        if (response.getBody().length == 0 && (response.getStatusCode() == 204 || response.getStatusCode() == 304)) {
+            return null;
+        }
+        try {
+            long started = System.nanoTime();
+            T object = request.getParser().parseAndClose(new ByteArrayInputStream(response.getBody()), StandardCharsets.UTF_8, type);
+            recordDeserialization(request, System.nanoTime() - started);
+            if (object != null && ReturnsQuotas.class.isAssignableFrom(object.getClass())) {
+                ((ReturnsQuotas) object).AssignQuotas(response.getHeaders());
+            }
+            return object;
+        } catch (IOException ioe) {
+            throw new NexosisClientException("IO Error while making HTTP Request", ioe);
+        }
+    }
+
+    /**
+     * Copies a response body to the caller's stream, decoding it unless compressed bodies are passed through.
+     */
+    private void download(HttpResponse response, OutputStream output) throws IOException {
+        InputStream content = openDownload(response);
+        if (content == null) {
+            return;
+        }
+        try {
+            IOUtils.copy(content, output, false);
+        } finally {
+            content.close();
+        }
+    }
+
+    /**
+     * @return The response body, still compressed if compressed bodies are passed through, or null if there is none
+     */
+    private InputStream openDownload(HttpResponse response) throws IOException {
+        InputStream content = response.getContent();
+        if (compressedPassThrough && content instanceof DecodingTransport.DecodedContent) {
+            content = ((DecodingTransport.DecodedContent) content).getRaw();
+        }
+        return content;
+    }
+
+    /**
+     * @return The encodings accepted for a download, only gzip when compressed bodies are passed through to the caller
+     */
+    private String downloadAcceptEncoding() {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        return compressedPassThrough ? "gzip" : acceptEncoding;
+    }
+
     private HttpResponse makeRequest(HttpRequest request, Action<HttpRequest, HttpResponse> httpMessageTransformer) throws NexosisClientException {
+        Retrier retrier = this.retrier;
+        retrier.onRequest();
+
+        String path = relativePath(request.getUrl());
+        QuotaType quota = QuotaType.forRequest(request.getRequestMethod(), path);
+        Hedger hedger = this.hedger;
+        CircuitBreaker breaker = getCircuitBreaker(Endpoints.family(path));
+        Interceptor[] chain = interceptors;
+        if (httpMessageTransformer != null) {
+            chain = Arrays.copyOf(chain, chain.length + 1);
+            chain[chain.length - 1] = new ActionInterceptor(httpMessageTransformer);
+        }
+        CallContext context = chain.length == 0 ? null : new CallContext(request, path);
+        boolean reserved = quotaBudget.acquire(quota);
         HttpResponse response;
 
         try {
-            if (httpMessageTransformer != null)
-                httpMessageTransformer.invoke(request, null);
+            for (int attempt = 1; ; attempt++) {
+                long delay;
+                long permit = breaker != null ? breaker.acquire() : 0;
+                long started = System.nanoTime();
+                boolean failed = false;
 
-            response = request.execute();
+                try {
+                    if (context != null) {
+                        context.startAttempt(attempt);
+                        for (Interceptor interceptor : chain)
+                            interceptor.onRequest(context);
+                    }
 
-            if (httpMessageTransformer != null)
-                httpMessageTransformer.invoke(request, response);
+                    response = hedger != null
+                            ? hedger.execute(request, request.getRequestMethod() + " " + Endpoints.template(path))
+                            : request.execute();
+                    if (!response.isSuccessStatusCode() && response.getStatusCode() != HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                        // only returned rather than thrown for conditional requests, which expect a 304
+                        throw new HttpResponseException(response);
+                    }
+                    quotaBudget.update(response.getHeaders());
+                    retrier.onSuccess(attempt);
+                    break;
+                } catch (HttpResponseException hre) {
+                    failed = hre.getStatusCode() >= 500;
+                    quotaBudget.update(hre.getHeaders());
+                    delay = retrier.delayBeforeRetry(request, attempt, hre.getStatusCode(), hre.getHeaders(), null);
+                    intercept(chain, context, hre, delay >= 0);
+                    if (delay < 0)
+                        throw GenerateNexosisException(hre);
+                } catch (IOException ioe) {
+                    failed = true;
+                    delay = retrier.delayBeforeRetry(request, attempt, 0, null, ioe);
+                    intercept(chain, context, ioe, delay >= 0);
+                    if (delay < 0)
+                        throw new NexosisClientException("IO Error while making HTTP Request: " + ioe.getMessage());
+                } catch (NexosisClientException nce) {
+                    throw nce;
+                } catch (Exception e) {
+                    throw new NexosisClientException("Error while making HTTP Request: " + e.getMessage());
+                } finally {
+                    if (breaker != null)
+                        breaker.onResult(permit, System.nanoTime() - started, failed);
+                }
+
+                Retrier.sleep(delay);
+            }
+        } finally {
+            if (reserved)
+                quotaBudget.release(quota);
+        }
 
+        if (context == null) {
             return response;
-        } catch (HttpResponseException hre) {
-            throw GenerateNexosisException(hre);
-        } catch (IOException ioe) {
-            throw new NexosisClientException("IO Error while making HTTP Request: " + ioe.getMessage());
+        }
+        // outside the retry loop, since the request has succeeded and must not be sent again
+        boolean intercepted = false;
+        try {
+            context.onResponse(response);
+            for (int i = chain.length - 1; i >= 0; i--)
+                chain[i].onResponse(context);
+            intercepted = true;
+            return response;
+        } catch (NexosisClientException nce) {
+            throw nce;
         } catch (Exception e) {
-            throw new NexosisClientException("Error while making HTTP Request: " + e.getMessage());
+            throw new NexosisClientException("Error while making HTTP Request: " + e.getMessage(), e);
+        } finally {
+            if (!intercepted) {
+                // the response is not returned, so its connection is released here
+                try {
+                    response.disconnect();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the exception phase of the interceptors, last added first.
+     */
+    private static void intercept(Interceptor[] chain, CallContext context, Exception error, boolean retrying) {
+        if (context == null) {
+            return;
+        }
+        context.onException(retrying);
+        for (int i = chain.length - 1; i >= 0; i--)
+            chain[i].onException(context, error);
+    }
+
+    /**
+     * @return The path of a request URL relative to the API endpoint, without a leading slash
+     */
+    String relativePath(GenericUrl url) {
+        String path = url.getRawPath();
+
+        if (path == null) {
+            return "";
+        }
+        if (endpointPath != null && path.startsWith(endpointPath)) {
+            path = path.substring(endpointPath.length());
+        }
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    /**
+     * Runs a blocking client call on the client executor.
+     *
+     * @param call The client call to run
+     * @return A future completed with the result of the call, or exceptionally with a NexosisClientException or
+     *         with an Error the call threw
+     */
+    <T> CompletableFuture<T> submit(final Callable<T> call) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (NexosisClientException nce) {
+                    future.completeExceptionally(nce);
+                } catch (Exception e) {
+                    future.completeExceptionally(new NexosisClientException(e.getMessage(), e));
+                } catch (Throwable t) {
+                    // an Error, which would otherwise leave the future incomplete forever
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            future.completeExceptionally(new NexosisClientException("Request rejected, too many asynchronous requests are waiting.", ree));
         }
+        return future;
     }
 
     GenericUrl prepareURI(String path, Map<String,Object> parameters) {
@@ -345,7 +1147,7 @@ public class ApiConnection {
         String errorResponseContent = null;
         try {
             // map the json error content to ErrorResponse object
-            ErrorResponse errorResponse = mapper.readValue(responseException.getContent(), ErrorResponse.class);
+            ErrorResponse errorResponse = bindings.reader(ErrorResponse.class).readValue(responseException.getContent());
 
             if (errorResponse != null)
                 return new NexosisClientException("API Error: " + errorResponse.getStatusCode() + " - " + errorResponse.getMessage(), errorResponse);
@@ -0,0 +1,14 @@
+package com.nexosis.impl;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nexosis.util.JacksonMapperHttpContent;
+
+/**
+ * The body of a PUT which appends rows to a data set. Sending it twice appends the rows twice, so unlike other
+ * PUTs the {@link Retrier} treats it as not idempotent.
+ */
+class AppendContent extends JacksonMapperHttpContent {
+    AppendContent(ObjectWriter objectWriter, Object data) {
+        super(objectWriter, data);
+    }
+}
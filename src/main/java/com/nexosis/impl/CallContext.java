@@ -0,0 +1,117 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The state of one call passed to each {@link Interceptor}: the request, its response once received, timing
+ * and any values the interceptors keep for the length of the call.
+ */
+public class CallContext {
+    private final HttpRequest request;
+    private final String path;
+    private final long startedNanos = System.nanoTime();
+    private String template;
+    private int attempt;
+    private long attemptStartedNanos;
+    private long attemptNanos = -1;
+    private HttpResponse response;
+    private boolean retrying;
+    private Map<String, Object> attributes;
+
+    CallContext(HttpRequest request, String path) {
+        this.request = request;
+        this.path = path;
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return The response of the current attempt, or null before it is received or when the attempt failed
+     */
+    public HttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The method and path template of the request, such as {@code GET sessions/{id}/results}
+     */
+    public String getTemplate() {
+        if (template == null) {
+            template = request.getRequestMethod() + " " + Endpoints.template(path);
+        }
+        return template;
+    }
+
+    /**
+     * @return The current attempt, starting at 1
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * @return true in the exception phase when the request will be sent again
+     */
+    public boolean isRetrying() {
+        return retrying;
+    }
+
+    /**
+     * @return The value of {@link System#nanoTime()} when the call started
+     */
+    public long getStartedNanos() {
+        return startedNanos;
+    }
+
+    /**
+     * @return Nanoseconds since the call started, including earlier attempts and the delays between them
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+
+    /**
+     * @return Nanoseconds the current attempt took to receive its response or fail, or -1 in the request phase
+     */
+    public long getAttemptNanos() {
+        return attemptNanos;
+    }
+
+    public Object getAttribute(String name) {
+        return attributes == null ? null : attributes.get(name);
+    }
+
+    /**
+     * Keeps a value, such as a trace span, for the later phases of this call.
+     */
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+        attributes.put(name, value);
+    }
+
+    void startAttempt(int attempt) {
+        this.attempt = attempt;
+        this.attemptStartedNanos = System.nanoTime();
+        this.attemptNanos = -1;
+        this.response = null;
+        this.retrying = false;
+    }
+
+    void onResponse(HttpResponse response) {
+        this.attemptNanos = System.nanoTime() - attemptStartedNanos;
+        this.response = response;
+    }
+
+    void onException(boolean retrying) {
+        this.attemptNanos = System.nanoTime() - attemptStartedNanos;
+        this.retrying = retrying;
+    }
+}
@@ -0,0 +1,45 @@
+package com.nexosis.impl;
+
+import com.nexosis.IDataSetClient;
+
+/**
+ * Controls how {@link IDataSetClient#create(com.nexosis.model.IDataSetSource, ChunkedUploadPolicy)} splits the
+ * rows of a data set into chunks which are each sent as a separate PUT, appending to the data set.
+ * <p>
+ * The first chunk is sent on its own to create the data set, then up to {@code maxConcurrency} chunks are sent
+ * at the same time. Each chunk is retried by the client's {@link RetryPolicy}, which only sends an appended chunk
+ * again when the server cannot have processed it. Chunks which have been sent are not sent again when another
+ * chunk fails.
+ */
+public class ChunkedUploadPolicy {
+    private int chunkSizeRows = 5000;
+    private int maxConcurrency = 4;
+
+    public int getChunkSizeRows() {
+        return chunkSizeRows;
+    }
+
+    /**
+     * @param chunkSizeRows Number of rows sent in each request. Defaults to 5000.
+     */
+    public ChunkedUploadPolicy setChunkSizeRows(int chunkSizeRows) {
+        if (chunkSizeRows < 1)
+            throw new IllegalArgumentException("chunkSizeRows must be at least 1.");
+        this.chunkSizeRows = chunkSizeRows;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency Most chunks sent at the same time, each on its own connection. Defaults to 4.
+     */
+    public ChunkedUploadPolicy setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be at least 1.");
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+}
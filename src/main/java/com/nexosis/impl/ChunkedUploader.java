@@ -0,0 +1,230 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.nexosis.model.Columns;
+import com.nexosis.model.DataSetDetail;
+import com.nexosis.model.DataSetSummary;
+import com.nexosis.util.Action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Uploads the rows of one data set as chunks appended by separate PUT requests, according to a
+ * {@link ChunkedUploadPolicy}.
+ * <p>
+ * Chunks are sent on the client executor. A chunk which has not started when the uploader needs its permit, or
+ * when the rows run out, is sent on the calling thread instead, so an upload started by {@code createAsync}
+ * cannot wait on chunks queued behind it. Each chunk is sent once, and retried only by the client's
+ * {@link RetryPolicy}.
+ */
+class ChunkedUploader {
+    private final ApiConnection apiConnection;
+    private final ChunkedUploadPolicy policy;
+    private final String name;
+    private final Columns columns;
+    private final Action<HttpRequest, HttpResponse> httpMessageTransformer;
+    private final Semaphore permits;
+    private final Queue<Chunk> queued = new ConcurrentLinkedQueue<>();
+    private final List<Chunk> failed = new ArrayList<>();
+    private DataSetSummary summary;
+    private int chunkCount;
+    private long nextRow;
+    private List<Map<String, String>> batch;
+
+    ChunkedUploader(ApiConnection apiConnection, ChunkedUploadPolicy policy, String name, Columns columns,
+                    Action<HttpRequest, HttpResponse> httpMessageTransformer) {
+        this.apiConnection = apiConnection;
+        this.policy = policy;
+        this.name = name;
+        this.columns = columns;
+        this.httpMessageTransformer = httpMessageTransformer;
+        this.permits = new Semaphore(policy.getMaxConcurrency());
+        this.batch = new ArrayList<>(policy.getChunkSizeRows());
+    }
+
+    /**
+     * Sends the rows in chunks, waiting for every chunk to finish.
+     *
+     * @param rows Called with a consumer to pass each row to in turn
+     * @return The summary returned for the last chunk to complete. A summary has no row counts, so there is
+     * nothing to add up across chunks; the columns and quotas it carries are the latest the server sent.
+     * @throws NexosisClientException if the first chunk fails, or after all chunks have finished if any failed
+     */
+    DataSetSummary upload(Consumer<Consumer<Map<String, String>>> rows) throws NexosisClientException {
+        ExecutorService executor = apiConnection.getExecutor();
+        try {
+            try {
+                rows.accept(row -> {
+                    batch.add(row);
+                    if (batch.size() == policy.getChunkSizeRows()) {
+                        dispatch(executor);
+                    }
+                });
+                if (!batch.isEmpty() || chunkCount == 0) {
+                    dispatch(executor);
+                }
+            } catch (UploadFailedException ufe) {
+                throw ufe.getCause();
+            }
+
+            Chunk chunk;
+            while ((chunk = claimQueued()) != null) {
+                sendQueued(chunk);
+            }
+            // every permit is returned once the chunks in flight have finished
+            permits.acquire(policy.getMaxConcurrency());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new NexosisClientException("Interrupted while uploading data set " + name + ".", ie);
+        } finally {
+            // chunks which have not started are abandoned
+            for (Chunk chunk : queued) {
+                chunk.claimed.set(true);
+            }
+        }
+
+        synchronized (this) {
+            if (!failed.isEmpty()) {
+                throw failure();
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Sends the first chunk on the calling thread so the data set exists before other chunks append to it, and
+     * queues the rest on the executor once a permit is free.
+     */
+    private void dispatch(ExecutorService executor) {
+        final Chunk chunk = new Chunk(chunkCount++, nextRow, batch);
+        nextRow += batch.size();
+        batch = new ArrayList<>(policy.getChunkSizeRows());
+
+        if (chunk.index == 0) {
+            if (!send(chunk)) {
+                throw new UploadFailedException(failure());
+            }
+            return;
+        }
+
+        try {
+            while (!permits.tryAcquire()) {
+                Chunk waiting = claimQueued();
+                if (waiting == null) {
+                    // every permit is held by a chunk which is being sent
+                    permits.acquire();
+                    break;
+                }
+                sendQueued(waiting);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new UploadFailedException(new NexosisClientException("Interrupted while uploading data set " + name + ".", ie));
+        }
+        queued.add(chunk);
+        try {
+            executor.execute(() -> {
+                if (chunk.claimed.compareAndSet(false, true)) {
+                    sendQueued(chunk);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            // left in the queue for the calling thread
+        }
+    }
+
+    /**
+     * @return A queued chunk which has not started, now claimed by the caller, or null if there is none
+     */
+    private Chunk claimQueued() {
+        Chunk chunk;
+        while ((chunk = queued.poll()) != null) {
+            if (chunk.claimed.compareAndSet(false, true)) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    private void sendQueued(Chunk chunk) {
+        try {
+            queued.remove(chunk);
+            send(chunk);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return true if the chunk was sent, false if it failed
+     */
+    private boolean send(Chunk chunk) {
+        DataSetDetail detail = new DataSetDetail();
+        detail.setColumns(columns);
+        detail.setData(chunk.rows);
+
+        try {
+            DataSetSummary result = apiConnection.append(DataSetSummary.class, "data/" + name, null, detail, httpMessageTransformer);
+            synchronized (this) {
+                summary = result;
+            }
+            return true;
+        } catch (NexosisClientException nce) {
+            synchronized (this) {
+                chunk.error = nce;
+                failed.add(chunk);
+            }
+            return false;
+        }
+    }
+
+    private synchronized NexosisClientException failure() {
+        failed.sort((a, b) -> Integer.compare(a.index, b.index));
+        StringBuilder rows = new StringBuilder();
+        for (Chunk chunk : failed) {
+            rows.append(rows.length() == 0 ? "" : ", ")
+                    .append(chunk.firstRow).append('-').append(chunk.firstRow + chunk.rows.size() - 1);
+        }
+        NexosisClientException first = failed.get(0).error;
+        return new NexosisClientException(failed.size() + " of " + chunkCount + " chunks of data set "
+                + name + " failed to upload, rows " + rows + ": " + first.getMessage(), first, first.getStatusCode());
+    }
+
+    private static class Chunk {
+        final int index;
+        final long firstRow;
+        final List<Map<String, String>> rows;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        NexosisClientException error;
+
+        Chunk(int index, long firstRow, List<Map<String, String>> rows) {
+            this.index = index;
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Stops the caller's row producer when the upload cannot continue.
+     */
+    private static class UploadFailedException extends RuntimeException {
+        UploadFailedException(NexosisClientException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized NexosisClientException getCause() {
+            return (NexosisClientException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The circuit breaker guarding one endpoint family, applying a {@link CircuitBreakerPolicy}.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String family;
+    private final CircuitBreakerPolicy policy;
+    private final AtomicLong rejections = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    // incremented on every state change so results of calls permitted in an earlier state are ignored
+    private long generation;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private int trialsPermitted;
+
+    CircuitBreaker(String family, CircuitBreakerPolicy policy) {
+        this.family = family;
+        this.policy = policy;
+        this.failed = new boolean[policy.getWindowSize()];
+        this.slow = new boolean[policy.getWindowSize()];
+    }
+
+    /**
+     * @return The endpoint family guarded by this breaker, such as {@code sessions}
+     */
+    public String getFamily() {
+        return family;
+    }
+
+    public synchronized State getState() {
+        updateState(System.currentTimeMillis());
+        return state;
+    }
+
+    /**
+     * @return Share of failed calls among those recorded in the current state, or 0 when none are recorded
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    /**
+     * @return Share of slow calls among those recorded in the current state, or 0 when none are recorded
+     */
+    public synchronized double getSlowCallRate() {
+        return calls == 0 ? 0 : (double) slowCalls / calls;
+    }
+
+    /**
+     * @return Number of requests failed without being sent because this breaker was open
+     */
+    public long getRejections() {
+        return rejections.get();
+    }
+
+    /**
+     * Checks whether a call may be made.
+     *
+     * @return A token to pass to {@link #onResult(long, long, boolean)} once the call returns
+     * @throws CircuitOpenException when the breaker is open, or half-open with all trial calls already sent
+     */
+    synchronized long acquire() throws CircuitOpenException {
+        long now = System.currentTimeMillis();
+        updateState(now);
+
+        if (state == State.OPEN) {
+            rejections.incrementAndGet();
+            throw new CircuitOpenException(family, Math.max(0, openedAt + policy.getOpenMillis() - now));
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsPermitted >= policy.getHalfOpenCalls()) {
+                rejections.incrementAndGet();
+                throw new CircuitOpenException(family, 0);
+            }
+            trialsPermitted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Records the outcome of a call permitted by {@link #acquire()}.
+     *
+     * @param token       The token returned by acquire
+     * @param elapsedNanos How long the call took
+     * @param failure     true if no response was received or the service answered with a server error
+     */
+    synchronized void onResult(long token, long elapsedNanos, boolean failure) {
+        if (token != generation) {
+            return;
+        }
+        record(failure, TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= policy.getSlowCallMillis());
+
+        if (state == State.HALF_OPEN) {
+            if (calls >= Math.min(policy.getHalfOpenCalls(), failed.length)) {
+                transition(aboveThresholds() ? State.OPEN : State.CLOSED, System.currentTimeMillis());
+            }
+        } else if (calls >= Math.min(policy.getMinimumCalls(), failed.length) && aboveThresholds()) {
+            transition(State.OPEN, System.currentTimeMillis());
+        }
+    }
+
+    private void updateState(long now) {
+        if (state == State.OPEN && now - openedAt >= policy.getOpenMillis()) {
+            transition(State.HALF_OPEN, now);
+        }
+    }
+
+    private boolean aboveThresholds() {
+        return (double) failures / calls >= policy.getFailureRateThreshold()
+                || (double) slowCalls / calls >= policy.getSlowCallRateThreshold();
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (calls == failed.length) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        if (failure) failures++;
+        if (slowCall) slowCalls++;
+        next = (next + 1) % failed.length;
+    }
+
+    private void transition(State to, long now) {
+        state = to;
+        generation++;
+        if (to == State.OPEN) {
+            openedAt = now;
+        }
+        trialsPermitted = 0;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{family=" + family + ", state=" + getState() + ", failureRate=" + getFailureRate()
+                + ", slowCallRate=" + getSlowCallRate() + ", rejections=" + getRejections() + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.nexosis.impl;
+
+/**
+ * Controls the circuit breakers {@link ApiConnection} keeps for each endpoint family, such as
+ * {@code sessions}, {@code data} or {@code models}.
+ * <p>
+ * A breaker starts closed and records the outcome of the last {@code windowSize} calls to its family. Once at
+ * least {@code minimumCalls} have been recorded, the breaker opens when the share of failed calls reaches
+ * {@code failureRateThreshold} or the share of calls slower than {@code slowCallMillis} reaches
+ * {@code slowCallRateThreshold}. A call fails when no response is received or the response has a 5xx status.
+ * <p>
+ * While open, requests to the family fail immediately with a {@link CircuitOpenException}. After
+ * {@code openMillis} the breaker is half-open and lets {@code halfOpenCalls} trial requests through. It closes
+ * again if they stay under the thresholds and opens for another {@code openMillis} otherwise.
+ */
+public class CircuitBreakerPolicy {
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 1.0;
+    private long slowCallMillis = 10 * 1000;
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private long openMillis = 30 * 1000;
+    private int halfOpenCalls = 3;
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * @param failureRateThreshold Share of failed calls, between 0 and 1, at which the breaker opens. Defaults to 0.5.
+     */
+    public CircuitBreakerPolicy setFailureRateThreshold(double failureRateThreshold) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1)
+            throw new IllegalArgumentException("failureRateThreshold must be greater than 0 and at most 1.");
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * @param slowCallRateThreshold Share of slow calls, between 0 and 1, at which the breaker opens. Defaults to 1,
+     *                              opening only when every recorded call was slow.
+     */
+    public CircuitBreakerPolicy setSlowCallRateThreshold(double slowCallRateThreshold) {
+        if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 1)
+            throw new IllegalArgumentException("slowCallRateThreshold must be greater than 0 and at most 1.");
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    public long getSlowCallMillis() {
+        return slowCallMillis;
+    }
+
+    /**
+     * @param slowCallMillis Calls taking at least this long are counted as slow. Defaults to 10 seconds.
+     */
+    public CircuitBreakerPolicy setSlowCallMillis(long slowCallMillis) {
+        if (slowCallMillis < 1)
+            throw new IllegalArgumentException("slowCallMillis must be at least 1.");
+        this.slowCallMillis = slowCallMillis;
+        return this;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @param windowSize Number of most recent calls the rates are computed over. Defaults to 20.
+     */
+    public CircuitBreakerPolicy setWindowSize(int windowSize) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException("windowSize must be at least 1.");
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * @param minimumCalls Number of calls which must be recorded before the breaker can open. Defaults to 10.
+     */
+    public CircuitBreakerPolicy setMinimumCalls(int minimumCalls) {
+        if (minimumCalls < 1)
+            throw new IllegalArgumentException("minimumCalls must be at least 1.");
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    /**
+     * @param openMillis How long the breaker stays open before letting trial requests through. Defaults to 30 seconds.
+     */
+    public CircuitBreakerPolicy setOpenMillis(long openMillis) {
+        if (openMillis < 0)
+            throw new IllegalArgumentException("openMillis cannot be negative.");
+        this.openMillis = openMillis;
+        return this;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    /**
+     * @param halfOpenCalls Number of trial requests let through while half-open. Defaults to 3.
+     */
+    public CircuitBreakerPolicy setHalfOpenCalls(int halfOpenCalls) {
+        if (halfOpenCalls < 1)
+            throw new IllegalArgumentException("halfOpenCalls must be at least 1.");
+        this.halfOpenCalls = halfOpenCalls;
+        return this;
+    }
+}
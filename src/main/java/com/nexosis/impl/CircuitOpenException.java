@@ -0,0 +1,30 @@
+package com.nexosis.impl;
+
+/**
+ * Thrown without sending a request when the circuit breaker for its endpoint family is open.
+ */
+public class CircuitOpenException extends NexosisClientException {
+    private final String family;
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String family, long retryAfterMillis) {
+        super("Requests to " + family + " are failing, the circuit breaker is open. Trial requests will be let through in "
+                + retryAfterMillis + "ms.");
+        this.family = family;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return The endpoint family whose breaker is open, such as {@code sessions}
+     */
+    public String getFamily() {
+        return family;
+    }
+
+    /**
+     * @return Milliseconds until the breaker lets trial requests through, 0 when it is waiting on trial requests already sent
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
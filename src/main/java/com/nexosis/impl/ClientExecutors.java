@@ -0,0 +1,78 @@
+package com.nexosis.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used for the asynchronous operations of the client.
+ */
+class ClientExecutors {
+    final static int DEFAULT_THREADS = 16;
+    final static int DEFAULT_QUEUE_SIZE = 10000;
+
+    /**
+     * A pool with a fixed number of daemon threads and a bounded work queue. Idle threads are released
+     * so a client that is never closed does not hold on to them.
+     *
+     * @param threads   Maximum number of requests run at the same time
+     * @param queueSize Maximum number of requests waiting for a thread before submissions are rejected
+     */
+    static ExecutorService bounded(int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueSize),
+                daemonThreads("nexosis-async-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * An executor which starts a virtual thread for every task. Blocked requests then hold no platform thread,
+     * so thousands can be waiting on the network at once. Tasks are never queued or rejected; the number of
+     * requests actually sent at the same time is limited by the connection pool.
+     *
+     * @return The executor, or null when the runtime has no virtual threads (before Java 21)
+     */
+    static ExecutorService virtualThreads() {
+        try {
+            // looked up by reflection as the client is built for Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A pool of up to {@code threads} daemon threads which never queues: a task submitted while every thread is
+     * busy is rejected, so the caller can run the work itself. Idle threads are released.
+     */
+    static ExecutorService handoff(int threads, String prefix) {
+        return new ThreadPoolExecutor(
+                0, threads,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                daemonThreads(prefix));
+    }
+
+    static ThreadFactory daemonThreads(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
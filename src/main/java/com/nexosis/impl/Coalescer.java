@@ -0,0 +1,118 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpHeaders;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Lets concurrent identical GET and HEAD calls share a single request.
+ * <p>
+ * The first call for a key sends the request and buffers the response. Calls for the same key arriving while it
+ * is in flight wait for it instead of sending their own, and each deserializes its own copy of the buffered body.
+ * A call arriving after the response has been returned sends a new request.
+ */
+class Coalescer {
+    private final ConcurrentMap<Object, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+    private final CoalescingStatistics statistics;
+
+    Coalescer(CoalescingStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    CoalescingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param key  Identifies the call. Calls with equal keys must be answerable by the same response.
+     * @param call Sends the request and buffers its response
+     * @return The response of this call or of an identical call already in flight
+     */
+    Response execute(Object key, Call call) throws NexosisClientException {
+        statistics.recordCall();
+
+        CompletableFuture<Response> mine = new CompletableFuture<>();
+        CompletableFuture<Response> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            statistics.recordCoalesced();
+            return await(leader);
+        }
+
+        try {
+            Response response = call.execute();
+            mine.complete(response);
+            return response;
+        } catch (NexosisClientException | RuntimeException | Error e) {
+            // completed with errors too, so that waiters are never left waiting
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Response await(CompletableFuture<Response> leader) throws NexosisClientException {
+        try {
+            return leader.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new NexosisClientException("Interrupted while waiting for response.", ie);
+        } catch (ExecutionException ee) {
+            // the waiters of a failed request all see the error it failed with
+            Throwable cause = ee.getCause();
+            if (cause instanceof NexosisClientException) {
+                throw (NexosisClientException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new NexosisClientException("Error while making HTTP Request: " + cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    /**
+     * Builds the key of a call from everything which affects its response.
+     */
+    static Object key(Object... parts) {
+        return Arrays.asList(parts);
+    }
+
+    interface Call {
+        Response execute() throws NexosisClientException;
+    }
+
+    /**
+     * A response read in full so it can be handed to several callers.
+     */
+    static class Response {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        Response(int statusCode, HttpHeaders headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return A copy of the response headers which the caller may modify
+         */
+        HttpHeaders getHeaders() {
+            return headers.clone();
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+    }
+}
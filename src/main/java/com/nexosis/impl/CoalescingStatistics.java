@@ -0,0 +1,38 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the GET and HEAD requests shared between concurrent identical calls.
+ */
+public class CoalescingStatistics {
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @return Number of GET and HEAD calls made while coalescing was enabled
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @return Number of calls answered by a request already in flight for an identical call, without a request of their own
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    void recordCall() {
+        calls.incrementAndGet();
+    }
+
+    void recordCoalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingStatistics{calls=" + getCalls() + ", coalesced=" + getCoalesced() + "}";
+    }
+}
@@ -0,0 +1,44 @@
+package com.nexosis.impl;
+
+import java.util.zip.Deflater;
+
+/**
+ * Controls gzip compression of the JSON and CSV bodies sent by {@link ApiConnection} in PUT and POST requests.
+ * <p>
+ * Bodies of at least {@code minSizeBytes} are compressed while they are written to the connection and sent
+ * with a {@code Content-Encoding: gzip} header. The size of a JSON body is known before it is sent. For a
+ * stream, up to {@code minSizeBytes} are read ahead and buffered to find out whether it is large enough.
+ */
+public class CompressionPolicy {
+    private int minSizeBytes = 1024;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    public int getMinSizeBytes() {
+        return minSizeBytes;
+    }
+
+    /**
+     * @param minSizeBytes Smallest body which is compressed. Defaults to 1KB.
+     */
+    public CompressionPolicy setMinSizeBytes(int minSizeBytes) {
+        if (minSizeBytes < 0)
+            throw new IllegalArgumentException("minSizeBytes cannot be negative.");
+        this.minSizeBytes = minSizeBytes;
+        return this;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @param level Compression level from 1 (fastest) to 9 (smallest), or -1 for the deflater default of 6.
+     *              Defaults to -1.
+     */
+    public CompressionPolicy setLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION))
+            throw new IllegalArgumentException("level must be between 1 and 9, or -1 for the default level.");
+        this.level = level;
+        return this;
+    }
+}
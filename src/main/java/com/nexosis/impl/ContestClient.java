@@ -8,6 +8,7 @@ import com.nexosis.util.Action;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class ContestClient implements IContestClient {
     private ApiConnection apiConnection;
@@ -31,7 +32,7 @@ public class ContestClient implements IContestClient {
      */
     @Override
     public ContestResponse getContest(UUID sessionId) throws NexosisClientException {
-        return apiConnection.get(ContestResponse.class, "/sessions/" + sessionId.toString() + "/contest", null, httpMessageTransformer);
+        return apiConnection.getImmutable(ContestResponse.class, "/sessions/" + sessionId.toString() + "/contest", null, httpMessageTransformer);
     }
 
     /**
@@ -67,4 +68,44 @@ public class ContestClient implements IContestClient {
         Map<String,Object> queryParams = options.ToParamters();
         return apiConnection.get(ContestantResponse.class, "/sessions/" + sessionId.toString() + "/contest/contestants/" + contestantId, queryParams, httpMessageTransformer);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ContestResponse> getContestAsync(final UUID sessionId) {
+        return apiConnection.submit(() -> getContest(sessionId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ContestantResponse> getChampionAsync(final UUID sessionId, final ChampionQueryOptions options) {
+        return apiConnection.submit(() -> getChampion(sessionId, options));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ContestSelectionResponse> getSelectionAsync(final UUID sessionId) {
+        return apiConnection.submit(() -> getSelection(sessionId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ChampionContestantList> listContestantsAsync(final UUID sessionId) {
+        return apiConnection.submit(() -> listContestants(sessionId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ContestantResponse> getContestantAsync(final UUID sessionId, final String contestantId, final ChampionQueryOptions options) {
+        return apiConnection.submit(() -> getContestant(sessionId, contestantId, options));
+    }
 }
@@ -2,7 +2,19 @@ package com.nexosis.impl;
 
 import com.nexosis.model.*;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DataSet {
 
@@ -29,6 +41,124 @@ public class DataSet {
         return new DataSetStreamSource(name, reader);
     }
 
+    /**
+      * Create a Data Source from a CSV or JSON file, which is sent with its length and read again if the request
+      * is retried
+      *
+      * @param name      The name of the DataSet to be created
+      * @param path      The file containing the data
+      * @return An IDataSetSource to be used for creating the data set
+      * @throws IOException if the size of the file cannot be read
+      */
+    public static DataSetFileSource From(String name, Path path) throws IOException
+    {
+        return new DataSetFileSource(name, path, 0, Files.size(path), 0);
+    }
+
+    /**
+      * Split a CSV file into byte ranges of about {@code maxBytes} which end on line boundaries. Every range after
+      * the first is sent after the header line of the file, so each can be uploaded to the same data set on its
+      * own. A quoted value which contains a line break may be split between two ranges.
+      *
+      * @param name      The name of the DataSet to be created
+      * @param csv       The CSV file containing the data, with a header line
+      * @param maxBytes  The size of each range, which is exceeded when a line does not fit
+      * @return The sources for each range, in the order of the file
+      * @throws IOException if the file cannot be read
+      */
+    public static List<DataSetFileSource> split(String name, Path csv, long maxBytes) throws IOException
+    {
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes must be at least 1.");
+
+        List<DataSetFileSource> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long header = nextLine(channel, 0, size);
+            long start = 0;
+
+            do {
+                long budget = start == 0 ? maxBytes : Math.max(1, maxBytes - header);
+                long end = start + budget >= size ? size : nextLine(channel, start + budget - 1, size);
+                if (start == 0) {
+                    end = Math.max(end, header);
+                    ranges.add(new DataSetFileSource(name, csv, 0, end, 0));
+                } else {
+                    ranges.add(new DataSetFileSource(name, csv, start, end - start, header));
+                }
+                start = end;
+            } while (start < size);
+        }
+        return ranges;
+    }
+
+    /**
+     * @return The position after the first line break at or after {@code from}, or the size of the file
+     */
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+      * Create a Data Source whose rows are read from an iterator while the data set is uploaded
+      *
+      * @param name      The name of the DataSet to be created
+      * @param columns   Metadata about each column, or null to let the API infer it
+      * @param rows      The rows, which are read once
+      * @return An IDataSetSource to be used for creating the data set
+      */
+    public static IDataSetSource From(String name, Columns columns, Iterator<Map<String, String>> rows)
+    {
+        return new DataSetRowSource(name, columns, rows::forEachRemaining);
+    }
+
+    /**
+      * Create a Data Source whose rows are read from a stream while the data set is uploaded. The stream is
+      * closed once it has been read.
+      *
+      * @param name      The name of the DataSet to be created
+      * @param columns   Metadata about each column, or null to let the API infer it
+      * @param rows      The rows, which are read once
+      * @return An IDataSetSource to be used for creating the data set
+      */
+    public static IDataSetSource From(String name, Columns columns, Stream<Map<String, String>> rows)
+    {
+        return new DataSetRowSource(name, columns, sink -> {
+            try (Stream<Map<String, String>> stream = rows) {
+                stream.forEachOrdered(sink);
+            }
+        });
+    }
+
+    /**
+      * Create a Data Source whose rows are produced by a callback while the data set is uploaded
+      *
+      * @param name      The name of the DataSet to be created
+      * @param columns   Metadata about each column, or null to let the API infer it
+      * @param rows      Called once with a consumer to pass each row to in turn
+      * @return An IDataSetSource to be used for creating the data set
+      */
+    public static IDataSetSource From(String name, Columns columns, Consumer<Consumer<Map<String, String>>> rows)
+    {
+        return new DataSetRowSource(name, columns, rows);
+    }
+
     /**
      * Create a DataSetDataQuery with criteria for getting data from a DataSet
      *
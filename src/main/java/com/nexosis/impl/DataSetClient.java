@@ -8,7 +8,13 @@ import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class DataSetClient implements IDataSetClient {
     private ApiConnection apiConnection;
@@ -61,11 +67,57 @@ public class DataSetClient implements IDataSetClient {
                         stream.getContentType(),
                         this.httpMessageTransformer
                 );
+            case "com.nexosis.model.DataSetRowSource":
+                DataSetRowSource rows = (DataSetRowSource)source;
+                Argument.IsNotNull(rows.getRows(), "DataSetRowSource.Rows");
+                return apiConnection.put(
+                        DataSetSummary.class,
+                        "data/" + rows.getName(),
+                        null,
+                        rows,
+                        this.httpMessageTransformer
+                );
+            case "com.nexosis.model.DataSetFileSource":
+                DataSetFileSource file = (DataSetFileSource)source;
+                Argument.IsNotNull(file.getPath(), "DataSetFileSource.Path");
+                return apiConnection.put(
+                        DataSetSummary.class,
+                        "data/" + file.getName(),
+                        null,
+                        file,
+                        this.httpMessageTransformer
+                );
             default:
                 throw new NexosisClientException("No DataSet create supported for " + source.getClass().getCanonicalName());
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataSetSummary create(IDataSetSource source, ChunkedUploadPolicy policy) throws NexosisClientException {
+        Argument.IsNotNull(source, "IDataSetSource");
+        Argument.IsNotNullOrEmpty(source.getName(), "IDataSetSource.Name");
+        Argument.IsNotNull(policy, "ChunkedUploadPolicy");
+
+        if (source instanceof DataSetDetailSource) {
+            DataSetDetailSource detail = (DataSetDetailSource)source;
+            Argument.IsNotNull(detail.getData(), "DataSetDetailSource.Data");
+            List<Map<String, String>> rows = detail.getData().getData() == null ? Collections.emptyList() : detail.getData().getData();
+            return new ChunkedUploader(apiConnection, policy, detail.getName(), detail.getData().getColumns(), this.httpMessageTransformer)
+                    .upload(rows::forEach);
+        }
+        if (source instanceof DataSetRowSource) {
+            DataSetRowSource rows = (DataSetRowSource)source;
+            Argument.IsNotNull(rows.getRows(), "DataSetRowSource.Rows");
+            return new ChunkedUploader(apiConnection, policy, rows.getName(), rows.getColumns(), this.httpMessageTransformer)
+                    .upload(rows.getRows());
+        }
+        // a csv or json stream cannot be split into rows
+        return create(source);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -118,6 +170,76 @@ public class DataSetClient implements IDataSetClient {
         apiConnection.get("data/" +  query.getName(), parameters, this.httpMessageTransformer, output, query.getContentType());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FileDownload download(DataSetDataQuery query, Path target) throws NexosisClientException {
+        Argument.IsNotNull(query, "DataSetDataQuery");
+        Argument.IsNotNullOrEmpty(query.getName(), "DataSetDataQuery.Name");
+        Argument.IsNotNull(target, "target");
+
+        return apiConnection.download("data/" + query.getName(), query.toParameters(), this.httpMessageTransformer, target, query.getContentType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RowCursor getRows(DataSetDataQuery query) throws NexosisClientException {
+        Argument.IsNotNull(query, "DataSetDataQuery");
+        Argument.IsNotNullOrEmpty(query.getName(), "DataSetDataQuery.Name");
+
+        if (query.getContentType() != Json.MEDIA_TYPE) {
+            throw new IllegalArgumentException("Content Type cannot be set to CSV unless you are writing it to a file. Use IDataSetClient.get(DataSetDataQuery query, OutputStream output).");
+        }
+        return apiConnection.getRows("data/" + query.getName(), query.toParameters(), this.httpMessageTransformer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataFrame getFrame(DataSetDataQuery query) throws NexosisClientException {
+        try (RowCursor cursor = getRows(query)) {
+            return cursor.readFrame();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageIterator<DataSetData> getPages(DataSetDataQuery query, PrefetchPolicy policy) throws NexosisClientException {
+        Argument.IsNotNull(query, "DataSetDataQuery");
+        Argument.IsNotNullOrEmpty(query.getName(), "DataSetDataQuery.Name");
+        Argument.IsNotNull(policy, "PrefetchPolicy");
+
+        if (query.getContentType() != Json.MEDIA_TYPE) {
+            throw new IllegalArgumentException("Content Type cannot be set to CSV unless you are writing it to a file. Use IDataSetClient.get(DataSetDataQuery query, OutputStream output).");
+        }
+
+        final String path = "data/" + query.getName();
+        final Map<String, Object> parameters = query.toParameters();
+        parameters.putIfAbsent("pageSize", PagingInfo.Default.getPageSize());
+        Object firstPage = parameters.get("page");
+
+        return new PageIterator<>(pageNumber -> {
+            Map<String, Object> pageParameters = new HashMap<>(parameters);
+            pageParameters.put("page", pageNumber);
+            return apiConnection.get(DataSetData.class, path, pageParameters, this.httpMessageTransformer);
+        }, DataSetData::getTotalPages, firstPage == null ? 0 : (Integer) firstPage, apiConnection.getExecutor(), policy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map<String, String>> getAllRows(DataSetDataQuery query, PrefetchPolicy policy) throws NexosisClientException {
+        return getPages(query, policy).stream()
+                .flatMap(page -> page.getData() == null ? Stream.empty() : page.getData().stream());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -128,4 +250,106 @@ public class DataSetClient implements IDataSetClient {
         Map<String, Object> parameters = criteria.toParameters();
         apiConnection.delete("data/" + criteria.getName(), parameters, this.httpMessageTransformer);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataSetSummary> createAsync(final IDataSetSource source) {
+        return apiConnection.submit(() -> create(source));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataSetSummary> createAsync(final IDataSetSource source, final ChunkedUploadPolicy policy) {
+        return apiConnection.submit(() -> create(source, policy));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataSetList> listAsync() {
+        return apiConnection.submit(() -> list());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataSetList> listAsync(final DataSetSummaryQuery query) {
+        return apiConnection.submit(() -> list(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataSetData> getAsync(final DataSetDataQuery query) {
+        return apiConnection.submit(() -> get(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> getAsync(final DataSetDataQuery query, final OutputStream output) {
+        return apiConnection.submit(() -> {
+            get(query, output);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<FileDownload> downloadAsync(final DataSetDataQuery query, final Path target) {
+        return apiConnection.submit(() -> download(query, target));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<RowCursor> getRowsAsync(final DataSetDataQuery query) {
+        return apiConnection.submit(() -> getRows(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataFrame> getFrameAsync(final DataSetDataQuery query) {
+        return apiConnection.submit(() -> getFrame(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<PageIterator<DataSetData>> getPagesAsync(final DataSetDataQuery query, final PrefetchPolicy policy) {
+        return apiConnection.submit(() -> getPages(query, policy));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Stream<Map<String, String>>> getAllRowsAsync(final DataSetDataQuery query, final PrefetchPolicy policy) {
+        return apiConnection.submit(() -> getAllRows(query, policy));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removeAsync(final DataSetRemoveCriteria criteria) {
+        return apiConnection.submit(() -> {
+            remove(criteria);
+            return null;
+        });
+    }
 }
@@ -0,0 +1,309 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes gzip and deflate response bodies as they are read, whatever the underlying transport.
+ * <p>
+ * HttpResponse only understands gzip and always decodes it, so bodies are decoded here instead and reported to
+ * it as unencoded. The Content-Encoding header is left in the response headers. Until the first byte is read
+ * the encoded bytes can still be taken from {@link DecodedContent#getRaw()} by callers which store them as is.
+ */
+class DecodingTransport extends HttpTransport {
+    private final static Method BUILD_REQUEST;
+
+    static {
+        try {
+            // protected, and only callable from another package through reflection
+            BUILD_REQUEST = HttpTransport.class.getDeclaredMethod("buildRequest", String.class, String.class);
+            BUILD_REQUEST.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final HttpTransport transport;
+
+    DecodingTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public boolean supportsMethod(String method) throws IOException {
+        return transport.supportsMethod(method);
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new DecodingRequest(build(transport, method, url));
+    }
+
+    /**
+     * Builds a request with another transport, as {@link HttpTransport#buildRequest(String, String)} is protected.
+     */
+    static LowLevelHttpRequest build(HttpTransport transport, String method, String url) throws IOException {
+        try {
+            return (LowLevelHttpRequest) BUILD_REQUEST.invoke(transport, method, url);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        transport.shutdown();
+    }
+
+    /**
+     * @return true if the body can be decoded by {@link DecodedContent}
+     */
+    static boolean isSupported(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.US);
+        return encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate");
+    }
+
+    private static class DecodingRequest extends ForwardingRequest {
+        DecodingRequest(LowLevelHttpRequest request) {
+            super(request);
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            LowLevelHttpResponse response = super.execute();
+            return isSupported(response.getContentEncoding()) ? new DecodingResponse(response) : response;
+        }
+    }
+
+    private static class DecodingResponse extends ForwardingResponse {
+        DecodingResponse(LowLevelHttpResponse response) {
+            super(response);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            InputStream content = super.getContent();
+            return content == null ? null : new DecodedContent(content, super.getContentEncoding());
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            // the decoded length is not known
+            return -1;
+        }
+    }
+
+    /**
+     * Passes a request to the request of another transport.
+     */
+    static class ForwardingRequest extends LowLevelHttpRequest {
+        private final LowLevelHttpRequest request;
+
+        ForwardingRequest(LowLevelHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void addHeader(String name, String value) throws IOException {
+            request.addHeader(name, value);
+        }
+
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) throws IOException {
+            request.setTimeout(connectTimeout, readTimeout);
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            request.setContentLength(getContentLength());
+            request.setContentEncoding(getContentEncoding());
+            request.setContentType(getContentType());
+            request.setStreamingContent(getStreamingContent());
+            return request.execute();
+        }
+    }
+
+    /**
+     * Passes every call to the response of another transport.
+     */
+    static class ForwardingResponse extends LowLevelHttpResponse {
+        private final LowLevelHttpResponse response;
+
+        ForwardingResponse(LowLevelHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return response.getContent();
+        }
+
+        @Override
+        public String getContentEncoding() throws IOException {
+            return response.getContentEncoding();
+        }
+
+        @Override
+        public long getContentLength() throws IOException {
+            return response.getContentLength();
+        }
+
+        @Override
+        public String getContentType() throws IOException {
+            return response.getContentType();
+        }
+
+        @Override
+        public String getStatusLine() throws IOException {
+            return response.getStatusLine();
+        }
+
+        @Override
+        public int getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getReasonPhrase() throws IOException {
+            return response.getReasonPhrase();
+        }
+
+        @Override
+        public int getHeaderCount() throws IOException {
+            return response.getHeaderCount();
+        }
+
+        @Override
+        public String getHeaderName(int index) throws IOException {
+            return response.getHeaderName(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) throws IOException {
+            return response.getHeaderValue(index);
+        }
+
+        @Override
+        public void disconnect() throws IOException {
+            response.disconnect();
+        }
+    }
+
+    /**
+     * A response body which is decoded when it is first read.
+     */
+    static class DecodedContent extends FilterInputStream {
+        private final InputStream raw;
+        private final String encoding;
+
+        DecodedContent(InputStream raw, String encoding) {
+            super(null);
+            this.raw = raw;
+            this.encoding = encoding.trim().toLowerCase(Locale.US);
+        }
+
+        /**
+         * @return The body exactly as it was sent by the server
+         * @throws IllegalStateException if the decoded body has already been read
+         */
+        InputStream getRaw() {
+            if (in != null) {
+                throw new IllegalStateException("The response body has already been decoded.");
+            }
+            return raw;
+        }
+
+        /**
+         * @return The stream the body is read from, whether or not decoding has started
+         */
+        InputStream getSource() {
+            return raw;
+        }
+
+        /**
+         * @return The encoding of the raw body, such as gzip or deflate
+         */
+        String getEncoding() {
+            return encoding;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (in == null) {
+                PushbackInputStream body = new PushbackInputStream(raw, 1);
+                int first = body.read();
+                if (first < 0) {
+                    // an empty body has no gzip header to read
+                    in = body;
+                } else {
+                    body.unread(first);
+                    in = encoding.equals("deflate") ? new InflaterInputStream(body) : new GZIPInputStream(body, 8192);
+                }
+            }
+            return in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return decoded().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return decoded().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded().available();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            } else {
+                raw.close();
+            }
+        }
+    }
+}
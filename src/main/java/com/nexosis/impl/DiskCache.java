@@ -0,0 +1,293 @@
+package com.nexosis.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only files of completed session results, one per session and read through memory mappings, applying a
+ * {@link DiskCachePolicy}.
+ * <p>
+ * Each record in a file is the length and UTF-8 bytes of its key, followed by the length and bytes of the
+ * response body. The index of a file is rebuilt by scanning its records the first time the session is read
+ * after a restart, and a record left incomplete by a crash is cut off.
+ */
+class DiskCache {
+    private final static String SUFFIX = ".results";
+    // a single mapping cannot be larger than this
+    private final static long MAX_FILE_BYTES = Integer.MAX_VALUE;
+
+    private final DiskCachePolicy policy;
+    private final DiskCacheStatistics statistics;
+    private final LinkedHashMap<UUID, Segment> segments = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    DiskCache(DiskCachePolicy policy, DiskCacheStatistics statistics) throws IOException {
+        this.policy = policy;
+        this.statistics = statistics;
+
+        Files.createDirectories(policy.getDirectory());
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(policy.getDirectory(), "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+
+        // the least recently written files are the first to be evicted
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+        files.sort(Comparator.comparing(modified::get));
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            UUID sessionId;
+            try {
+                sessionId = UUID.fromString(name.substring(0, name.length() - SUFFIX.length()));
+            } catch (IllegalArgumentException notOurs) {
+                continue;
+            }
+            Segment segment = new Segment(file, Files.size(file));
+            segments.put(sessionId, segment);
+            bytes += segment.getSize();
+        }
+        evict(null);
+    }
+
+    DiskCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return The stored response body, backed by a read only mapping of the session's file, or null if there is none
+     */
+    synchronized ByteBuffer get(UUID sessionId, String key) {
+        Segment segment = segments.get(sessionId);
+        ByteBuffer body = null;
+        if (segment != null) {
+            long before = segment.getSize();
+            try {
+                body = segment.read(key);
+                bytes += segment.getSize() - before;
+            } catch (IOException ioe) {
+                statistics.recordError();
+                drop(sessionId);
+            }
+        }
+
+        if (body == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return body;
+    }
+
+    /**
+     * Appends a response body to the session's file, evicting the files of the least recently used sessions to
+     * stay within the policy's size.
+     */
+    synchronized void put(UUID sessionId, String key, byte[] body) {
+        Segment segment = segments.get(sessionId);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long recordSize = 8L + keyBytes.length + body.length;
+        if (recordSize > policy.getMaxBytes() || (segment == null ? 0 : segment.getSize()) + recordSize > MAX_FILE_BYTES) {
+            return;
+        }
+
+        if (segment == null) {
+            segment = new Segment(policy.getDirectory().resolve(sessionId.toString() + SUFFIX), 0);
+            segments.put(sessionId, segment);
+        }
+
+        long before = segment.getSize();
+        try {
+            if (segment.append(key, keyBytes, body)) {
+                statistics.recordWrite();
+            }
+            bytes += segment.getSize() - before;
+        } catch (IOException ioe) {
+            statistics.recordError();
+            drop(sessionId);
+        }
+        evict(sessionId);
+        statistics.setBytes(bytes);
+    }
+
+    /**
+     * Deletes the file of a session.
+     */
+    synchronized void invalidate(UUID sessionId) {
+        drop(sessionId);
+        statistics.setBytes(bytes);
+    }
+
+    /**
+     * Deletes the files of every session.
+     */
+    synchronized void clear() {
+        for (UUID sessionId : new ArrayList<>(segments.keySet())) {
+            drop(sessionId);
+        }
+        statistics.setBytes(bytes);
+    }
+
+    synchronized int size() {
+        return segments.size();
+    }
+
+    private void evict(UUID keep) {
+        Iterator<Map.Entry<UUID, Segment>> eldest = segments.entrySet().iterator();
+        while (bytes > policy.getMaxBytes() && eldest.hasNext()) {
+            Map.Entry<UUID, Segment> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            delete(entry.getValue());
+            statistics.recordEviction();
+        }
+        statistics.setBytes(bytes);
+    }
+
+    private void drop(UUID sessionId) {
+        Segment segment = segments.remove(sessionId);
+        if (segment != null) {
+            delete(segment);
+        }
+    }
+
+    private void delete(Segment segment) {
+        bytes -= segment.getSize();
+        try {
+            // buffers already handed out stay readable, the mapping outlives the file on most platforms
+            Files.deleteIfExists(segment.getFile());
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * The file of one session with the offsets of the bodies in it.
+     */
+    static class Segment {
+        private final Path file;
+        private long size;
+        private Map<String, long[]> index;
+        private MappedByteBuffer mapping;
+
+        Segment(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        Path getFile() {
+            return file;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        ByteBuffer read(String key) throws IOException {
+            load();
+            long[] record = index.get(key);
+            if (record == null) {
+                return null;
+            }
+            if (mapping == null || mapping.capacity() < record[0] + record[1]) {
+                map();
+            }
+
+            ByteBuffer body = mapping.duplicate();
+            body.position((int) record[0]);
+            body.limit((int) (record[0] + record[1]));
+            return body.slice();
+        }
+
+        /**
+         * @return false if the key was already stored
+         */
+        boolean append(String key, byte[] keyBytes, byte[] body) throws IOException {
+            load();
+            if (index.containsKey(key)) {
+                return false;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(4 + keyBytes.length + 4);
+            header.putInt(keyBytes.length).put(keyBytes).putInt(body.length).flip();
+            ByteBuffer content = ByteBuffer.wrap(body);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (header.hasRemaining() || content.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, content});
+                }
+            }
+
+            index.put(key, new long[]{size + 8 + keyBytes.length, body.length});
+            size += 8L + keyBytes.length + body.length;
+            return true;
+        }
+
+        private void load() throws IOException {
+            if (index != null) {
+                return;
+            }
+            index = new HashMap<>();
+            if (!Files.exists(file)) {
+                size = 0;
+                return;
+            }
+
+            map();
+            long position = 0;
+            while (position + 4 <= size) {
+                int keyLength = mapping.getInt((int) position);
+                if (keyLength < 0 || position + 8 + keyLength > size) {
+                    break;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                ByteBuffer keyBuffer = mapping.duplicate();
+                keyBuffer.position((int) position + 4);
+                keyBuffer.get(keyBytes);
+                int bodyLength = mapping.getInt((int) position + 4 + keyLength);
+                long bodyOffset = position + 8 + keyLength;
+                if (bodyLength < 0 || bodyOffset + bodyLength > size) {
+                    break;
+                }
+                index.put(new String(keyBytes, StandardCharsets.UTF_8), new long[]{bodyOffset, bodyLength});
+                position = bodyOffset + bodyLength;
+            }
+
+            if (position < size) {
+                // an incomplete record was left by an interrupted write
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(position);
+                }
+                size = position;
+                mapping = null;
+            }
+        }
+
+        private void map() throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                size = channel.size();
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+    }
+}
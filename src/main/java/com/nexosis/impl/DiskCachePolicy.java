@@ -0,0 +1,47 @@
+package com.nexosis.impl;
+
+import java.nio.file.Path;
+
+/**
+ * Controls the on-disk cache of completed session results kept by {@link ApiConnection}.
+ * <p>
+ * The results of a {@code COMPLETED} session, and each page of its anomaly and class scores, are appended to
+ * one file per session in {@code directory} together with the URL they were downloaded from. The files survive
+ * a restart of the application, and later reads of the same results are parsed straight from a memory mapping
+ * of the file without another request. Results of sessions in any other state are never written.
+ * <p>
+ * When the files grow beyond {@code maxBytes} in total, the files of the least recently used sessions are deleted.
+ * Deleting a session through the client deletes its file.
+ */
+public class DiskCachePolicy {
+    private final Path directory;
+    private long maxBytes = 1024L * 1024 * 1024;
+
+    /**
+     * @param directory The directory the results are written to. It is created if it does not exist, and
+     *                  should not be shared with another running client.
+     */
+    public DiskCachePolicy(Path directory) {
+        if (directory == null)
+            throw new IllegalArgumentException("directory cannot be null.");
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @param maxBytes Most bytes the cache files may use on disk. Defaults to 1GB.
+     */
+    public DiskCachePolicy setMaxBytes(long maxBytes) {
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes must be at least 1.");
+        this.maxBytes = maxBytes;
+        return this;
+    }
+}
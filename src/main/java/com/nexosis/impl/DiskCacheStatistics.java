@@ -0,0 +1,87 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the on-disk result cache of a client.
+ */
+public class DiskCacheStatistics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * @return Number of results read from disk instead of downloaded
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of results which were not on disk and had to be downloaded
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of completed results appended to the cache files
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * @return Number of session files deleted to keep the cache within its maximum size
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Number of cache files which could not be read or written, and were dropped
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return Bytes now used by the cache files
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordWrite() {
+        writes.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    void setBytes(long total) {
+        bytes.set(total);
+    }
+
+    @Override
+    public String toString() {
+        return "DiskCacheStatistics{hits=" + getHits() + ", misses=" + getMisses() + ", writes=" + getWrites()
+                + ", evictions=" + getEvictions() + ", errors=" + getErrors() + ", bytes=" + getBytes() + "}";
+    }
+}
@@ -0,0 +1,146 @@
+package com.nexosis.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, traffic and status counters for one endpoint template, such as {@code GET sessions/{id}/results}.
+ * <p>
+ * Every attempt is counted, including retries and hedged copies. Latency is measured from sending the request
+ * until its status and headers are received. Deserialization is the time spent turning a response body into
+ * objects, not counting the time spent waiting for the body to arrive.
+ */
+public class EndpointMetrics {
+    private final static int MAX_STATUS = 600;
+
+    private final String template;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram deserialization = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS);
+
+    EndpointMetrics(String template) {
+        this.template = template;
+    }
+
+    /**
+     * @return The method and path template the metrics are kept for
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return Time from sending each request until its response headers arrived
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Time spent parsing response bodies
+     */
+    public LatencyHistogram getDeserialization() {
+        return deserialization;
+    }
+
+    /**
+     * @return Number of requests sent
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return Number of requests sent and still waiting for a response
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return Number of requests which failed without a response, such as on a timeout
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Bytes of request bodies written to the connection, after any compression
+     */
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    /**
+     * @return Bytes of response bodies read from the connection, before any decompression
+     */
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    /**
+     * @return Number of responses with the status code
+     */
+    public long getStatusCount(int statusCode) {
+        return statusCode >= 0 && statusCode < MAX_STATUS ? statusCounts.get(statusCode) : 0;
+    }
+
+    /**
+     * @return Number of responses by status code, for every status code received
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int status = 0; status < MAX_STATUS; status++) {
+            long count = statusCounts.get(status);
+            if (count > 0) {
+                counts.put(status, count);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    void recordStart() {
+        requests.increment();
+        inFlight.increment();
+    }
+
+    void recordResponse(int statusCode, long nanos) {
+        inFlight.decrement();
+        latency.recordNanos(nanos);
+        if (statusCode >= 0 && statusCode < MAX_STATUS) {
+            statusCounts.incrementAndGet(statusCode);
+        }
+    }
+
+    void recordError() {
+        inFlight.decrement();
+        errors.increment();
+    }
+
+    void recordRequestBytes(long bytes) {
+        requestBytes.add(bytes);
+    }
+
+    void recordResponseBytes(long bytes) {
+        responseBytes.add(bytes);
+    }
+
+    void recordDeserialization(long nanos) {
+        deserialization.recordNanos(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{template=" + template + ", requests=" + getRequests() + ", inFlight=" + getInFlight()
+                + ", errors=" + getErrors() + ", statusCounts=" + getStatusCounts() + ", requestBytes=" + getRequestBytes()
+                + ", responseBytes=" + getResponseBytes() + ", latency=" + latency + ", deserialization=" + deserialization + "}";
+    }
+}
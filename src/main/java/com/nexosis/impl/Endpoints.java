@@ -0,0 +1,49 @@
+package com.nexosis.impl;
+
+import java.util.regex.Pattern;
+
+/**
+ * Groups request paths by the API resource they address.
+ */
+class Endpoints {
+    private final static Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    /**
+     * @param path A request path relative to the API endpoint, such as {@code sessions/{id}/results}
+     * @return The top level resource of the path, such as {@code sessions}, {@code data} or {@code models}
+     */
+    static String family(String path) {
+        if (path == null || path.isEmpty()) {
+            return "";
+        }
+        int slash = path.indexOf('/');
+        return slash < 0 ? path : path.substring(0, slash);
+    }
+
+    /**
+     * @param path A request path relative to the API endpoint
+     * @return The path with identifiers and dataset or view names replaced by placeholders,
+     *         such as {@code sessions/{id}/results} or {@code data/{name}}
+     */
+    static String template(String path) {
+        if (path == null || path.isEmpty()) {
+            return "";
+        }
+
+        String[] segments = path.split("/");
+        StringBuilder template = new StringBuilder(path.length());
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (i == 1 && ("data".equals(segments[0]) || "views".equals(segments[0]))) {
+                segment = "{name}";
+            } else if (i > 0 && ("contestants".equals(segments[i - 1]) || UUID_PATTERN.matcher(segment).matches())) {
+                segment = "{id}";
+            }
+            if (i > 0) {
+                template.append('/');
+            }
+            template.append(segment);
+        }
+        return template.toString();
+    }
+}
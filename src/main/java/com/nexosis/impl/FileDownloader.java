@@ -0,0 +1,73 @@
+package com.nexosis.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a response body to a file through one direct buffer, so the size of the body does not affect the heap.
+ * <p>
+ * The body is written to a temporary file beside the target which is then renamed over it, so the target is
+ * either left as it was or holds the whole body, never part of one.
+ */
+class FileDownloader {
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    private FileDownloader() {
+    }
+
+    /**
+     * @param content The response body, which is not closed
+     * @param target  The file to create or replace
+     * @return Number of bytes written
+     */
+    static long write(InputStream content, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, target.getFileName().toString() + ".", ".part");
+        boolean moved = false;
+        try {
+            long written = 0;
+            try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // not closed, since that would close the response body
+                ReadableByteChannel source = Channels.newChannel(content);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                boolean ended = false;
+                while (!ended) {
+                    // fill the buffer so the file is written in large blocks whatever size the socket reads are
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer) < 0) {
+                            ended = true;
+                            break;
+                        }
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        written += file.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                file.force(false);
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException amnse) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            return written;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
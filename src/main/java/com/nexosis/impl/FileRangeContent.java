@@ -0,0 +1,63 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.AbstractHttpContent;
+import com.nexosis.model.DataSetFileSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sends the header and byte range of a {@link DataSetFileSource} with a known length, moving the bytes with
+ * {@link FileChannel#transferTo} rather than reading them through a stream.
+ */
+class FileRangeContent extends AbstractHttpContent {
+    private final DataSetFileSource source;
+
+    FileRangeContent(DataSetFileSource source) {
+        super(source.getContentType());
+        this.source = source;
+    }
+
+    @Override
+    public long getLength() {
+        return source.getHeaderLength() + source.getLength();
+    }
+
+    /**
+     * @return true, since the file can be read again
+     */
+    @Override
+    public boolean retrySupported() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.getPath(), StandardOpenOption.READ)) {
+            // not closed, since that would close the connection's stream
+            WritableByteChannel target = Channels.newChannel(out);
+            transfer(channel, 0, source.getHeaderLength(), target);
+            transfer(channel, source.getPosition(), source.getLength(), target);
+        }
+        out.flush();
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                if (position >= channel.size()) {
+                    throw new EOFException("The file ended " + count + " bytes before the end of the range.");
+                }
+                continue;
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a second copy of slow GET and HEAD requests according to a {@link HedgingPolicy}.
+ * <p>
+ * A request which could be hedged is sent from a pool thread while the caller waits for the first response, as
+ * a caller blocked sending it could not return the response of the hedge. Requests which cannot be hedged,
+ * because the endpoint has too few samples or the budget is spent, are sent on the caller's thread. The pool
+ * is bounded and hands tasks straight to a thread; when every thread is busy the request is sent on the
+ * caller's thread without a hedge rather than queued.
+ */
+class Hedger {
+    final static int MAX_THREADS = 2 * ClientExecutors.DEFAULT_THREADS;
+
+    private final HedgingPolicy policy;
+    private final HedgingStatistics statistics;
+    private final HttpRequestFactory requestFactory;
+    private final ConcurrentMap<String, LatencySampler> samplers = new ConcurrentHashMap<>();
+    private final ExecutorService executor = ClientExecutors.handoff(MAX_THREADS, "nexosis-hedge-");
+    private double budget;
+
+    Hedger(HedgingPolicy policy, HedgingStatistics statistics, HttpRequestFactory requestFactory) {
+        this.policy = policy;
+        this.statistics = statistics;
+        this.requestFactory = requestFactory;
+        this.budget = policy.getBudgetCapacity();
+    }
+
+    HedgingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Executes a request, hedging it if it is a GET or HEAD which takes longer than usual.
+     *
+     * @param request  The request to execute
+     * @param endpoint The endpoint the response times of the request are grouped under
+     */
+    HttpResponse execute(HttpRequest request, String endpoint) throws IOException {
+        String method = request.getRequestMethod();
+        // only reads are hedged; a DELETE is idempotent but sending it twice still does the work twice
+        if (!(HttpMethods.GET.equals(method) || HttpMethods.HEAD.equals(method)) || request.getContent() != null) {
+            return request.execute();
+        }
+
+        statistics.recordRequest();
+        synchronized (this) {
+            budget = Math.min(policy.getBudgetCapacity(), budget + policy.getMaxExtraLoad());
+        }
+
+        LatencySampler sampler = samplers.computeIfAbsent(endpoint, key -> new LatencySampler());
+
+        if (sampler.getCount() < policy.getMinSamples()) {
+            long started = System.nanoTime();
+            HttpResponse response = request.execute();
+            sampler.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return response;
+        }
+
+        long delay = Math.max(policy.getMinDelayMillis(), sampler.percentile(policy.getPercentile()));
+        boolean affordable;
+        synchronized (this) {
+            affordable = budget >= 1;
+        }
+        if (!affordable) {
+            long started = System.nanoTime();
+            HttpResponse response = request.execute();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            sampler.record(elapsed);
+            if (elapsed > delay) {
+                statistics.recordBudgetRejection();
+            }
+            return response;
+        }
+
+        // built before the original starts so its headers are not read while it is being sent
+        HttpRequest hedge = copy(request);
+
+        CompletableFuture<HttpResponse> original = send(request, sampler);
+        if (original == null) {
+            // every pool thread is busy
+            long started = System.nanoTime();
+            HttpResponse response = request.execute();
+            sampler.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return response;
+        }
+        try {
+            return original.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException te) {
+            // still waiting, so hedge below
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            release(original);
+            throw new IOException("Interrupted while waiting for response.", ie);
+        } catch (ExecutionException ee) {
+            throw unwrap(ee);
+        }
+
+        synchronized (this) {
+            affordable = budget >= 1;
+            if (affordable) {
+                budget -= 1;
+            }
+        }
+
+        CompletableFuture<HttpResponse> hedged = null;
+        if (affordable) {
+            hedged = send(hedge, sampler);
+            if (hedged == null) {
+                synchronized (this) {
+                    budget += 1;
+                }
+            } else {
+                statistics.recordHedge();
+            }
+        } else {
+            statistics.recordBudgetRejection();
+        }
+
+        final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        final AtomicBoolean resolved = new AtomicBoolean();
+        final AtomicInteger failures = new AtomicInteger();
+        final int attempts = hedged != null ? 2 : 1;
+
+        if (hedged != null) {
+            hedged.whenComplete((response, error) -> onAttempt(result, resolved, response, error, failures, attempts, true));
+        }
+        original.whenComplete((response, error) -> onAttempt(result, resolved, response, error, failures, attempts, false));
+
+        try {
+            return result.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            release(result);
+            throw new IOException("Interrupted while waiting for response.", ie);
+        } catch (ExecutionException ee) {
+            throw unwrap(ee);
+        }
+    }
+
+    /**
+     * Shuts down the threads used to send requests.
+     */
+    void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return The pending response, or null if every thread is busy
+     * @throws IOException if the client is closed
+     */
+    private CompletableFuture<HttpResponse> send(final HttpRequest request, final LatencySampler sampler) throws IOException {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                try {
+                    HttpResponse response = request.execute();
+                    sampler.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                    future.complete(response);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            if (executor.isShutdown()) {
+                throw new IOException("Client is closed.", ree);
+            }
+            return null;
+        }
+        return future;
+    }
+
+    private HttpRequest copy(HttpRequest request) throws IOException {
+        HttpRequest copy = requestFactory.buildRequest(request.getRequestMethod(), request.getUrl(), null);
+        copy.setHeaders(request.getHeaders().clone());
+        copy.setThrowExceptionOnExecuteError(request.getThrowExceptionOnExecuteError());
+        return copy;
+    }
+
+    /**
+     * Resolves the result with the first response to arrive, or with the last error once every attempt has
+     * failed. A response which arrives after the result is resolved is disconnected.
+     */
+    private void onAttempt(CompletableFuture<HttpResponse> result, AtomicBoolean resolved, HttpResponse response,
+                           Throwable error, AtomicInteger failures, int attempts, boolean isHedge) {
+        if (error != null) {
+            if (failures.incrementAndGet() >= attempts) {
+                result.completeExceptionally(error);
+            }
+        } else if (resolved.compareAndSet(false, true)) {
+            // counted before completing so the caller sees the win as soon as it has the response
+            if (isHedge) {
+                statistics.recordHedgeWin();
+            }
+            result.complete(response);
+        } else {
+            disconnect(response);
+        }
+    }
+
+    private static void release(CompletableFuture<HttpResponse> future) {
+        future.thenAccept(Hedger::disconnect);
+    }
+
+    private static void disconnect(HttpResponse response) {
+        try {
+            response.disconnect();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static IOException unwrap(ExecutionException ee) {
+        Throwable cause = ee.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+}
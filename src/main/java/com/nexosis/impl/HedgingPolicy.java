@@ -0,0 +1,86 @@
+package com.nexosis.impl;
+
+/**
+ * Controls hedging of GET and HEAD requests by {@link ApiConnection}.
+ * <p>
+ * When a request has not been answered after the configured percentile of recent response times for the
+ * same endpoint, an identical second request is sent and whichever answers first is used. The response of
+ * the other request is discarded and its connection released as soon as it arrives.
+ * <p>
+ * Every request earns {@code maxExtraLoad} of a hedge, up to {@code budgetCapacity}, and every hedge spends a
+ * whole one, so hedging adds at most that fraction of extra requests.
+ */
+public class HedgingPolicy {
+    private double percentile = 0.95;
+    private long minDelayMillis = 20;
+    private int minSamples = 20;
+    private double maxExtraLoad = 0.1;
+    private int budgetCapacity = 10;
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @param percentile Percentile of recent response times to wait before hedging, between 0 and 1. Defaults to 0.95.
+     */
+    public HedgingPolicy setPercentile(double percentile) {
+        if (percentile <= 0 || percentile >= 1)
+            throw new IllegalArgumentException("percentile must be between 0 and 1.");
+        this.percentile = percentile;
+        return this;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    /**
+     * @param minDelayMillis Shortest time to wait before hedging regardless of the percentile. Defaults to 20ms.
+     */
+    public HedgingPolicy setMinDelayMillis(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+        return this;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * @param minSamples Number of responses from an endpoint which must be timed before its requests are
+     *                   hedged. Defaults to 20.
+     */
+    public HedgingPolicy setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    public double getMaxExtraLoad() {
+        return maxExtraLoad;
+    }
+
+    /**
+     * @param maxExtraLoad Largest fraction of requests which may be hedged. Defaults to 0.1.
+     */
+    public HedgingPolicy setMaxExtraLoad(double maxExtraLoad) {
+        if (maxExtraLoad < 0)
+            throw new IllegalArgumentException("maxExtraLoad cannot be negative.");
+        this.maxExtraLoad = maxExtraLoad;
+        return this;
+    }
+
+    public int getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    /**
+     * @param budgetCapacity Most hedges which can be saved up while requests are answered quickly. Defaults to 10.
+     */
+    public HedgingPolicy setBudgetCapacity(int budgetCapacity) {
+        if (budgetCapacity < 0)
+            throw new IllegalArgumentException("budgetCapacity cannot be negative.");
+        this.budgetCapacity = budgetCapacity;
+        return this;
+    }
+}
@@ -0,0 +1,63 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the hedged requests made by a client.
+ */
+public class HedgingStatistics {
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetRejections = new AtomicLong();
+
+    /**
+     * @return Number of GET and HEAD requests which could have been hedged
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return Number of hedge requests sent
+     */
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * @return Number of hedge requests which answered before the original request
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * @return Number of hedges which were not sent because the hedging budget was spent
+     */
+    public long getBudgetRejections() {
+        return budgetRejections.get();
+    }
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordHedge() {
+        hedges.incrementAndGet();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    void recordBudgetRejection() {
+        budgetRejections.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingStatistics{requests=" + getRequests() + ", hedges=" + getHedges() + ", hedgeWins=" + getHedgeWins()
+                + ", budgetRejections=" + getBudgetRejections() + "}";
+    }
+}
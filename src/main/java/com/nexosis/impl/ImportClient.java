@@ -8,6 +8,7 @@ import com.nexosis.util.Action;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class ImportClient implements IImportClient {
     private ApiConnection apiConnection;
@@ -65,4 +66,43 @@ public class ImportClient implements IImportClient {
         return apiConnection.post(ImportDetail.class, "imports/s3", null, detail, httpMessageTransformer);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ImportDetails> listAsync(final ImportDetailQuery query) {
+        return apiConnection.submit(() -> list(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ImportDetail> getAsync(final UUID id) {
+        return apiConnection.submit(() -> get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ImportDetail> importFromS3Async(final ImportFromS3Request detail) {
+        return apiConnection.submit(() -> importFromS3(detail));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ImportDetail> ImportFromUrlAsync(final ImportFromUrlRequest detail) {
+        return apiConnection.submit(() -> ImportFromUrl(detail));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ImportDetail> ImportFromAzureAsync(final ImportFromAzureRequest detail) {
+        return apiConnection.submit(() -> ImportFromAzure(detail));
+    }
 }
@@ -0,0 +1,39 @@
+package com.nexosis.impl;
+
+/**
+ * Observes or changes every request an {@link ApiConnection} sends, composed with other interceptors in an
+ * ordered chain.
+ * <p>
+ * Each phase is called once per attempt, so a request which is retried passes through the chain again.
+ * Request phases run in the order the interceptors were added, and response and exception phases in the
+ * reverse order, so the first interceptor added sees the request first and the response last. Values kept
+ * with {@link CallContext#setAttribute(String, Object)} during the request phase are available to the later
+ * phases of the same call.
+ * <p>
+ * Interceptors are shared by every call of a client and may be called from several threads at once.
+ */
+public interface Interceptor {
+    /**
+     * Called before each attempt is sent. Headers can be added to {@link CallContext#getRequest()} here.
+     * Throwing fails the call without sending the request.
+     */
+    default void onRequest(CallContext context) throws Exception {
+    }
+
+    /**
+     * Called when a response is received which will be returned to the caller, available from
+     * {@link CallContext#getResponse()}. The body has not been read yet. Throwing fails the call without sending
+     * the request again, and the response is disconnected.
+     */
+    default void onResponse(CallContext context) throws Exception {
+    }
+
+    /**
+     * Called when an attempt fails with an error status or without a response.
+     * {@link CallContext#isRetrying()} tells whether another attempt will follow.
+     *
+     * @param error The HttpResponseException for an error status, or the IOException of a failed connection
+     */
+    default void onException(CallContext context, Exception error) {
+    }
+}
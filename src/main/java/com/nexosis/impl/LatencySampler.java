@@ -0,0 +1,50 @@
+package com.nexosis.impl;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent response times of an endpoint and estimates a percentile from them.
+ */
+class LatencySampler {
+    private final static int SIZE = 512;
+    private final static int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[SIZE];
+    private int count;
+    private int next;
+    private double cachedPercentile = -1;
+    private long cachedValue = -1;
+    private int recordedSinceCompute;
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % SIZE;
+        if (count < SIZE) {
+            count++;
+        }
+        recordedSinceCompute++;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile Between 0 and 1
+     * @return The estimated percentile in milliseconds, or -1 when there are no samples
+     */
+    synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        if (cachedValue < 0 || cachedPercentile != percentile || recordedSinceCompute >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            cachedValue = sorted[Math.max(0, index)];
+            cachedPercentile = percentile;
+            recordedSinceCompute = 0;
+        }
+        return cachedValue;
+    }
+}
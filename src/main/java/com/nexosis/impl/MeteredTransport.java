@@ -0,0 +1,194 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.util.StreamingContent;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Function;
+
+/**
+ * Records the latency, status and bytes on the wire of every request sent through another transport in a
+ * {@link MetricsRegistry}.
+ */
+class MeteredTransport extends HttpTransport {
+    private final HttpTransport transport;
+    private final MetricsRegistry registry;
+    private final String endpoint;
+    private final Function<GenericUrl, String> relativePath;
+
+    /**
+     * @param endpoint     The API endpoint the request URLs start with
+     * @param relativePath Finds the path relative to the API endpoint of any other URL
+     */
+    MeteredTransport(HttpTransport transport, MetricsRegistry registry, String endpoint, Function<GenericUrl, String> relativePath) {
+        this.transport = transport;
+        this.registry = registry;
+        this.endpoint = endpoint;
+        this.relativePath = relativePath;
+    }
+
+    @Override
+    public boolean supportsMethod(String method) throws IOException {
+        return transport.supportsMethod(method);
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        LowLevelHttpRequest request = DecodingTransport.build(transport, method, url);
+        EndpointMetrics metrics = registry.isEnabled() ? registry.endpoint(method, path(url)) : null;
+        return metrics == null ? request : new MeteredRequest(request, metrics);
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        transport.shutdown();
+    }
+
+    private String path(String url) {
+        int query = url.indexOf('?');
+        String path = query < 0 ? url : url.substring(0, query);
+        // requests are built by appending their path to the endpoint, which saves parsing the URL
+        return path.startsWith(endpoint) ? path.substring(endpoint.length()) : relativePath.apply(new GenericUrl(url));
+    }
+
+    /**
+     * @return The metered body under a response's content, or null if it was not sent through this transport
+     */
+    static MeteredContent metered(InputStream content) {
+        if (content instanceof DecodingTransport.DecodedContent) {
+            content = ((DecodingTransport.DecodedContent) content).getSource();
+        }
+        return content instanceof MeteredContent ? (MeteredContent) content : null;
+    }
+
+    private static class MeteredRequest extends DecodingTransport.ForwardingRequest {
+        private final EndpointMetrics metrics;
+
+        MeteredRequest(LowLevelHttpRequest request, EndpointMetrics metrics) {
+            super(request);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            final StreamingContent content = getStreamingContent();
+            if (content != null) {
+                setStreamingContent(out -> {
+                    CountingOutputStream counting = new CountingOutputStream(out);
+                    try {
+                        content.writeTo(counting);
+                    } finally {
+                        metrics.recordRequestBytes(counting.count);
+                    }
+                });
+            }
+
+            metrics.recordStart();
+            long started = System.nanoTime();
+            int statusCode;
+            LowLevelHttpResponse response;
+            try {
+                response = super.execute();
+                statusCode = response.getStatusCode();
+            } catch (IOException | RuntimeException e) {
+                metrics.recordError();
+                throw e;
+            }
+            metrics.recordResponse(statusCode, System.nanoTime() - started);
+            return new MeteredResponse(response, metrics);
+        }
+    }
+
+    private static class MeteredResponse extends DecodingTransport.ForwardingResponse {
+        private final EndpointMetrics metrics;
+
+        MeteredResponse(LowLevelHttpResponse response, EndpointMetrics metrics) {
+            super(response);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            InputStream content = super.getContent();
+            return content == null ? null : new MeteredContent(content, metrics);
+        }
+    }
+
+    /**
+     * A response body which counts the bytes read from it and the time spent waiting for them.
+     */
+    static class MeteredContent extends FilterInputStream {
+        private final EndpointMetrics metrics;
+        private long readNanos;
+
+        MeteredContent(InputStream content, EndpointMetrics metrics) {
+            super(content);
+            this.metrics = metrics;
+        }
+
+        /**
+         * @return Nanoseconds spent in calls reading the body so far
+         */
+        long getReadNanos() {
+            return readNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long started = System.nanoTime();
+            int value = in.read();
+            readNanos += System.nanoTime() - started;
+            if (value >= 0) {
+                metrics.recordResponseBytes(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            int count = in.read(b, off, len);
+            readNanos += System.nanoTime() - started;
+            if (count > 0) {
+                metrics.recordResponseBytes(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long started = System.nanoTime();
+            long skipped = in.skip(n);
+            readNanos += System.nanoTime() - started;
+            metrics.recordResponseBytes(skipped);
+            return skipped;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.nexosis.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The request metrics of a client, kept per endpoint template such as {@code GET sessions/{id}/results}.
+ * <p>
+ * Identifiers and dataset or view names are replaced by placeholders in the templates, so the number of
+ * endpoints tracked stays small however many sessions or datasets are used.
+ */
+public class MetricsRegistry {
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    /**
+     * @return true if requests are being recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param template An endpoint template, such as {@code GET sessions/{id}/results}
+     * @return The metrics of the endpoint, or null if it has not been called
+     */
+    public EndpointMetrics getEndpoint(String template) {
+        return endpoints.get(template);
+    }
+
+    /**
+     * @return The metrics of every endpoint called, by template
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param path A request path relative to the API endpoint
+     * @return The metrics of the endpoint, or null when metrics are disabled
+     */
+    EndpointMetrics endpoint(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        String template = method + " " + Endpoints.template(path);
+        EndpointMetrics metrics = endpoints.get(template);
+        return metrics != null ? metrics : endpoints.computeIfAbsent(template, EndpointMetrics::new);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsRegistry{endpoints=" + getEndpoints().values() + "}";
+    }
+}
@@ -9,6 +9,7 @@ import com.nexosis.util.Action;
 import java.util.AbstractMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class ModelClient implements IModelClient {
     private ApiConnection apiConnection;
@@ -36,7 +37,7 @@ public class ModelClient implements IModelClient {
      * {@inheritDoc}
      */
     public ModelSummary get(UUID id) throws NexosisClientException {
-        return apiConnection.get(ModelSummary.class, "models/" + id.toString(),null, httpMessageTransformer);
+        return apiConnection.getImmutable(ModelSummary.class, "models/" + id.toString(),null, httpMessageTransformer);
     }
 
     /**
@@ -81,4 +82,39 @@ public class ModelClient implements IModelClient {
             apiConnection.delete("models", params, httpMessageTransformer);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ModelSummary> getAsync(final UUID id) {
+        return apiConnection.submit(() -> get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ModelList> listAsync(final ModelSummaryQuery query) {
+        return apiConnection.submit(() -> list(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ModelPredictionResult> predictAsync(final ModelPredictionRequest request) {
+        return apiConnection.submit(() -> predict(request));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removeAsync(final ModelRemoveCriteria criteria) {
+        return apiConnection.submit(() -> {
+            remove(criteria);
+            return null;
+        });
+    }
 }
@@ -8,7 +8,15 @@ import com.nexosis.*;
 import com.nexosis.model.AccountQuotas;
 import com.nexosis.util.Action;
 
-public class NexosisClient implements INexosisClient {
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+public class NexosisClient implements INexosisClient, AutoCloseable {
     private String key;
     private String configuredUrl;
     private ApiConnection apiConnection;
@@ -20,6 +28,10 @@ public class NexosisClient implements INexosisClient {
     private IViewClient views;
     private IModelClient models;
     private Action<HttpRequest, HttpResponse> httpMessageTransformer;
+    private Closeable ownedTransport;
+    private ExecutorService executor;
+    private boolean ownsExecutor;
+    private boolean virtualThreads;
 
     /**
      * The client id and version sent as the User-Agent header
@@ -106,6 +118,7 @@ public class NexosisClient implements INexosisClient {
         configuredUrl = endpoint;
 
         apiConnection = new ApiConnection(endpoint, key, httpTransport);
+        setExecutor(ClientExecutors.bounded(ClientExecutors.DEFAULT_THREADS, ClientExecutors.DEFAULT_QUEUE_SIZE), true);
 
         sessions = new SessionClient(apiConnection);
         dataSets = new DataSetClient(apiConnection);
@@ -114,6 +127,199 @@ public class NexosisClient implements INexosisClient {
         models = new ModelClient(apiConnection);
     }
 
+    private NexosisClient(Builder builder, HttpTransport httpTransport, Closeable ownedTransport) {
+        this(builder.apiKey, builder.endpoint, httpTransport);
+        this.ownedTransport = ownedTransport;
+        apiConnection.setConnectTimeout(builder.connectTimeout);
+        apiConnection.setReadTimeout(builder.readTimeout);
+
+        apiConnection.setRetryPolicy(builder.retryPolicy);
+        apiConnection.setHedgingPolicy(builder.hedgingPolicy);
+        apiConnection.setCircuitBreakerPolicy(builder.circuitBreakerPolicy);
+        apiConnection.setCompressionPolicy(builder.compressionPolicy);
+        apiConnection.setResponseCompression(builder.responseCompression);
+        apiConnection.setCompressedPassThrough(builder.compressedPassThrough);
+        apiConnection.setRequestCoalescing(builder.requestCoalescing);
+        apiConnection.setValidatorCachePolicy(builder.validatorCachePolicy);
+        apiConnection.setResourceCachePolicy(builder.resourceCachePolicy);
+        apiConnection.setDiskCachePolicy(builder.diskCachePolicy);
+        apiConnection.setBytecodeBinding(builder.bytecodeBinding);
+        apiConnection.getMetrics().setEnabled(builder.metrics);
+        for (Interceptor interceptor : builder.interceptors) {
+            apiConnection.addInterceptor(interceptor);
+        }
+        apiConnection.getQuotaBudget().setLimiting(builder.quotaLimiting);
+        apiConnection.getQuotaBudget().setMaxWaitMillis(builder.quotaWaitMillis);
+        apiConnection.getQuotaBudget().setRecheckMillis(builder.quotaRecheckMillis);
+
+        ExecutorService virtualExecutor = builder.executor == null && builder.virtualThreads ? ClientExecutors.virtualThreads() : null;
+        if (builder.executor != null) {
+            setExecutor(builder.executor, false);
+        } else if (virtualExecutor != null) {
+            setExecutor(virtualExecutor, true);
+            virtualThreads = true;
+        } else if (builder.asyncThreads != ClientExecutors.DEFAULT_THREADS || builder.asyncQueueSize != ClientExecutors.DEFAULT_QUEUE_SIZE) {
+            setExecutor(ClientExecutors.bounded(builder.asyncThreads, builder.asyncQueueSize), true);
+        }
+    }
+
+    private void setExecutor(ExecutorService executor, boolean ownsExecutor) {
+        if (this.executor != null && this.ownsExecutor) {
+            this.executor.shutdown();
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        apiConnection.setExecutor(executor);
+    }
+
+    /**
+     * The executor on which the asynchronous operations of this client and its sub-clients are run.
+     *
+     * @return The executor used for asynchronous requests
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Whether asynchronous operations run on virtual threads. This is only the case when
+     * {@link Builder#setVirtualThreads(boolean) Builder.setVirtualThreads} was set and the runtime supports them.
+     *
+     * @return true if every asynchronous operation is given a virtual thread of its own
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops the asynchronous request executor and releases the pooled connections held by a client created
+     * with a {@link Builder Builder}. Clients created with an explicit HttpTransport leave the transport open,
+     * and an executor passed to {@link Builder#setExecutor(ExecutorService) Builder.setExecutor} is not shut down.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        apiConnection.close();
+        if (ownedTransport != null) {
+            try {
+                ownedTransport.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Counters for the requests retried by this client. Retries are only made when a {@link RetryPolicy RetryPolicy}
+     * is given to {@link Builder#setRetryPolicy(RetryPolicy) Builder.setRetryPolicy}.
+     *
+     * @return The live retry counters of this client
+     */
+    public RetryStatistics getRetryStatistics() {
+        return apiConnection.getRetryStatistics();
+    }
+
+    /**
+     * Counters for the GET and HEAD requests hedged by this client. Requests are only hedged when a
+     * {@link HedgingPolicy HedgingPolicy} is given to {@link Builder#setHedgingPolicy(HedgingPolicy) Builder.setHedgingPolicy}.
+     *
+     * @return The live hedging counters of this client
+     */
+    public HedgingStatistics getHedgingStatistics() {
+        return apiConnection.getHedgingStatistics();
+    }
+
+    /**
+     * Counters for the GET and HEAD calls answered by an identical request already in flight. Calls are only
+     * coalesced when enabled with {@link Builder#setRequestCoalescing(boolean) Builder.setRequestCoalescing}.
+     *
+     * @return The live coalescing counters of this client
+     */
+    public CoalescingStatistics getCoalescingStatistics() {
+        return apiConnection.getCoalescingStatistics();
+    }
+
+    /**
+     * Counters for the GET requests revalidated against cached responses. Responses are only cached when a
+     * {@link ValidatorCachePolicy ValidatorCachePolicy} is given to
+     * {@link Builder#setValidatorCachePolicy(ValidatorCachePolicy) Builder.setValidatorCachePolicy}.
+     *
+     * @return The live conditional request counters of this client
+     */
+    public ValidatorCacheStatistics getValidatorCacheStatistics() {
+        return apiConnection.getValidatorCacheStatistics();
+    }
+
+    /**
+     * Counters for the completed session results and models answered from memory. Resources are only cached
+     * when a {@link ResourceCachePolicy ResourceCachePolicy} is given to
+     * {@link Builder#setResourceCachePolicy(ResourceCachePolicy) Builder.setResourceCachePolicy}.
+     *
+     * @return The live resource cache counters of this client
+     */
+    public ResourceCacheStatistics getResourceCacheStatistics() {
+        return apiConnection.getResourceCacheStatistics();
+    }
+
+    /**
+     * Counters for the completed session results read from disk. Results are only written to disk when a
+     * {@link DiskCachePolicy DiskCachePolicy} is given to
+     * {@link Builder#setDiskCachePolicy(DiskCachePolicy) Builder.setDiskCachePolicy}.
+     *
+     * @return The live disk cache counters of this client
+     */
+    public DiskCacheStatistics getDiskCacheStatistics() {
+        return apiConnection.getDiskCacheStatistics();
+    }
+
+    /**
+     * Latency histograms, status codes and traffic for every endpoint this client has called, recorded unless
+     * disabled with {@link Builder#setMetrics(boolean) Builder.setMetrics}.
+     *
+     * @return The live metrics of this client
+     */
+    public MetricsRegistry getMetrics() {
+        return apiConnection.getMetrics();
+    }
+
+    /**
+     * @return The interceptors every request of this client passes through, in the order they run
+     */
+    public List<Interceptor> getInterceptors() {
+        return apiConnection.getInterceptors();
+    }
+
+    /**
+     * The circuit breaker guarding an endpoint family. Breakers are only kept when a
+     * {@link CircuitBreakerPolicy CircuitBreakerPolicy} is given to
+     * {@link Builder#setCircuitBreakerPolicy(CircuitBreakerPolicy) Builder.setCircuitBreakerPolicy}.
+     *
+     * @param family The first segment of the request path: {@code sessions}, {@code data}, {@code models},
+     *               {@code imports} or {@code views}
+     * @return The live breaker of the family, or null when circuit breakers are disabled
+     */
+    public CircuitBreaker getCircuitBreaker(String family) {
+        return apiConnection.getCircuitBreaker(family);
+    }
+
+    /**
+     * @return The breakers of every endpoint family requested so far, keyed by family
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return apiConnection.getCircuitBreakers();
+    }
+
+    /**
+     * The prediction, session and dataset quotas of the account as reported by the most recent responses,
+     * along with the requests currently in flight against them.
+     *
+     * @return The live quota budget of this client
+     */
+    public QuotaBudget getQuotaBudget() {
+        return apiConnection.getQuotaBudget();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -161,6 +367,14 @@ public class NexosisClient implements INexosisClient {
         return apiConnection.get(AccountQuotas.class, "/data", null, httpMessageTransformer);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<AccountQuotas> getAccountQuotasAsync() {
+        return apiConnection.submit(() -> getAccountQuotas());
+    }
+
     @Override
     public ISessionClient getSessions() {
         return sessions;
@@ -192,4 +406,372 @@ public class NexosisClient implements INexosisClient {
     @Override
     public IModelClient getModels() { return models; }
 
+    /**
+     * Builds a NexosisClient which sends requests over a pool of keep-alive connections.
+     * <p>
+     * {@code
+     * try (NexosisClient client = new NexosisClient.Builder().setApiKey(key).setMaxConnections(50).build()) {
+     *     client.getModels().predict(request);
+     * }
+     * }
+     */
+    public static class Builder {
+        private String apiKey = System.getenv("NEXOSIS_API_KEY");
+        private String endpoint = BASE_URL;
+        private int maxConnections = 200;
+        private int maxConnectionsPerRoute = 20;
+        private long keepAliveMillis = 30 * 1000;
+        private long idleEvictionMillis = 60 * 1000;
+        private int connectTimeout = 20 * 1000;
+        private int readTimeout = 20 * 1000;
+        private int asyncThreads = ClientExecutors.DEFAULT_THREADS;
+        private int asyncQueueSize = ClientExecutors.DEFAULT_QUEUE_SIZE;
+        private ExecutorService executor;
+        private boolean virtualThreads = false;
+        private HttpTransport httpTransport;
+        private boolean http2 = false;
+        private boolean http2PriorKnowledge = false;
+        private RetryPolicy retryPolicy = RetryPolicy.none();
+        private HedgingPolicy hedgingPolicy;
+        private CircuitBreakerPolicy circuitBreakerPolicy;
+        private CompressionPolicy compressionPolicy;
+        private boolean responseCompression = true;
+        private boolean compressedPassThrough = false;
+        private boolean requestCoalescing = false;
+        private ValidatorCachePolicy validatorCachePolicy;
+        private ResourceCachePolicy resourceCachePolicy;
+        private DiskCachePolicy diskCachePolicy;
+        private boolean metrics = true;
+        private boolean bytecodeBinding = false;
+        private final List<Interceptor> interceptors = new ArrayList<>();
+        private boolean quotaLimiting = false;
+        private long quotaWaitMillis = 5 * 1000;
+        private long quotaRecheckMillis = 60 * 1000;
+
+        /**
+         * @param apiKey The api key from your account. Defaults to the NEXOSIS_API_KEY environment variable.
+         */
+        public Builder setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * @param endpoint URL of Nexosis API. Defaults to {@link NexosisClient#BASE_URL BASE_URL}.
+         */
+        public Builder setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+            return this;
+        }
+
+        /**
+         * @param maxConnections Maximum number of connections held in the pool. Defaults to 200.
+         */
+        public Builder setMaxConnections(int maxConnections) {
+            if (maxConnections < 1)
+                throw new IllegalArgumentException("maxConnections must be at least 1.");
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute Maximum number of connections held to a single host. Defaults to 20.
+         */
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute < 1)
+                throw new IllegalArgumentException("maxConnectionsPerRoute must be at least 1.");
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param keepAliveMillis How long an idle connection may be reused when the server does not send a
+         *                        Keep-Alive timeout. Defaults to 30 seconds.
+         */
+        public Builder setKeepAliveMillis(long keepAliveMillis) {
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        /**
+         * @param idleEvictionMillis Connections idle longer than this are closed by a background thread.
+         *                           Defaults to 60 seconds, 0 disables eviction.
+         */
+        public Builder setIdleEvictionMillis(long idleEvictionMillis) {
+            this.idleEvictionMillis = idleEvictionMillis;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout Timeout in milliseconds to establish a connection. Defaults to 20 seconds.
+         */
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param readTimeout Timeout in milliseconds to read data from a connection. Defaults to 20 seconds.
+         */
+        public Builder setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * @param httpTransport A transport to send requests with instead of the client's connection pool. The
+         *                      pool settings are ignored and the caller remains responsible for the transport.
+         */
+        public Builder setHttpTransport(HttpTransport httpTransport) {
+            this.httpTransport = httpTransport;
+            return this;
+        }
+
+        /**
+         * @param http2 true to send requests with OkHttp, which multiplexes concurrent requests over a single HTTP/2
+         *              connection to servers which negotiate it. Up to maxConnectionsPerRoute idle connections are kept
+         *              for keepAliveMillis. Defaults to false, sending HTTP/1.1 requests over the Apache HttpClient
+         *              connection pool.
+         */
+        public Builder setHttp2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        /**
+         * @param http2PriorKnowledge true to send requests over HTTP/2 without negotiating it, to an http:// endpoint
+         *                            known to support cleartext HTTP/2 (h2c), such as a local proxy. Implies
+         *                            {@link #setHttp2(boolean) setHttp2(true)}. Defaults to false.
+         */
+        public Builder setHttp2PriorKnowledge(boolean http2PriorKnowledge) {
+            this.http2PriorKnowledge = http2PriorKnowledge;
+            if (http2PriorKnowledge) {
+                this.http2 = true;
+            }
+            return this;
+        }
+
+        /**
+         * @param retryPolicy How requests failing with transient errors are retried. Defaults to {@link RetryPolicy#none()}.
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            Argument.IsNotNull(retryPolicy, "retryPolicy");
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param hedgingPolicy How slow GET and HEAD requests are hedged, or null to never hedge. Defaults to null.
+         */
+        public Builder setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * @param circuitBreakerPolicy When requests to an endpoint family fail fast because the family is failing,
+         *                             or null to always send requests. Defaults to null.
+         */
+        public Builder setCircuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+            this.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+
+        /**
+         * @param compressionPolicy How large JSON and CSV request bodies are gzip compressed, or null to send them
+         *                          uncompressed. Defaults to null.
+         */
+        public Builder setCompressionPolicy(CompressionPolicy compressionPolicy) {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * @param responseCompression true to ask for gzip or deflate compressed responses to GET requests. They are
+         *                            decoded as they are read. Defaults to true.
+         */
+        public Builder setResponseCompression(boolean responseCompression) {
+            this.responseCompression = responseCompression;
+            return this;
+        }
+
+        /**
+         * @param compressedPassThrough true to write gzip compressed downloads to the OutputStream given to methods
+         *                              such as {@code getDataSets().get(query, output)} exactly as they are received,
+         *                              for instance to store them compressed. Only gzip is asked for, so the output is
+         *                              either gzip, which starts with the bytes 0x1f 0x8b, or uncompressed if the
+         *                              server chose not to compress. Defaults to false.
+         */
+        public Builder setCompressedPassThrough(boolean compressedPassThrough) {
+            this.compressedPassThrough = compressedPassThrough;
+            return this;
+        }
+
+        /**
+         * @param requestCoalescing true to let concurrent identical GET and HEAD calls, such as many threads asking for
+         *                          the status of the same session, share a single request. Each caller still gets
+         *                          its own copy of the result. Defaults to false.
+         */
+        public Builder setRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * @param validatorCachePolicy How objects such as ModelSummary and DataSetList are cached with their ETag and
+         *                             Last-Modified validators and revalidated with conditional GETs, or null to
+         *                             always download them in full. Defaults to null.
+         */
+        public Builder setValidatorCachePolicy(ValidatorCachePolicy validatorCachePolicy) {
+            this.validatorCachePolicy = validatorCachePolicy;
+            return this;
+        }
+
+        /**
+         * @param resourceCachePolicy How the results, contest and models of completed sessions, which never
+         *                            change, are kept in memory and reused, or null to always request them.
+         *                            Defaults to null.
+         */
+        public Builder setResourceCachePolicy(ResourceCachePolicy resourceCachePolicy) {
+            this.resourceCachePolicy = resourceCachePolicy;
+            return this;
+        }
+
+        /**
+         * @param diskCachePolicy Where the results of completed sessions are written so they can be read again
+         *                        after a restart without downloading them, or null to keep nothing on disk.
+         *                        Defaults to null.
+         */
+        public Builder setDiskCachePolicy(DiskCachePolicy diskCachePolicy) {
+            this.diskCachePolicy = diskCachePolicy;
+            return this;
+        }
+
+        /**
+         * @param metrics true to record the latency, status codes and traffic of each endpoint in
+         *                {@link NexosisClient#getMetrics()}. Recording takes no locks and is cheap enough to
+         *                leave on. Defaults to true.
+         */
+        public Builder setMetrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param bytecodeBinding true to register Jackson's Afterburner module, which generates the code binding
+         *                        JSON to model classes such as SessionResult, DataSetData and
+         *                        ModelPredictionResult instead of using reflection. This speeds up parsing large
+         *                        results. Defaults to false.
+         */
+        public Builder setBytecodeBinding(boolean bytecodeBinding) {
+            this.bytecodeBinding = bytecodeBinding;
+            return this;
+        }
+
+        /**
+         * @param interceptor Called before every request is sent and when it succeeds or fails, after the
+         *                    interceptors already added. Each sub-client's http message transformer runs
+         *                    after all of them.
+         */
+        public Builder addInterceptor(Interceptor interceptor) {
+            Argument.IsNotNull(interceptor, "interceptor");
+            this.interceptors.add(interceptor);
+            return this;
+        }
+
+        /**
+         * @param quotaLimiting true to hold back prediction and session requests which the account quota has no
+         *                      room for, instead of sending them to be rejected by the API. Defaults to false.
+         */
+        public Builder setQuotaLimiting(boolean quotaLimiting) {
+            this.quotaLimiting = quotaLimiting;
+            return this;
+        }
+
+        /**
+         * @param quotaWaitMillis How long a request may wait for requests in flight against the same quota to
+         *                        finish before it fails. Defaults to 5 seconds.
+         */
+        public Builder setQuotaWaitMillis(long quotaWaitMillis) {
+            this.quotaWaitMillis = quotaWaitMillis;
+            return this;
+        }
+
+        /**
+         * @param quotaRecheckMillis How often a single request is let through against a used up quota to find out
+         *                           whether it has been reset. Defaults to 60 seconds.
+         */
+        public Builder setQuotaRecheckMillis(long quotaRecheckMillis) {
+            this.quotaRecheckMillis = quotaRecheckMillis;
+            return this;
+        }
+
+        /**
+         * @param asyncThreads Number of threads running asynchronous requests. Defaults to 16.
+         */
+        public Builder setAsyncThreads(int asyncThreads) {
+            if (asyncThreads < 1)
+                throw new IllegalArgumentException("asyncThreads must be at least 1.");
+            this.asyncThreads = asyncThreads;
+            return this;
+        }
+
+        /**
+         * @param asyncQueueSize Number of asynchronous requests which may wait for a thread. Requests beyond
+         *                       this fail with a NexosisClientException. Defaults to 10000.
+         */
+        public Builder setAsyncQueueSize(int asyncQueueSize) {
+            if (asyncQueueSize < 1)
+                throw new IllegalArgumentException("asyncQueueSize must be at least 1.");
+            this.asyncQueueSize = asyncQueueSize;
+            return this;
+        }
+
+        /**
+         * @param virtualThreads true to run each asynchronous operation on a virtual thread of its own on Java 21 and
+         *                       later, so waiting on the network does not tie up a platform thread. Ignored when
+         *                       an executor is given. Where virtual threads are not available the bounded pool set
+         *                       by asyncThreads and asyncQueueSize is used. Defaults to false.
+         */
+        public Builder setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * @param executor An executor to run asynchronous requests on instead of the client's own pool.
+         *                 The caller remains responsible for shutting it down.
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @return A NexosisClient which should be closed when no longer needed.
+         */
+        public NexosisClient build() {
+            if (httpTransport != null) {
+                return new NexosisClient(this, httpTransport, null);
+            }
+
+            if (http2) {
+                OkHttpTransport okHttpTransport = new OkHttpTransport(maxConnectionsPerRoute, keepAliveMillis, connectTimeout, readTimeout, http2PriorKnowledge);
+                try {
+                    return new NexosisClient(this, okHttpTransport, okHttpTransport);
+                } catch (RuntimeException e) {
+                    okHttpTransport.close();
+                    throw e;
+                }
+            }
+
+            PooledTransport pooledTransport = new PooledTransport(maxConnections, maxConnectionsPerRoute, keepAliveMillis, idleEvictionMillis);
+            try {
+                return new NexosisClient(this, pooledTransport.getTransport(), pooledTransport);
+            } catch (RuntimeException e) {
+                pooledTransport.close();
+                throw e;
+            }
+        }
+    }
 }
@@ -31,11 +31,17 @@ public class NexosisClientException extends Exception {
         this.statusCode = statusCode;
     }
 
+    NexosisClientException(String message, Exception inner, int statusCode)
+    {
+        super(message, inner);
+        this.statusCode = statusCode;
+    }
+
     public int getStatusCode() {
         return this.statusCode;
     }
     public void setStatusCode(int statusCode) {
-
+        this.statusCode = statusCode;
     }
     public ErrorResponse getErrorResponse() {
         return this.errorResponse;
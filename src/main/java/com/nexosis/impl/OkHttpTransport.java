@@ -0,0 +1,239 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.util.StreamingContent;
+import okhttp3.ConnectionPool;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transport which sends requests with OkHttp, negotiating HTTP/2 with servers which support it.
+ * <p>
+ * Over HTTP/2 every concurrent request to a host is multiplexed on a single connection instead of each holding
+ * a connection of its own. Servers which only speak HTTP/1.1 are sent requests over a keep-alive pool.
+ */
+class OkHttpTransport extends HttpTransport implements Closeable {
+    private final static byte[] EMPTY = new byte[0];
+
+    private final OkHttpClient client;
+
+    /**
+     * @param maxIdleConnections Maximum number of idle connections kept open
+     * @param keepAliveMillis    How long an idle connection is kept open
+     * @param connectTimeout     Timeout in milliseconds to establish a connection, as set on each request
+     * @param readTimeout        Timeout in milliseconds to read or write data, as set on each request
+     * @param priorKnowledge     true to speak HTTP/2 over cleartext without negotiating it
+     */
+    OkHttpTransport(int maxIdleConnections, long keepAliveMillis, int connectTimeout, int readTimeout, boolean priorKnowledge) {
+        this(new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .protocols(priorKnowledge
+                        ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+                        : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                // the timeouts every request is sent with, so that requests do not need a client of their own
+                .connectTimeout(Math.max(0, connectTimeout), TimeUnit.MILLISECONDS)
+                .readTimeout(Math.max(0, readTimeout), TimeUnit.MILLISECONDS)
+                .writeTimeout(Math.max(0, readTimeout), TimeUnit.MILLISECONDS)
+                // redirects and retries are left to HttpRequest and ApiConnection
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .retryOnConnectionFailure(false)
+                .build());
+    }
+
+    OkHttpTransport(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public boolean supportsMethod(String method) {
+        return true;
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new OkHttpRequest(client, method, url);
+    }
+
+    /**
+     * Number of connections currently held open, both in use and idle.
+     */
+    int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    /**
+     * Closes every idle connection and stops the threads held by OkHttp.
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    private static class OkHttpRequest extends LowLevelHttpRequest {
+        private final OkHttpClient client;
+        private final String method;
+        private final Request.Builder request;
+        private int connectTimeout = -1;
+        private int readTimeout = -1;
+
+        OkHttpRequest(OkHttpClient client, String method, String url) {
+            this.client = client;
+            this.method = method;
+            this.request = new Request.Builder().url(url);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            request.addHeader(name, value);
+        }
+
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            RequestBody body = null;
+            if (getStreamingContent() != null) {
+                body = new StreamingBody(getContentType(), getContentLength(), getStreamingContent());
+            } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+                // OkHttp requires a body for these methods
+                body = RequestBody.create(null, EMPTY);
+            }
+            if (getContentType() != null) {
+                request.header("Content-Type", getContentType());
+            }
+            if (getContentEncoding() != null) {
+                request.header("Content-Encoding", getContentEncoding());
+            }
+            request.method(method, body);
+
+            OkHttpClient call = client;
+            if (connectTimeout != client.connectTimeoutMillis() || readTimeout != client.readTimeoutMillis()
+                    || readTimeout != client.writeTimeoutMillis()) {
+                // only for a request whose timeouts were changed, and shares the connection pool and threads of the client
+                call = client.newBuilder()
+                        .connectTimeout(Math.max(0, connectTimeout), TimeUnit.MILLISECONDS)
+                        .readTimeout(Math.max(0, readTimeout), TimeUnit.MILLISECONDS)
+                        .writeTimeout(Math.max(0, readTimeout), TimeUnit.MILLISECONDS)
+                        .build();
+            }
+            return new OkHttpResponse(call.newCall(request.build()).execute());
+        }
+    }
+
+    private static class StreamingBody extends RequestBody {
+        private final MediaType contentType;
+        private final long contentLength;
+        private final StreamingContent content;
+
+        StreamingBody(String contentType, long contentLength, StreamingContent content) {
+            this.contentType = contentType == null ? null : MediaType.parse(contentType);
+            this.contentLength = contentLength;
+            this.content = content;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            content.writeTo(sink.outputStream());
+        }
+    }
+
+    private static class OkHttpResponse extends LowLevelHttpResponse {
+        private final Response response;
+        private final Headers headers;
+
+        OkHttpResponse(Response response) {
+            this.response = response;
+            this.headers = response.headers();
+        }
+
+        @Override
+        public InputStream getContent() {
+            ResponseBody body = response.body();
+            return body == null ? null : body.byteStream();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return response.header("Content-Encoding");
+        }
+
+        @Override
+        public long getContentLength() {
+            ResponseBody body = response.body();
+            return body == null ? -1 : body.contentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return response.header("Content-Type");
+        }
+
+        @Override
+        public String getStatusLine() {
+            String version = response.protocol() == Protocol.HTTP_2 ? "HTTP/2" : response.protocol().toString().toUpperCase();
+            return version + " " + response.code() + " " + response.message();
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.code();
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return response.message();
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return headers.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return headers.name(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return headers.value(index);
+        }
+
+        @Override
+        public void disconnect() {
+            response.close();
+        }
+    }
+}
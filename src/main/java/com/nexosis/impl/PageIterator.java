@@ -0,0 +1,213 @@
+package com.nexosis.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over every page of a paged query in order, fetching the following pages in the background while the
+ * caller reads the current one, according to a {@link PrefetchPolicy}.
+ * <p>
+ * The first page is read when the iterator is created, which gives the number of pages. The rest are requested
+ * on the client executor. A page which has not started when the caller reaches it is fetched on the caller's
+ * thread instead, so an iterator used from an asynchronous callback cannot wait on requests queued behind it.
+ * Nothing more is requested after the last page is returned or when the iterator is closed, so use it in a
+ * try-with-resources block if it may not be read to the end:
+ * {@code
+ * try (PageIterator<DataSetData> pages = client.getDataSets().getPages(query, new PrefetchPolicy())) {
+ *     while (pages.hasNext()) {
+ *         process(pages.next().getData());
+ *     }
+ * }
+ * }
+ * A page which cannot be fetched is thrown from {@link #next()} as an {@link UncheckedClientException}, and
+ * the iterator is closed. An iterator is not thread-safe.
+ */
+public class PageIterator<P> implements Iterator<P>, AutoCloseable {
+    /**
+     * Fetches one page of the query.
+     */
+    interface PageSource<P> {
+        P get(int pageNumber) throws NexosisClientException;
+    }
+
+    private final PageSource<P> source;
+    private final Executor executor;
+    private final PrefetchPolicy policy;
+    private final int endPage;
+    private final Map<Integer, Prefetch> requested = new HashMap<>();
+    private int nextPage;
+    private int nextRequest;
+    private int inFlight;
+    private boolean closed;
+
+    /**
+     * @param totalPages Reads the number of pages from the first page
+     * @param firstPage  The page to start at, usually 0
+     * @param executor   The client executor, on which the following pages are requested
+     * @throws NexosisClientException if the first page cannot be fetched
+     */
+    PageIterator(PageSource<P> source, ToIntFunction<P> totalPages, int firstPage, Executor executor, PrefetchPolicy policy) throws NexosisClientException {
+        this.source = source;
+        this.executor = executor;
+        this.policy = policy;
+
+        P first = source.get(firstPage);
+        Prefetch prefetch = new Prefetch(firstPage);
+        prefetch.claimed.set(true);
+        prefetch.page.complete(first);
+        requested.put(firstPage, prefetch);
+        this.endPage = Math.max(firstPage + 1, totalPages.applyAsInt(first));
+        this.nextPage = firstPage;
+        this.nextRequest = firstPage + 1;
+    }
+
+    /**
+     * @return Number of the page after the last one, from the totalPages of the first page
+     */
+    public int getEndPage() {
+        return endPage;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return !closed && nextPage < endPage;
+    }
+
+    /**
+     * Returns the next page, waiting for it if it has not arrived, and requests the pages after it.
+     *
+     * @throws UncheckedClientException if the page could not be fetched
+     */
+    @Override
+    public P next() {
+        Prefetch prefetch;
+        synchronized (this) {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            prefetch = requested.remove(nextPage);
+            if (prefetch == null) {
+                // nothing is prefetched with a depth of 0
+                prefetch = new Prefetch(nextPage);
+                inFlight++;
+                nextRequest = nextPage + 1;
+            }
+            nextPage++;
+            schedule();
+        }
+
+        try {
+            if (prefetch.claimed.compareAndSet(false, true)) {
+                // not started by the executor, which may be busy with the caller itself
+                prefetch.fetch();
+            }
+            return prefetch.page.get();
+        } catch (ExecutionException ee) {
+            close();
+            Throwable cause = ee.getCause();
+            if (cause instanceof NexosisClientException) {
+                throw new UncheckedClientException((NexosisClientException) cause);
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } catch (InterruptedException ie) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new UncheckedClientException(new NexosisClientException("Interrupted while fetching page.", ie));
+        } finally {
+            if (!hasNext()) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * @return A sequential stream of the remaining pages, which closes this iterator when it is closed
+     */
+    public Stream<P> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Stops fetching pages. Pages which have not started are never requested, and requests already sent are
+     * abandoned.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Prefetch prefetch : requested.values()) {
+            prefetch.claimed.set(true);
+        }
+        requested.clear();
+    }
+
+    /**
+     * Requests pages until the depth or the concurrency is reached.
+     */
+    private void schedule() {
+        while (!closed
+                && nextRequest < endPage
+                && nextRequest - nextPage < policy.getPrefetchDepth()
+                && inFlight < policy.getMaxConcurrency()) {
+            Prefetch prefetch = new Prefetch(nextRequest++);
+            requested.put(prefetch.pageNumber, prefetch);
+            inFlight++;
+            try {
+                executor.execute(prefetch);
+            } catch (RejectedExecutionException ree) {
+                // left for the caller to fetch when it reaches the page
+                return;
+            }
+        }
+    }
+
+    /**
+     * A page which is fetched by whichever of the executor and the caller claims it first.
+     */
+    private final class Prefetch implements Runnable {
+        private final int pageNumber;
+        private final CompletableFuture<P> page = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Prefetch(int pageNumber) {
+            this.pageNumber = pageNumber;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                fetch();
+            }
+        }
+
+        void fetch() {
+            try {
+                page.complete(source.get(pageNumber));
+            } catch (Throwable t) {
+                page.completeExceptionally(t);
+            } finally {
+                synchronized (PageIterator.this) {
+                    inFlight--;
+                    schedule();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.ApacheHttpTransport;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.ProxySelectorRoutePlanner;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.Closeable;
+import java.net.ProxySelector;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A keep-alive connection pool shared by every request made through a {@link NexosisClient}.
+ * <p>
+ * Connections are held in a thread safe pool so TLS sessions are reused between calls. A background
+ * thread closes connections that have expired or sat idle longer than the configured eviction time.
+ */
+class PooledTransport implements Closeable {
+    private final ThreadSafeClientConnManager connectionManager;
+    private final ApacheHttpTransport transport;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * @param maxConnections            Maximum number of open connections across all routes
+     * @param maxConnectionsPerRoute    Maximum number of open connections to a single host
+     * @param keepAliveMillis           How long to keep a connection open when the server does not say
+     * @param idleEvictionMillis        Idle connections older than this are closed, 0 to disable eviction
+     */
+    PooledTransport(int maxConnections, int maxConnectionsPerRoute, final long keepAliveMillis, final long idleEvictionMillis) {
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setStaleCheckingEnabled(params, false);
+        HttpConnectionParams.setSocketBufferSize(params, 8192);
+        HttpConnectionParams.setTcpNoDelay(params, true);
+        ConnManagerParams.setMaxTotalConnections(params, maxConnections);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(maxConnectionsPerRoute));
+
+        SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+        registry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+
+        connectionManager = new ThreadSafeClientConnManager(params, registry);
+
+        DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager, params);
+        // requests are only retried by the Retrier, which knows which of them are safe to send twice
+        httpClient.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+        httpClient.setRoutePlanner(new ProxySelectorRoutePlanner(registry, ProxySelector.getDefault()));
+        httpClient.setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+            private final DefaultConnectionKeepAliveStrategy serverStrategy = new DefaultConnectionKeepAliveStrategy();
+
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                // prefer the timeout the server advertises in a Keep-Alive header
+                long duration = serverStrategy.getKeepAliveDuration(response, context);
+                return duration > 0 ? duration : keepAliveMillis;
+            }
+        });
+
+        transport = new ApacheHttpTransport(httpClient);
+
+        if (idleEvictionMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(ClientExecutors.daemonThreads("nexosis-connection-evictor-"));
+            evictor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    connectionManager.closeExpiredConnections();
+                    connectionManager.closeIdleConnections(idleEvictionMillis, TimeUnit.MILLISECONDS);
+                }
+            }, idleEvictionMillis, idleEvictionMillis, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Number of connections currently held open by the pool, both leased and idle.
+     */
+    int getConnectionsInPool() {
+        return connectionManager.getConnectionsInPool();
+    }
+
+    /**
+     * Stops the eviction thread and closes every pooled connection.
+     */
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        connectionManager.shutdown();
+    }
+}
@@ -0,0 +1,42 @@
+package com.nexosis.impl;
+
+/**
+ * Controls how a {@link PageIterator} requests the pages after the one being read.
+ * <p>
+ * Up to {@code prefetchDepth} pages past the one the caller is reading are requested, sending at most
+ * {@code maxConcurrency} requests at the same time. The depth is a hard bound: however slowly the pages are
+ * read, no more than {@code prefetchDepth + 1} pages are held in memory.
+ */
+public class PrefetchPolicy {
+    private int prefetchDepth = 1;
+    private int maxConcurrency = 1;
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * @param prefetchDepth Most pages fetched or being fetched ahead of the page being read, or 0 to fetch each
+     *                      page only when it is asked for. Defaults to 1.
+     */
+    public PrefetchPolicy setPrefetchDepth(int prefetchDepth) {
+        if (prefetchDepth < 0)
+            throw new IllegalArgumentException("prefetchDepth cannot be negative.");
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency Most page requests sent at the same time, each on its own connection. Defaults to 1.
+     */
+    public PrefetchPolicy setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be at least 1.");
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+}
@@ -0,0 +1,178 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpHeaders;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The live account quotas of a client, updated from the headers of every response.
+ * <p>
+ * When quota limiting is enabled with {@link NexosisClient.Builder#setQuotaLimiting(boolean)} a request which
+ * counts against a quota is only sent if the quota has room for it after the requests already in flight.
+ * Requests wait up to the configured time for in-flight requests to finish. A request against a quota which
+ * is used up fails without being sent, except for one request per recheck interval which is let through to
+ * find out whether the quota has been reset.
+ */
+public class QuotaBudget {
+    private final Map<QuotaType, Quota> quotas = new EnumMap<>(QuotaType.class);
+    private volatile boolean limiting = false;
+    private volatile long maxWaitMillis = 5 * 1000;
+    private volatile long recheckMillis = 60 * 1000;
+
+    QuotaBudget() {
+        for (QuotaType type : QuotaType.values()) {
+            quotas.put(type, new Quota());
+        }
+    }
+
+    /**
+     * @return The number of requests allotted to the account, or -1 if no response has reported it yet
+     */
+    public int getAllotted(QuotaType type) {
+        return quotas.get(type).allotted;
+    }
+
+    /**
+     * @return The number of requests used as of the last response, or -1 if no response has reported it yet
+     */
+    public int getCurrent(QuotaType type) {
+        return quotas.get(type).current;
+    }
+
+    /**
+     * @return The number of requests sent against the quota which have not yet returned
+     */
+    public int getInFlight(QuotaType type) {
+        Quota quota = quotas.get(type);
+        synchronized (quota) {
+            return quota.inFlight;
+        }
+    }
+
+    /**
+     * @return The number of requests which can still be sent, or -1 if the quota is not yet known
+     */
+    public int getRemaining(QuotaType type) {
+        Quota quota = quotas.get(type);
+        synchronized (quota) {
+            if (quota.allotted < 0 || quota.current < 0) {
+                return -1;
+            }
+            return Math.max(0, quota.allotted - quota.current - quota.inFlight);
+        }
+    }
+
+    void setLimiting(boolean limiting) {
+        this.limiting = limiting;
+    }
+
+    void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    void setRecheckMillis(long recheckMillis) {
+        this.recheckMillis = recheckMillis;
+    }
+
+    void update(HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+        for (Map.Entry<QuotaType, Quota> entry : quotas.entrySet()) {
+            Integer allotted = parse(headers.getFirstHeaderStringValue(entry.getKey().getAllottedHeader()));
+            Integer current = parse(headers.getFirstHeaderStringValue(entry.getKey().getCurrentHeader()));
+            if (allotted == null && current == null) {
+                continue;
+            }
+
+            Quota quota = entry.getValue();
+            synchronized (quota) {
+                if (allotted != null) {
+                    quota.allotted = allotted;
+                }
+                if (current != null) {
+                    quota.current = current;
+                }
+
+                boolean usedUp = quota.allotted >= 0 && quota.current >= quota.allotted;
+                if (usedUp && !quota.usedUp) {
+                    quota.lastRecheck = System.currentTimeMillis();
+                }
+                quota.usedUp = usedUp;
+                quota.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reserves room in a quota for a request, waiting for in-flight requests if the quota is fully reserved.
+     *
+     * @return true if room was reserved and {@link #release(QuotaType)} must be called once the request returns
+     * @throws NexosisClientException when the quota is used up or no room became available in time
+     */
+    boolean acquire(QuotaType type) throws NexosisClientException {
+        if (!limiting || type == null) {
+            return false;
+        }
+
+        Quota quota = quotas.get(type);
+        synchronized (quota) {
+            long deadline = System.currentTimeMillis() + maxWaitMillis;
+            while (quota.allotted >= 0 && quota.current >= 0 && quota.current + quota.inFlight >= quota.allotted) {
+                if (quota.current >= quota.allotted) {
+                    long now = System.currentTimeMillis();
+                    if (quota.inFlight == 0 && now - quota.lastRecheck >= recheckMillis) {
+                        // let a single request through in case the quota has been reset
+                        quota.lastRecheck = now;
+                        break;
+                    }
+                    throw new NexosisClientException("The " + type.name().toLowerCase() + " quota of the account is used up ("
+                            + quota.current + " of " + quota.allotted + ").");
+                }
+
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new NexosisClientException("Timed out waiting for room in the " + type.name().toLowerCase()
+                            + " quota of the account (" + quota.current + " used, " + quota.inFlight + " in flight, "
+                            + quota.allotted + " allotted).");
+                }
+                try {
+                    quota.wait(wait);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new NexosisClientException("Interrupted while waiting for room in the account quota.", ie);
+                }
+            }
+            quota.inFlight++;
+            return true;
+        }
+    }
+
+    void release(QuotaType type) {
+        Quota quota = quotas.get(type);
+        synchronized (quota) {
+            quota.inFlight--;
+            quota.notifyAll();
+        }
+    }
+
+    private static Integer parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+    private static class Quota {
+        volatile int allotted = -1;
+        volatile int current = -1;
+        int inFlight;
+        boolean usedUp;
+        long lastRecheck;
+    }
+}
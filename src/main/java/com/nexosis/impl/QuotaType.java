@@ -0,0 +1,51 @@
+package com.nexosis.impl;
+
+import com.nexosis.util.HttpMethod;
+
+import static com.nexosis.util.NexosisHeaders.*;
+
+/**
+ * The account quotas reported by the API in the nexosis-account-* response headers.
+ */
+public enum QuotaType {
+    PREDICTION(NEXOSIS_ACCOUNT_PREDICTION_COUNT_ALLOTTED, NEXOSIS_ACCOUNT_PREDICTION_COUNT_CURRENT),
+    SESSION(NEXOSIS_ACCOUNT_SESSION_COUNT_ALLOTTED, NEXOSIS_ACCOUNT_SESSION_COUNT_CURRENT),
+    DATASET(NEXOSIS_ACCOUNT_DATASET_COUNT_ALLOTTED, NEXOSIS_ACCOUNT_DATASET_COUNT_CURRENT);
+
+    private final String allottedHeader;
+    private final String currentHeader;
+
+    QuotaType(String allottedHeader, String currentHeader) {
+        this.allottedHeader = allottedHeader;
+        this.currentHeader = currentHeader;
+    }
+
+    String getAllottedHeader() {
+        return allottedHeader;
+    }
+
+    String getCurrentHeader() {
+        return currentHeader;
+    }
+
+    /**
+     * The quota held back by the client before a request is sent. Dataset uploads are not held back since a
+     * PUT to an existing dataset appends to it without using the dataset quota.
+     *
+     * @param method The HTTP method of the request
+     * @param path   The path of the request relative to the API endpoint
+     * @return The quota the request counts against, or null if it is not limited
+     */
+    static QuotaType forRequest(String method, String path) {
+        if (!HttpMethod.POST.value().equals(method) || path == null) {
+            return null;
+        }
+        if (path.startsWith("models/") && path.endsWith("/predict")) {
+            return PREDICTION;
+        }
+        if (path.startsWith("sessions/")) {
+            return SESSION;
+        }
+        return null;
+    }
+}
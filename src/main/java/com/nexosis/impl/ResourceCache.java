@@ -0,0 +1,215 @@
+package com.nexosis.impl;
+
+import com.nexosis.model.ConfusionMatrixResponse;
+import com.nexosis.model.ContestResponse;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.FeatureImportanceResponse;
+import com.nexosis.model.ModelSummary;
+import com.nexosis.model.SessionResponse;
+import com.nexosis.model.SessionResult;
+import com.nexosis.model.SessionStatus;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A least recently used cache of resources which can no longer change, bounded by their approximate size
+ * in memory and applying a {@link ResourceCachePolicy}.
+ */
+class ResourceCache {
+    // rough sizes of the object headers, references and boxed values making up a parsed row
+    private final static long OBJECT_BYTES = 256;
+    private final static long ENTRY_BYTES = 48;
+    private final static long STRING_BYTES = 40;
+
+    private final ResourceCachePolicy policy;
+    private final ResourceCacheStatistics statistics;
+    private final LinkedHashMap<String, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    ResourceCache(ResourceCachePolicy policy, ResourceCacheStatistics statistics) {
+        this.policy = policy;
+        this.statistics = statistics;
+    }
+
+    ResourceCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return The cached resource, or null if there is none or it has expired
+     */
+    synchronized Object get(String key) {
+        Cached cached = entries.get(key);
+        if (cached != null && System.nanoTime() - cached.getCreatedNanos() > TimeUnit.MILLISECONDS.toNanos(policy.getTimeToLiveMillis())) {
+            remove(key);
+            statistics.recordExpiration();
+            cached = null;
+        }
+
+        if (cached == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return cached.getValue();
+    }
+
+    /**
+     * Caches a resource if it can no longer change and fits in the cache, evicting the least recently used
+     * resources to make room for it.
+     */
+    synchronized void put(String key, Object value) {
+        if (!isImmutable(value)) {
+            return;
+        }
+
+        long size = weigh(value);
+        if (size > policy.getMaxWeightBytes()) {
+            return;
+        }
+
+        remove(key);
+        entries.put(key, new Cached(value, size, System.nanoTime()));
+        weight += size;
+
+        Iterator<Map.Entry<String, Cached>> eldest = entries.entrySet().iterator();
+        while (weight > policy.getMaxWeightBytes() && eldest.hasNext()) {
+            weight -= eldest.next().getValue().getWeight();
+            eldest.remove();
+            statistics.recordEviction();
+        }
+        statistics.setWeightBytes(weight);
+    }
+
+    /**
+     * Drops every resource whose key starts with the prefix, such as the URL of a deleted session.
+     */
+    synchronized void invalidate(String prefix) {
+        Iterator<Map.Entry<String, Cached>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Cached> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                weight -= entry.getValue().getWeight();
+                iterator.remove();
+            }
+        }
+        statistics.setWeightBytes(weight);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Cached removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.getWeight();
+            statistics.setWeightBytes(weight);
+        }
+    }
+
+    /**
+     * @return true if the resource is a model, or belongs to a session which has completed
+     */
+    static boolean isImmutable(Object value) {
+        if (value instanceof ModelSummary) {
+            return true;
+        }
+        return value instanceof SessionResponse && ((SessionResponse) value).getStatus() == SessionStatus.COMPLETED;
+    }
+
+    /**
+     * @return The approximate number of bytes the resource holds on the heap
+     */
+    static long weigh(Object value) {
+        long size = OBJECT_BYTES;
+
+        if (value instanceof SessionResult) {
+            SessionResult result = (SessionResult) value;
+            size += weigh(result.getMetrics());
+            size += weigh(result.getData());
+        } else if (value instanceof DataSetData) {
+            // only held by the ValidatorCache, as a data set can change
+            size += weigh(((DataSetData) value).getData());
+        } else if (value instanceof FeatureImportanceResponse) {
+            Map<String, Double> scores = ((FeatureImportanceResponse) value).getScores();
+            if (scores != null) {
+                for (String column : scores.keySet()) {
+                    size += ENTRY_BYTES + weigh(column) + 16;
+                }
+            }
+        } else if (value instanceof ConfusionMatrixResponse) {
+            ConfusionMatrixResponse matrix = (ConfusionMatrixResponse) value;
+            if (matrix.getClasses() != null) {
+                for (String name : matrix.getClasses()) {
+                    size += weigh(name);
+                }
+            }
+            if (matrix.getConfusionMatrix() != null) {
+                for (int[] row : matrix.getConfusionMatrix()) {
+                    size += 16 + (row == null ? 0 : 4L * row.length);
+                }
+            }
+        } else if (value instanceof ContestResponse) {
+            List<?> contestants = ((ContestResponse) value).getContestants();
+            if (contestants != null) {
+                size += OBJECT_BYTES * contestants.size();
+            }
+        }
+        return size;
+    }
+
+    private static long weigh(List<Map<String, String>> rows) {
+        if (rows == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map<String, String> row : rows) {
+            size += ENTRY_BYTES + weigh(row);
+        }
+        return size;
+    }
+
+    private static long weigh(Map<String, String> row) {
+        if (row == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map.Entry<String, String> entry : row.entrySet()) {
+            size += ENTRY_BYTES + weigh(entry.getKey()) + weigh(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long weigh(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+
+    static class Cached {
+        private final Object value;
+        private final long weight;
+        private final long createdNanos;
+
+        Cached(Object value, long weight, long createdNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.createdNanos = createdNanos;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        long getWeight() {
+            return weight;
+        }
+
+        long getCreatedNanos() {
+            return createdNanos;
+        }
+    }
+}
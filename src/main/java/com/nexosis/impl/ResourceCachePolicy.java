@@ -0,0 +1,49 @@
+package com.nexosis.impl;
+
+/**
+ * Controls the in-memory cache of resources which can no longer change, kept by {@link ApiConnection}.
+ * <p>
+ * Once a session is {@code COMPLETED} its results, confusion matrix, feature importance scores and contest
+ * are fixed, and a model never changes after it is built. These are cached by URL, including the paging
+ * parameters, and later calls are answered without a request. A session response in any other state is
+ * never cached.
+ * <p>
+ * The cache is bounded by the approximate size of the cached rows in memory: the least recently used entries
+ * are evicted beyond {@code maxWeightBytes}, and an entry is dropped once it is older than {@code timeToLiveMillis}.
+ * Deleting a session or model through the client drops its cached entries. Cached instances are shared by every
+ * caller, so they should be treated as read only, and calls answered from the cache do not reach the
+ * http message transformer.
+ */
+public class ResourceCachePolicy {
+    private long maxWeightBytes = 64L * 1024 * 1024;
+    private long timeToLiveMillis = 60 * 60 * 1000;
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /**
+     * @param maxWeightBytes Approximate memory, in bytes, the cached resources may use. Defaults to 64MB.
+     */
+    public ResourceCachePolicy setMaxWeightBytes(long maxWeightBytes) {
+        if (maxWeightBytes < 1)
+            throw new IllegalArgumentException("maxWeightBytes must be at least 1.");
+        this.maxWeightBytes = maxWeightBytes;
+        return this;
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * @param timeToLiveMillis How long a resource is served from the cache before it is downloaded again.
+     *                         Defaults to one hour.
+     */
+    public ResourceCachePolicy setTimeToLiveMillis(long timeToLiveMillis) {
+        if (timeToLiveMillis < 1)
+            throw new IllegalArgumentException("timeToLiveMillis must be at least 1.");
+        this.timeToLiveMillis = timeToLiveMillis;
+        return this;
+    }
+}
@@ -0,0 +1,75 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the resource cache of a client.
+ */
+public class ResourceCacheStatistics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong weightBytes = new AtomicLong();
+
+    /**
+     * @return Number of calls answered from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of calls for cacheable resources which had to be sent to the API
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of resources evicted to keep the cache within its maximum weight
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Number of resources dropped because they outlived their time to live
+     */
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    /**
+     * @return Approximate memory, in bytes, used by the resources now in the cache
+     */
+    public long getWeightBytes() {
+        return weightBytes.get();
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    void recordExpiration() {
+        expirations.incrementAndGet();
+    }
+
+    void setWeightBytes(long weight) {
+        weightBytes.set(weight);
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceCacheStatistics{hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+                + ", expirations=" + getExpirations() + ", weightBytes=" + getWeightBytes() + "}";
+    }
+}
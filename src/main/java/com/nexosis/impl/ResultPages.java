@@ -0,0 +1,123 @@
+package com.nexosis.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.nexosis.ISessionClient;
+import com.nexosis.model.DistanceMetric;
+import com.nexosis.model.DistanceMetricResponse;
+import com.nexosis.model.FeatureImportanceResponse;
+import com.nexosis.model.Outlier;
+import com.nexosis.model.OutliersResponse;
+import com.nexosis.model.PagingInfo;
+import com.nexosis.model.SessionResponse;
+import com.nexosis.model.SessionResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * One of the paged results of a session, used with {@link ISessionClient#getResultPages} and
+ * {@link ISessionClient#getAllResults} to read every page of it.
+ * <p>
+ * Pages read this way bypass the resource and disk caches, which a whole result set would otherwise fill. They may
+ * still be instances shared by the validator cache, so the merged result is always a new object.
+ */
+public final class ResultPages<P extends SessionResponse> {
+    /**
+     * Pages of {@link ISessionClient#getResultAnomalyScores(UUID, PagingInfo) getResultAnomalyScores}.
+     */
+    public static final ResultPages<SessionResult> ANOMALY_SCORES = new ResultPages<>(SessionResult.class, "results/anomalyscores", ResultPages::mergeRows);
+
+    /**
+     * Pages of {@link ISessionClient#getResultClassScores(UUID, PagingInfo) getResultClassScores}.
+     */
+    public static final ResultPages<SessionResult> CLASS_SCORES = new ResultPages<>(SessionResult.class, "results/classscores", ResultPages::mergeRows);
+
+    /**
+     * Pages of {@link ISessionClient#getTimeseriesOutliers(UUID, PagingInfo) getTimeseriesOutliers}.
+     */
+    public static final ResultPages<OutliersResponse> OUTLIERS = new ResultPages<>(OutliersResponse.class, "results/outliers", (merged, pages) ->
+        merged.setData(pages.stream()
+                .filter(page -> page.getOutliers() != null)
+                .flatMap(page -> Arrays.stream(page.getOutliers()))
+                .toArray(Outlier[]::new)));
+
+    /**
+     * Pages of {@link ISessionClient#getDistanceMetrics(UUID, PagingInfo) getDistanceMetrics}.
+     */
+    public static final ResultPages<DistanceMetricResponse> DISTANCE_METRICS = new ResultPages<>(DistanceMetricResponse.class, "results/mahalanobisdistances", (merged, pages) ->
+        merged.setData(pages.stream()
+                .filter(page -> page.getData() != null)
+                .flatMap(page -> Arrays.stream(page.getData()))
+                .toArray(DistanceMetric[]::new)));
+
+    /**
+     * Pages of {@link ISessionClient#getFeatureImportanceScores(UUID, PagingInfo) getFeatureImportanceScores}.
+     */
+    public static final ResultPages<FeatureImportanceResponse> FEATURE_IMPORTANCE = new ResultPages<>(FeatureImportanceResponse.class, "results/featureimportance", (merged, pages) -> {
+        if (merged.getScores() != null) {
+            for (FeatureImportanceResponse page : pages.subList(1, pages.size())) {
+                if (page.getScores() != null) {
+                    merged.getScores().putAll(page.getScores());
+                }
+            }
+        }
+    });
+
+    private final Class<P> type;
+    private final String path;
+    private final BiConsumer<P, List<P>> merge;
+
+    private ResultPages(Class<P> type, String path, BiConsumer<P, List<P>> merge) {
+        this.type = type;
+        this.path = path;
+        this.merge = merge;
+    }
+
+    Class<P> getType() {
+        return type;
+    }
+
+    /**
+     * @return The path of the result relative to its session
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @param pages Every page in order, of which there is at least one
+     * @param mapper The mapper the pages were read with
+     * @return A copy of the first page holding the data of all of them
+     */
+    P merge(List<P> pages, ObjectMapper mapper) throws IOException {
+        TokenBuffer first = new TokenBuffer(mapper, false);
+        mapper.writeValue(first, pages.get(0));
+        P merged = mapper.readValue(first.asParser(), type);
+        merge.accept(merged, pages);
+        return merged;
+    }
+
+    /**
+     * @return The totalPages sent with a page, or 1 if there was none
+     */
+    static int totalPages(SessionResponse page) {
+        Object totalPages = page.getAdditionalProperties().get("totalPages");
+        return totalPages instanceof Number ? ((Number) totalPages).intValue() : 1;
+    }
+
+    private static void mergeRows(SessionResult merged, List<SessionResult> pages) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (SessionResult page : pages) {
+            if (page.getData() != null) {
+                rows.addAll(page.getData());
+            }
+        }
+        merged.setData(rows);
+    }
+}
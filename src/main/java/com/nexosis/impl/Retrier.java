@@ -0,0 +1,176 @@
+package com.nexosis.impl;
+
+import com.google.api.client.http.HttpContent;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequest;
+import com.nexosis.util.HttpMethod;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies a {@link RetryPolicy} to the requests of one client and keeps its retry budget and statistics.
+ */
+class Retrier {
+    private final static DateTimeFormatter HTTP_DATE = DateTimeFormat
+            .forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'")
+            .withZoneUTC()
+            .withLocale(Locale.US);
+
+    private final RetryPolicy policy;
+    private final RetryStatistics statistics;
+    private double budget;
+
+    Retrier(RetryPolicy policy, RetryStatistics statistics) {
+        this.policy = policy;
+        this.statistics = statistics;
+        this.budget = policy.getBudgetCapacity();
+    }
+
+    RetryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Called once before the first attempt of every request.
+     */
+    void onRequest() {
+        statistics.recordRequest();
+        synchronized (this) {
+            budget = Math.min(policy.getBudgetCapacity(), budget + policy.getBudgetRatio());
+        }
+    }
+
+    /**
+     * Called when an attempt returns a successful response.
+     *
+     * @param attempt The attempt which succeeded, starting at 1
+     */
+    void onSuccess(int attempt) {
+        if (attempt > 1) {
+            statistics.recordRecovered();
+        }
+    }
+
+    /**
+     * Decides whether a failed attempt should be retried.
+     *
+     * @param request    The request which failed
+     * @param attempt    The attempt which failed, starting at 1
+     * @param statusCode The HTTP status of the response, or 0 when no response was received
+     * @param headers    The headers of the response, or null when no response was received
+     * @param error      The IO error when no response was received
+     * @return The number of milliseconds to wait before retrying, or -1 to give up
+     */
+    long delayBeforeRetry(HttpRequest request, int attempt, int statusCode, HttpHeaders headers, IOException error) {
+        if (!isRetryable(request, statusCode, error)) {
+            return -1;
+        }
+
+        if (attempt >= policy.getMaxAttempts()) {
+            if (policy.getMaxAttempts() > 1) {
+                statistics.recordExhausted();
+            }
+            return -1;
+        }
+
+        long delay = retryAfterMillis(headers);
+        if (delay > policy.getMaxDelayMillis()) {
+            return -1;
+        }
+
+        synchronized (this) {
+            if (budget < 1) {
+                statistics.recordBudgetRejection();
+                return -1;
+            }
+            budget -= 1;
+        }
+
+        statistics.recordRetry();
+
+        if (delay < 0) {
+            long ceiling = Math.min(policy.getMaxDelayMillis(), policy.getBaseDelayMillis() << Math.min(attempt - 1, 30));
+            delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        }
+        return delay;
+    }
+
+    private boolean isRetryable(HttpRequest request, int statusCode, IOException error) {
+        HttpContent content = request.getContent();
+        if (content != null && !content.retrySupported()) {
+            // streamed bodies cannot be sent a second time
+            return false;
+        }
+
+        boolean idempotent = (isIdempotent(request.getRequestMethod()) && !(content instanceof AppendContent))
+                || policy.getRetryNonIdempotent();
+
+        if (error != null) {
+            if (error instanceof UnknownHostException || error instanceof SSLHandshakeException) {
+                return false;
+            }
+            // the request never left the client when the connection could not be made
+            return idempotent || error instanceof ConnectException || error instanceof ConnectTimeoutException;
+        }
+
+        if (!policy.getRetryStatusCodes().contains(statusCode)) {
+            return false;
+        }
+        // a throttled request was not processed by the server
+        return idempotent || statusCode == 429;
+    }
+
+    static boolean isIdempotent(String method) {
+        return HttpMethod.GET.value().equals(method)
+                || HttpMethod.HEAD.value().equals(method)
+                || HttpMethod.PUT.value().equals(method)
+                || HttpMethod.DELETE.value().equals(method);
+    }
+
+    /**
+     * @return The delay requested by a Retry-After header in milliseconds, or -1 if there is none.
+     */
+    static long retryAfterMillis(HttpHeaders headers) {
+        if (headers == null) {
+            return -1;
+        }
+
+        String retryAfter = headers.getFirstHeaderStringValue("Retry-After");
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException nfe) {
+            try {
+                DateTime retryAt = HTTP_DATE.parseDateTime(retryAfter);
+                return Math.max(0, retryAt.getMillis() - System.currentTimeMillis());
+            } catch (IllegalArgumentException iae) {
+                return -1;
+            }
+        }
+    }
+
+    static void sleep(long millis) throws NexosisClientException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new NexosisClientException("Interrupted while waiting to retry request.", ie);
+        }
+    }
+}
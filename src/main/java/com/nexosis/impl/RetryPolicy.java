@@ -0,0 +1,133 @@
+package com.nexosis.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Controls how {@link ApiConnection} retries requests that fail with a transient error.
+ * <p>
+ * Retries are delayed with exponential backoff and full jitter: the n-th retry waits a random time between
+ * zero and {@code min(maxDelay, baseDelay * 2^(n-1))}. A Retry-After header sent by the server takes
+ * precedence over the computed delay.
+ * <p>
+ * GET, HEAD, PUT and DELETE are retried on any of the retryable status codes and on connection errors.
+ * POST requests, such as creating a session, and the PUTs which append the chunks of a chunked upload are only
+ * retried when the server could not have processed them: a 429 response or a failure to connect. Set
+ * {@link #setRetryNonIdempotent(boolean)} to retry them in all cases.
+ * <p>
+ * Every request adds {@code budgetRatio} of a token to a retry budget, up to {@code budgetCapacity}, and
+ * every retry spends a whole token. When the budget is spent failures are returned without retrying, so
+ * retries cannot multiply the load on a service which is already failing.
+ */
+public class RetryPolicy {
+    private int maxAttempts = 3;
+    private long baseDelayMillis = 200;
+    private long maxDelayMillis = 20 * 1000;
+    private Set<Integer> retryStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+    private boolean retryNonIdempotent = false;
+    private double budgetRatio = 0.2;
+    private int budgetCapacity = 100;
+
+    /**
+     * @return A new policy which never retries. Each call returns its own instance, so changing one cannot turn
+     * retries on for other clients.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy().setMaxAttempts(1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param maxAttempts Total attempts for a request including the first one. Defaults to 3.
+     */
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    /**
+     * @param baseDelayMillis Upper bound of the delay before the first retry. Defaults to 200ms.
+     */
+    public RetryPolicy setBaseDelayMillis(long baseDelayMillis) {
+        this.baseDelayMillis = baseDelayMillis;
+        return this;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * @param maxDelayMillis Longest delay before any retry. A Retry-After longer than this is not waited
+     *                       for and the error is returned instead. Defaults to 20 seconds.
+     */
+    public RetryPolicy setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+        return this;
+    }
+
+    public Set<Integer> getRetryStatusCodes() {
+        return Collections.unmodifiableSet(retryStatusCodes);
+    }
+
+    /**
+     * @param retryStatusCodes HTTP status codes which are retried. Defaults to 429, 502, 503 and 504.
+     */
+    public RetryPolicy setRetryStatusCodes(Set<Integer> retryStatusCodes) {
+        this.retryStatusCodes = new HashSet<>(retryStatusCodes);
+        return this;
+    }
+
+    public boolean getRetryNonIdempotent() {
+        return retryNonIdempotent;
+    }
+
+    /**
+     * @param retryNonIdempotent true to retry POST requests and appended chunks on the same errors as other
+     *                           methods. Defaults to false.
+     */
+    public RetryPolicy setRetryNonIdempotent(boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+        return this;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @param budgetRatio Fraction of a retry earned by each request. Defaults to 0.2, allowing one retry for
+     *                    every five requests once the initial budget is spent.
+     */
+    public RetryPolicy setBudgetRatio(double budgetRatio) {
+        if (budgetRatio < 0)
+            throw new IllegalArgumentException("budgetRatio cannot be negative.");
+        this.budgetRatio = budgetRatio;
+        return this;
+    }
+
+    public int getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    /**
+     * @param budgetCapacity Most retries which can be saved up in the budget. Defaults to 100.
+     */
+    public RetryPolicy setBudgetCapacity(int budgetCapacity) {
+        if (budgetCapacity < 0)
+            throw new IllegalArgumentException("budgetCapacity cannot be negative.");
+        this.budgetCapacity = budgetCapacity;
+        return this;
+    }
+}
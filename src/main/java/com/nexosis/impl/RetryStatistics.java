@@ -0,0 +1,75 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the retries made by a client.
+ */
+public class RetryStatistics {
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong budgetRejections = new AtomicLong();
+
+    /**
+     * @return Number of requests made, not counting retries
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return Number of retries sent
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return Number of requests which succeeded after at least one retry
+     */
+    public long getRecovered() {
+        return recovered.get();
+    }
+
+    /**
+     * @return Number of requests which failed after using all of their attempts
+     */
+    public long getExhausted() {
+        return exhausted.get();
+    }
+
+    /**
+     * @return Number of retries which were not sent because the retry budget was spent
+     */
+    public long getBudgetRejections() {
+        return budgetRejections.get();
+    }
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordRecovered() {
+        recovered.incrementAndGet();
+    }
+
+    void recordExhausted() {
+        exhausted.incrementAndGet();
+    }
+
+    void recordBudgetRejection() {
+        budgetRejections.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryStatistics{requests=" + getRequests() + ", retries=" + getRetries() + ", recovered=" + getRecovered()
+                + ", exhausted=" + getExhausted() + ", budgetRejections=" + getBudgetRejections() + "}";
+    }
+}
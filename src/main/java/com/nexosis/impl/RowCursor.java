@@ -0,0 +1,313 @@
+package com.nexosis.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.api.client.http.HttpResponse;
+import com.nexosis.model.Columns;
+import com.nexosis.model.DataFrame;
+import com.nexosis.util.JacksonBindings;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads the rows of a data set or session result one at a time as the response body is downloaded, instead of
+ * loading the whole page into a list.
+ * <p>
+ * The fields of the response before its {@code data} array, including the {@code columns} metadata, are read
+ * when the cursor is opened. Each call to {@link #next()} then reads one row. By default every row is a new
+ * map; with {@link #setReuseRows(boolean)} the same row object is refilled by each call, so reading a page
+ * allocates little more than the values themselves. Values should then be read with {@code get}, since
+ * iterating over the row allocates an entry for each of them; {@link #readFrame()} reads the row directly.
+ * <p>
+ * The cursor holds the connection open until the last row is read or it is closed, so use it in a
+ * try-with-resources block:
+ * {@code
+ * try (RowCursor rows = client.getDataSets().getRows(new DataSetDataQuery("sales"))) {
+ *     while (rows.next()) {
+ *         String total = rows.getRow().get("total");
+ *     }
+ * }
+ * }
+ * A cursor is not thread-safe.
+ */
+public class RowCursor implements AutoCloseable {
+    private final HttpResponse response;
+    private final JsonParser parser;
+    private final JacksonBindings bindings;
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+    private Columns columns;
+    private boolean reuseRows;
+    private Row row;
+    private long rowCount;
+    private boolean exhausted;
+    private boolean closed;
+
+    RowCursor(HttpResponse response, JsonParser parser, JacksonBindings bindings) throws IOException {
+        this.response = response;
+        this.parser = parser;
+        this.bindings = bindings;
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object but found " + parser.getCurrentToken() + ".");
+        }
+        if (!readProperties()) {
+            finish();
+        }
+    }
+
+    /**
+     * @return The column metadata sent before the rows, or null if the response has none
+     */
+    public Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The other fields of the response, such as the session status or page number. Fields sent after
+     * the rows are added once the last row has been read.
+     */
+    public Map<String, Object> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    public boolean getReuseRows() {
+        return reuseRows;
+    }
+
+    /**
+     * @param reuseRows true to refill the same row object on each call to {@link #next()}, which the caller must
+     *                  then copy to keep. Defaults to false.
+     */
+    public RowCursor setReuseRows(boolean reuseRows) {
+        this.reuseRows = reuseRows;
+        return this;
+    }
+
+    /**
+     * Reads the next row, closing the cursor after the last one.
+     *
+     * @return true if a row was read, false when there are no more rows
+     * @throws NexosisClientException if the response cannot be read or is not valid JSON
+     */
+    public boolean next() throws NexosisClientException {
+        if (exhausted || closed) {
+            row = null;
+            return false;
+        }
+
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                row = null;
+                readProperties();
+                finish();
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a row object but found " + token + ".");
+            }
+
+            Row target = reuseRows && row != null ? row.reset() : new Row();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                // field names are canonicalized by the parser, so only the values are allocated
+                String name = parser.getCurrentName();
+                target.add(name, readValue(parser.nextToken()));
+            }
+            row = target;
+            rowCount++;
+            return true;
+        } catch (IOException ioe) {
+            close();
+            throw new NexosisClientException("IO Error while reading rows: " + ioe.getMessage(), ioe);
+        }
+    }
+
+    /**
+     * @return The row read by the last call to {@link #next()}
+     * @throws NoSuchElementException if there is no current row
+     */
+    public Map<String, String> getRow() {
+        if (row == null) {
+            throw new NoSuchElementException("There is no current row, call next() first.");
+        }
+        return row;
+    }
+
+    /**
+     * Reads the remaining rows into a frame, typed by the column metadata, without keeping a map per row.
+     *
+     * @return A frame of the rows not yet read
+     * @throws NexosisClientException if the response cannot be read or is not valid JSON
+     */
+    public DataFrame readFrame() throws NexosisClientException {
+        boolean reuse = reuseRows;
+        reuseRows = true;
+        try {
+            DataFrame.Builder builder = new DataFrame.Builder(columns);
+            while (next()) {
+                // read from the arrays of the row, since iterating over it as a map allocates an entry per value
+                builder.addRow(row.names, row.values, row.size);
+            }
+            return builder.build();
+        } finally {
+            reuseRows = reuse;
+        }
+    }
+
+    /**
+     * @return Number of rows read so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Releases the connection. Rows which have not been read are discarded.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            response.disconnect();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Reads top level fields until the start of the rows or the end of the response.
+     *
+     * @return true when positioned at the start of the rows
+     */
+    private boolean readProperties() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if ("data".equals(name) && token == JsonToken.START_ARRAY) {
+                return true;
+            } else if ("columns".equals(name) && token == JsonToken.START_OBJECT) {
+                columns = bindings.reader(Columns.class).readValue(parser);
+            } else if (token == JsonToken.VALUE_NULL) {
+                properties.put(name, null);
+            } else {
+                properties.put(name, bindings.reader(Object.class).readValue(parser));
+            }
+        }
+        return false;
+    }
+
+    private void finish() {
+        exhausted = true;
+        close();
+    }
+
+    private String readValue(JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        JsonNode node = bindings.reader(JsonNode.class).readValue(parser);
+        return node.toString();
+    }
+
+    /**
+     * One read-only row of a cursor, keeping its columns in the order they were read.
+     */
+    static final class Row extends AbstractMap<String, String> {
+        private String[] names = new String[16];
+        private String[] values = new String[16];
+        private int size;
+
+        Row reset() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+            return this;
+        }
+
+        void add(String name, String value) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = name;
+            values[size] = value;
+            size++;
+        }
+
+        private int indexOf(Object name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String get(Object name) {
+            int index = indexOf(name);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return indexOf(name) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (next >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(names[next], values[next]);
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.nexosis.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.api.client.http.AbstractHttpContent;
+import com.google.api.client.json.Json;
+import com.nexosis.model.Columns;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes a data set body of {@code columns} and {@code data} while its rows are produced, so the request is sent
+ * with chunked transfer encoding and neither the rows nor the serialized body are held in memory.
+ */
+class RowsContent extends AbstractHttpContent {
+    private final JsonFactory factory;
+    private final ObjectWriter columnsWriter;
+    private final Columns columns;
+    private final Consumer<Consumer<Map<String, String>>> rows;
+
+    RowsContent(JsonFactory factory, ObjectWriter columnsWriter, Columns columns, Consumer<Consumer<Map<String, String>>> rows) {
+        super(Json.MEDIA_TYPE);
+        this.factory = factory;
+        this.columnsWriter = columnsWriter;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * @return -1, since the length is not known until the last row is written
+     */
+    @Override
+    public long getLength() {
+        return -1;
+    }
+
+    /**
+     * @return false, since the rows can only be produced once
+     */
+    @Override
+    public boolean retrySupported() {
+        return false;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        final JsonGenerator generator = factory.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        if (columns != null) {
+            generator.writeFieldName("columns");
+            columnsWriter.writeValue(generator, columns);
+        }
+        generator.writeArrayFieldStart("data");
+        try {
+            rows.accept(row -> {
+                try {
+                    writeRow(generator, row);
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            });
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private void writeRow(JsonGenerator generator, Map<String, String> row) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, String> value : row.entrySet()) {
+            generator.writeStringField(value.getKey(), value.getValue());
+        }
+        generator.writeEndObject();
+    }
+}
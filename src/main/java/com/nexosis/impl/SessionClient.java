@@ -8,9 +8,15 @@ import com.nexosis.ISessionClient;
 import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.nexosis.util.NexosisHeaders.NEXOSIS_SESSION_STATUS;
 
@@ -146,7 +152,7 @@ public class SessionClient implements ISessionClient {
             throw new IllegalArgumentException("Content Type cannot be set to CSV unless you are writing it to a file. Use ISessionClient.getResults(SessionResultQuery query, OutputStream output).");
         }
 
-        return apiConnection.get(SessionResult.class, "/sessions/"+ query.getSessionId().toString() + "/results", null, this.httpMessageTransformer);
+        return apiConnection.getImmutable(SessionResult.class, "/sessions/"+ query.getSessionId().toString() + "/results", null, this.httpMessageTransformer, query.getSessionId());
     }
 
     /**
@@ -160,13 +166,48 @@ public class SessionClient implements ISessionClient {
         return apiConnection.get(ReturnsStatus.class, "sessions/" + query.getSessionId().toString() + "/results", null, httpMessageTransformer, output, query.getContentType());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FileDownload downloadResults(SessionResultQuery query, Path target) throws NexosisClientException {
+        Argument.IsNotNull(query, "query");
+        Argument.IsNotNull(target, "target");
+
+        return apiConnection.download("sessions/" + query.getSessionId().toString() + "/results", null, httpMessageTransformer, target, query.getContentType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RowCursor getResultRows(SessionResultQuery query) throws NexosisClientException {
+        Argument.IsNotNull(query, "query");
+
+        if (query.getContentType() != Json.MEDIA_TYPE) {
+            throw new IllegalArgumentException("Content Type cannot be set to CSV unless you are writing it to a file. Use ISessionClient.getResults(SessionResultQuery query, OutputStream output).");
+        }
+
+        return apiConnection.getRows("sessions/" + query.getSessionId().toString() + "/results", query.toParameters(), this.httpMessageTransformer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataFrame getResultFrame(SessionResultQuery query) throws NexosisClientException {
+        try (RowCursor cursor = getResultRows(query)) {
+            return cursor.readFrame();
+        }
+    }
+
     /**
      /**
      * {@inheritDoc}
      */
     @Override
     public ConfusionMatrixResponse getConfusionMatrix(UUID id) throws NexosisClientException {
-        return apiConnection.get(ConfusionMatrixResponse.class, "sessions/" + id.toString() + "/results/confusionmatrix", null, null);
+        return apiConnection.getImmutable(ConfusionMatrixResponse.class, "sessions/" + id.toString() + "/results/confusionmatrix", null, null);
     }
 
     /**
@@ -176,7 +217,7 @@ public class SessionClient implements ISessionClient {
     public SessionResult getResultAnomalyScores(UUID id, PagingInfo pagingInfo) throws NexosisClientException {
         if(pagingInfo == null)
                 pagingInfo = PagingInfo.Default;
-        return apiConnection.get(SessionResult.class, "/sessions/" + id.toString() + "/results/anomalyscores", pagingInfo.toParameters(), this.httpMessageTransformer);
+        return apiConnection.getImmutable(SessionResult.class, "/sessions/" + id.toString() + "/results/anomalyscores", pagingInfo.toParameters(), this.httpMessageTransformer, id);
     }
 
     /**
@@ -186,7 +227,7 @@ public class SessionClient implements ISessionClient {
     public SessionResult getResultClassScores(UUID id, PagingInfo pagingInfo) throws NexosisClientException {
         if(pagingInfo == null)
             pagingInfo = PagingInfo.Default;
-        return apiConnection.get(SessionResult.class, "/sessions/" + id.toString() + "/results/classscores", pagingInfo.toParameters(), this.httpMessageTransformer);
+        return apiConnection.getImmutable(SessionResult.class, "/sessions/" + id.toString() + "/results/classscores", pagingInfo.toParameters(), this.httpMessageTransformer, id);
     }
 
     /**
@@ -216,8 +257,218 @@ public class SessionClient implements ISessionClient {
     public FeatureImportanceResponse getFeatureImportanceScores(UUID id, PagingInfo pagingInfo) throws NexosisClientException {
         if(pagingInfo == null)
             pagingInfo = PagingInfo.Default;
-        return apiConnection.get(FeatureImportanceResponse.class, "/sessions/" + id.toString() + "/results/featureimportance", pagingInfo.toParameters(), this.httpMessageTransformer);
+        return apiConnection.getImmutable(FeatureImportanceResponse.class, "/sessions/" + id.toString() + "/results/featureimportance", pagingInfo.toParameters(), this.httpMessageTransformer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <P extends SessionResponse> PageIterator<P> getResultPages(UUID id, final ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy) throws NexosisClientException {
+        Argument.IsNotNull(id, "id");
+        Argument.IsNotNull(results, "results");
+        Argument.IsNotNull(policy, "PrefetchPolicy");
+        if(pagingInfo == null)
+            pagingInfo = PagingInfo.Default;
+
+        final String path = "sessions/" + id.toString() + "/" + results.getPath();
+        final Map<String, Object> parameters = pagingInfo.toParameters();
+        Object firstPage = parameters.get("page");
+
+        return new PageIterator<>(pageNumber -> {
+            Map<String, Object> pageParameters = new HashMap<>(parameters);
+            pageParameters.put("page", pageNumber);
+            return apiConnection.get(results.getType(), path, pageParameters, this.httpMessageTransformer);
+        }, ResultPages::totalPages, firstPage == null ? 0 : (Integer) firstPage, apiConnection.getExecutor(), policy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <P extends SessionResponse> P getAllResults(UUID id, ResultPages<P> results, PagingInfo pagingInfo, PrefetchPolicy policy) throws NexosisClientException {
+        try (PageIterator<P> pages = getResultPages(id, results, pagingInfo, policy)) {
+            List<P> all = new ArrayList<>();
+            pages.forEachRemaining(all::add);
+            return results.merge(all, apiConnection.getObjectMapper());
+        } catch (UncheckedClientException uce) {
+            throw uce.getCause();
+        } catch (IOException ioe) {
+            throw new NexosisClientException("Error while merging the pages of " + results.getPath() + ": " + ioe.getMessage(), ioe);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResponse> createForecastAsync(final ForecastSessionRequest request) {
+        return apiConnection.submit(() -> createForecast(request));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResponse> analyzeImpactAsync(final ImpactSessionRequest request) {
+        return apiConnection.submit(() -> analyzeImpact(request));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResponse> trainModelAsync(final ModelSessionRequest request) {
+        return apiConnection.submit(() -> trainModel(request));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResponses> listAsync(final SessionQuery query) {
+        return apiConnection.submit(() -> list(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removeAsync(final SessionRemoveCriteria criteria) {
+        return apiConnection.submit(() -> {
+            remove(criteria);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removeAsync(final UUID id) {
+        return apiConnection.submit(() -> {
+            remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResponse> getAsync(final UUID id) {
+        return apiConnection.submit(() -> get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResultStatus> getStatusAsync(final UUID id) {
+        return apiConnection.submit(() -> getStatus(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResult> getResultsAsync(final SessionResultQuery query) {
+        return apiConnection.submit(() -> getResults(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ReturnsStatus> getResultsAsync(final SessionResultQuery query, final OutputStream output) {
+        return apiConnection.submit(() -> getResults(query, output));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<FileDownload> downloadResultsAsync(final SessionResultQuery query, final Path target) {
+        return apiConnection.submit(() -> downloadResults(query, target));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<RowCursor> getResultRowsAsync(final SessionResultQuery query) {
+        return apiConnection.submit(() -> getResultRows(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DataFrame> getResultFrameAsync(final SessionResultQuery query) {
+        return apiConnection.submit(() -> getResultFrame(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ConfusionMatrixResponse> getConfusionMatrixAsync(final UUID id) {
+        return apiConnection.submit(() -> getConfusionMatrix(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResult> getResultAnomalyScoresAsync(final UUID id, final PagingInfo pagingInfo) {
+        return apiConnection.submit(() -> getResultAnomalyScores(id, pagingInfo));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SessionResult> getResultClassScoresAsync(final UUID id, final PagingInfo pagingInfo) {
+        return apiConnection.submit(() -> getResultClassScores(id, pagingInfo));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<OutliersResponse> getTimeseriesOutliersAsync(final UUID id, final PagingInfo pagingInfo) {
+        return apiConnection.submit(() -> getTimeseriesOutliers(id, pagingInfo));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<DistanceMetricResponse> getDistanceMetricsAsync(final UUID id, final PagingInfo pagingInfo) {
+        return apiConnection.submit(() -> getDistanceMetrics(id, pagingInfo));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<FeatureImportanceResponse> getFeatureImportanceScoresAsync(final UUID id, final PagingInfo pagingInfo) {
+        return apiConnection.submit(() -> getFeatureImportanceScores(id, pagingInfo));
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <P extends SessionResponse> CompletableFuture<PageIterator<P>> getResultPagesAsync(final UUID id, final ResultPages<P> results, final PagingInfo pagingInfo, final PrefetchPolicy policy) {
+        return apiConnection.submit(() -> getResultPages(id, results, pagingInfo, policy));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <P extends SessionResponse> CompletableFuture<P> getAllResultsAsync(final UUID id, final ResultPages<P> results, final PagingInfo pagingInfo, final PrefetchPolicy policy) {
+        return apiConnection.submit(() -> getAllResults(id, results, pagingInfo, policy));
+    }
 }
@@ -0,0 +1,16 @@
+package com.nexosis.impl;
+
+/**
+ * Wraps a {@link NexosisClientException} thrown where only unchecked exceptions can be, such as from an
+ * {@link java.util.Iterator} or a {@link java.util.stream.Stream}.
+ */
+public class UncheckedClientException extends RuntimeException {
+    public UncheckedClientException(NexosisClientException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized NexosisClientException getCause() {
+        return (NexosisClientException) super.getCause();
+    }
+}
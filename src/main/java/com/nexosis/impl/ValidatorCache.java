@@ -0,0 +1,105 @@
+package com.nexosis.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of parsed GET responses and their validators, bounded by their number and their
+ * approximate size in memory and applying a {@link ValidatorCachePolicy}.
+ */
+class ValidatorCache {
+    private final ValidatorCachePolicy policy;
+    private final ValidatorCacheStatistics statistics;
+    private final LinkedHashMap<String, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    ValidatorCache(final ValidatorCachePolicy policy, final ValidatorCacheStatistics statistics) {
+        this.policy = policy;
+        this.statistics = statistics;
+    }
+
+    ValidatorCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return true if responses parsed as the type may be cached
+     */
+    boolean caches(Class<?> type) {
+        return !policy.getExcludedTypes().contains(type);
+    }
+
+    synchronized Cached get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches a response if it carries a validator and fits in the cache, evicting the least recently used
+     * responses to make room for it. Otherwise drops any earlier response for the key.
+     */
+    synchronized void put(String key, String etag, String lastModified, Object value) {
+        remove(key);
+        if (etag == null && lastModified == null) {
+            return;
+        }
+
+        long size = ResourceCache.weigh(value);
+        if (size > policy.getMaxWeightBytes()) {
+            return;
+        }
+
+        entries.put(key, new Cached(etag, lastModified, value, size));
+        weight += size;
+
+        Iterator<Map.Entry<String, Cached>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > policy.getMaxEntries() || weight > policy.getMaxWeightBytes()) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().getWeight();
+            eldest.remove();
+            statistics.recordEviction();
+        }
+        statistics.setWeightBytes(weight);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Cached removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.getWeight();
+            statistics.setWeightBytes(weight);
+        }
+    }
+
+    static class Cached {
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+        private final long weight;
+
+        Cached(String etag, String lastModified, Object value, long weight) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        long getWeight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.nexosis.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Controls the cache of GET responses {@link ApiConnection} revalidates with {@code If-None-Match} and
+ * {@code If-Modified-Since}.
+ * <p>
+ * Objects parsed from a response which carries an {@code ETag} or {@code Last-Modified} header are kept with
+ * those validators. The next GET of the same URL sends them as conditional headers, and when the API answers
+ * 304 Not Modified the cached instance is returned without downloading or parsing the body again. The cached
+ * instance is shared by every caller, so it should be treated as read only.
+ * <p>
+ * The least recently used entries are evicted beyond {@code maxEntries}, or once the approximate size of the
+ * cached objects in memory passes {@code maxWeightBytes}. A response larger than {@code maxWeightBytes} on its
+ * own, such as a large page of rows, is not cached.
+ */
+public class ValidatorCachePolicy {
+    private int maxEntries = 1000;
+    private long maxWeightBytes = 64L * 1024 * 1024;
+    private final Set<Class<?>> excludedTypes = new HashSet<>();
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @param maxEntries Most responses kept in the cache. Defaults to 1000.
+     */
+    public ValidatorCachePolicy setMaxEntries(int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be at least 1.");
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /**
+     * @param maxWeightBytes Approximate memory, in bytes, the cached responses may use. Defaults to 64MB.
+     */
+    public ValidatorCachePolicy setMaxWeightBytes(long maxWeightBytes) {
+        if (maxWeightBytes < 1)
+            throw new IllegalArgumentException("maxWeightBytes must be at least 1.");
+        this.maxWeightBytes = maxWeightBytes;
+        return this;
+    }
+
+    public Set<Class<?>> getExcludedTypes() {
+        return Collections.unmodifiableSet(excludedTypes);
+    }
+
+    /**
+     * @param type A response type, such as {@code DataSetList.class}, which is always downloaded in full and never cached
+     */
+    public ValidatorCachePolicy exclude(Class<?> type) {
+        excludedTypes.add(type);
+        return this;
+    }
+}
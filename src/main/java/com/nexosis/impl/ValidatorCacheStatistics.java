@@ -0,0 +1,75 @@
+package com.nexosis.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the conditional GET requests made by a client.
+ */
+public class ValidatorCacheStatistics {
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong conditionalRequests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong weightBytes = new AtomicLong();
+
+    /**
+     * @return Number of GET requests for cacheable types
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return Number of requests sent with the validators of a cached response
+     */
+    public long getConditionalRequests() {
+        return conditionalRequests.get();
+    }
+
+    /**
+     * @return Number of requests answered with 304 Not Modified and served from the cache
+     */
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * @return Number of responses evicted to keep the cache within its maximum size or weight
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Approximate memory, in bytes, used by the responses now in the cache
+     */
+    public long getWeightBytes() {
+        return weightBytes.get();
+    }
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordConditionalRequest() {
+        conditionalRequests.incrementAndGet();
+    }
+
+    void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    void setWeightBytes(long weight) {
+        weightBytes.set(weight);
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatorCacheStatistics{requests=" + getRequests() + ", conditionalRequests=" + getConditionalRequests()
+                + ", notModified=" + getNotModified() + ", evictions=" + getEvictions() + ", weightBytes=" + getWeightBytes() + "}";
+    }
+}
@@ -7,6 +7,7 @@ import com.nexosis.model.*;
 import com.nexosis.util.Action;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ViewClient implements IViewClient {
     private ApiConnection apiConnection;
@@ -70,4 +71,39 @@ public class ViewClient implements IViewClient {
         Map<String,Object> parameters = criteria.toParameters();
         apiConnection.delete("views/" + criteria.getName(), parameters, this.httpMessageTransformer);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ViewDefinitionList> listAsync(final ViewQuery viewQuery) {
+        return apiConnection.submit(() -> list(viewQuery));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ViewDetail> getAsync(final ViewDataQuery query) {
+        return apiConnection.submit(() -> get(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ViewDefinition> createAsync(final String viewName, final ViewInfo view) {
+        return apiConnection.submit(() -> create(viewName, view));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> removeAsync(final ViewDeleteCriteria criteria) {
+        return apiConnection.submit(() -> {
+            remove(criteria);
+            return null;
+        });
+    }
 }
@@ -0,0 +1,563 @@
+package com.nexosis.model;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rows of data stored by column, as an alternative to the {@code List<Map<String, String>>} of
+ * {@link DataSetData}, {@link SessionResult}, {@link ModelPredictionResult} and {@link DataSetDetail}.
+ * <p>
+ * The type of each column comes from its {@link ColumnsProperty} metadata. Numeric columns are stored as
+ * {@code double[]}, date columns as {@code long[]} milliseconds since the epoch, and all other columns as
+ * dictionary codes into the distinct strings of the column. Missing values are kept in a bitmap. A column
+ * with no metadata is stored as strings, and a numeric or date column holding a value which cannot be parsed
+ * falls back to strings.
+ * <p>
+ * Converting back to rows with {@link #toRows()} leaves out missing values. Numbers are written in their
+ * shortest form, so "1.50" is returned as "1.5", and dates are written in ISO 8601 format in UTC, with
+ * milliseconds only when they are not zero.
+ * <p>
+ * A frame is not modified once built and can be read by several threads.
+ */
+public class DataFrame {
+    private final List<Column> columns;
+    private final Map<String, Column> columnsByName;
+    private final int rowCount;
+
+    private DataFrame(List<Column> columns, int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowCount = rowCount;
+        // the API ignores case on column names
+        this.columnsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Column column : columns) {
+            columnsByName.put(column.getName(), column);
+        }
+    }
+
+    /**
+     * @param metadata The column metadata of the rows, or null to store every column as strings
+     * @param rows     Rows of column names and values
+     * @return A frame holding the rows
+     */
+    public static DataFrame fromRows(Columns metadata, List<Map<String, String>> rows) {
+        Builder builder = new Builder(metadata);
+        if (rows != null) {
+            for (Map<String, String> row : rows) {
+                builder.addRow(row);
+            }
+        }
+        return builder.build();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The column with the name, ignoring case, or null if there is none
+     */
+    public Column getColumn(String name) {
+        return columnsByName.get(name);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no numeric column with the name
+     */
+    public NumericColumn getNumericColumn(String name) {
+        return typed(name, NumericColumn.class);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no date column with the name
+     */
+    public DateColumn getDateColumn(String name) {
+        return typed(name, DateColumn.class);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no string column with the name
+     */
+    public StringColumn getStringColumn(String name) {
+        return typed(name, StringColumn.class);
+    }
+
+    private <T extends Column> T typed(String name, Class<T> type) {
+        Column column = getColumn(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("There is no " + type.getSimpleName() + " named " + name + ".");
+        }
+        return type.cast(column);
+    }
+
+    /**
+     * @return An estimate of the memory used by the values of the frame
+     */
+    public long getSizeBytes() {
+        long bytes = 0;
+        for (Column column : columns) {
+            bytes += column.getSizeBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return The frame as rows of column names and values, without the missing values
+     */
+    public List<Map<String, String>> toRows() {
+        List<Map<String, String>> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Column column : columns) {
+                if (!column.isMissing(row)) {
+                    values.put(column.getName(), column.getString(row));
+                }
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "DataFrame{rows=" + rowCount + ", columns=" + columns + "}";
+    }
+
+    /**
+     * Decodes rows into a frame one at a time, so rows read from a cursor never need to be kept.
+     */
+    public static class Builder {
+        private final Map<String, ColumnsProperty> metadata = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+        private int rowCount;
+        private boolean built;
+
+        /**
+         * @param metadata The column metadata of the rows, or null to store every column as strings
+         */
+        public Builder(Columns metadata) {
+            if (metadata != null && metadata.getsetColumnMetadata() != null) {
+                this.metadata.putAll(metadata.getsetColumnMetadata());
+            }
+        }
+
+        /**
+         * Appends a row. Columns missing from the row are stored as missing values, and a column first seen in a
+         * later row is missing in the rows before it.
+         *
+         * @param row Column names and values, which are copied so the map can be reused
+         */
+        public Builder addRow(Map<String, String> row) {
+            if (built) {
+                throw new IllegalStateException("The frame has already been built.");
+            }
+            for (Map.Entry<String, String> value : row.entrySet()) {
+                addValue(value.getKey(), value.getValue());
+            }
+            return endRow();
+        }
+
+        /**
+         * Appends a row held in parallel arrays, as {@link #addRow(Map)} does without going through a map.
+         *
+         * @param names  Column names, of which the first {@code count} are read
+         * @param values Values of the columns in the same order, which may be reused once this returns
+         * @param count  Number of values in the row
+         */
+        public Builder addRow(String[] names, String[] values, int count) {
+            if (built) {
+                throw new IllegalStateException("The frame has already been built.");
+            }
+            for (int i = 0; i < count; i++) {
+                addValue(names[i], values[i]);
+            }
+            return endRow();
+        }
+
+        private void addValue(String name, String value) {
+            Column column = columns.get(name);
+            if (column == null) {
+                column = create(name);
+                column.fill(rowCount);
+                columns.put(name, column);
+            }
+            if (column.size > rowCount) {
+                // the same column name twice in a row keeps the first value
+                return;
+            }
+            try {
+                column.append(value);
+            } catch (IllegalArgumentException iae) {
+                column = new StringColumn(column);
+                columns.put(name, column);
+                column.append(value);
+            }
+        }
+
+        private Builder endRow() {
+            rowCount++;
+            for (Column column : columns.values()) {
+                column.fill(rowCount);
+            }
+            return this;
+        }
+
+        public DataFrame build() {
+            built = true;
+            List<Column> frameColumns = new ArrayList<>(columns.size());
+            for (Column column : columns.values()) {
+                column.trim();
+                frameColumns.add(column);
+            }
+            return new DataFrame(frameColumns, rowCount);
+        }
+
+        private Column create(String name) {
+            ColumnsProperty property = metadata.get(name);
+            DataType dataType = property == null ? null : property.getDataType();
+            if (dataType == DataType.NUMERIC || dataType == DataType.NUMERICMEASURE) {
+                return new NumericColumn(name, dataType);
+            }
+            if (dataType == DataType.DATE) {
+                return new DateColumn(name);
+            }
+            return new StringColumn(name, dataType == null ? DataType.STRING : dataType);
+        }
+    }
+
+    /**
+     * The values of one column of a frame.
+     */
+    public abstract static class Column {
+        private final String name;
+        private final DataType dataType;
+        private long[] missing = new long[1];
+        int size;
+
+        Column(String name, DataType dataType) {
+            this.name = name;
+            this.dataType = dataType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataType getDataType() {
+            return dataType;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isMissing(int row) {
+            checkRow(row);
+            return (missing[row >>> 6] & (1L << row)) != 0;
+        }
+
+        public int getMissingCount() {
+            int count = 0;
+            for (long word : missing) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * @return The value as text, or null if it is missing
+         */
+        public abstract String getString(int row);
+
+        public long getSizeBytes() {
+            return missing.length * 8L;
+        }
+
+        /**
+         * Stores a value in a row which has already been allocated.
+         *
+         * @return false if the value is missing
+         * @throws IllegalArgumentException if the value cannot be stored in this type of column
+         */
+        abstract boolean store(int row, String value);
+
+        abstract void resize(int capacity);
+
+        abstract int capacity();
+
+        void append(String value) {
+            if (size == capacity()) {
+                resize(Math.max(16, size * 2));
+            }
+            if (value == null || !store(size, value)) {
+                setMissing(size);
+            }
+            size++;
+        }
+
+        /**
+         * Pads the column with missing values up to the row count.
+         */
+        void fill(int rows) {
+            while (size < rows) {
+                append(null);
+            }
+        }
+
+        void trim() {
+            resize(size);
+            missing = Arrays.copyOf(missing, Math.max(1, (size + 63) >>> 6));
+        }
+
+        void checkRow(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size + ".");
+            }
+        }
+
+        private void setMissing(int row) {
+            int word = row >>> 6;
+            if (word >= missing.length) {
+                missing = Arrays.copyOf(missing, Math.max(word + 1, missing.length * 2));
+            }
+            missing[word] |= 1L << row;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + dataType;
+        }
+    }
+
+    /**
+     * A numeric column. Missing values are stored as {@link Double#NaN}.
+     */
+    public static class NumericColumn extends Column {
+        private double[] values = new double[0];
+
+        NumericColumn(String name, DataType dataType) {
+            super(name, dataType);
+        }
+
+        public double getDouble(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * @return The values of the column, which must not be modified
+         */
+        public double[] getValues() {
+            return values;
+        }
+
+        @Override
+        public String getString(int row) {
+            if (isMissing(row)) {
+                return null;
+            }
+            double value = values[row];
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return Long.toString((long) value);
+            }
+            return Double.toString(value);
+        }
+
+        @Override
+        public long getSizeBytes() {
+            return super.getSizeBytes() + values.length * 8L;
+        }
+
+        @Override
+        boolean store(int row, String value) {
+            if (value.isEmpty()) {
+                values[row] = Double.NaN;
+                return false;
+            }
+            values[row] = Double.parseDouble(value);
+            return true;
+        }
+
+        @Override
+        void append(String value) {
+            super.append(value);
+            if (value == null) {
+                values[size - 1] = Double.NaN;
+            }
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+    }
+
+    /**
+     * A date column holding milliseconds since the epoch. Missing values are stored as 0.
+     */
+    public static class DateColumn extends Column {
+        private final static DateTimeFormatter PARSER = ISODateTimeFormat.dateTimeParser().withOffsetParsed();
+        private final static DateTimeFormatter PRINTER = ISODateTimeFormat.dateTime().withZoneUTC();
+        private final static DateTimeFormatter SECONDS_PRINTER = ISODateTimeFormat.dateTimeNoMillis().withZoneUTC();
+        private long[] values = new long[0];
+
+        DateColumn(String name) {
+            super(name, DataType.DATE);
+        }
+
+        public long getMillis(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * @return The values of the column, which must not be modified
+         */
+        public long[] getValues() {
+            return values;
+        }
+
+        @Override
+        public String getString(int row) {
+            if (isMissing(row)) {
+                return null;
+            }
+            long millis = values[row];
+            return millis % 1000 == 0 ? SECONDS_PRINTER.print(millis) : PRINTER.print(millis);
+        }
+
+        @Override
+        public long getSizeBytes() {
+            return super.getSizeBytes() + values.length * 8L;
+        }
+
+        @Override
+        boolean store(int row, String value) {
+            if (value.isEmpty()) {
+                return false;
+            }
+            values[row] = PARSER.parseMillis(value);
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+    }
+
+    /**
+     * A column of strings, each row holding the code of its value in the dictionary of distinct values.
+     */
+    public static class StringColumn extends Column {
+        private int[] codes = new int[0];
+        private String[] dictionary = new String[16];
+        private int dictionarySize;
+        private Map<String, Integer> lookup = new HashMap<>();
+
+        StringColumn(String name, DataType dataType) {
+            super(name, dataType);
+        }
+
+        /**
+         * Copies a column which could not hold one of its values.
+         */
+        StringColumn(Column source) {
+            super(source.getName(), source.getDataType());
+            for (int row = 0; row < source.size(); row++) {
+                append(source.getString(row));
+            }
+        }
+
+        /**
+         * @return The dictionary code of the value, or -1 if it is missing
+         */
+        public int getCode(int row) {
+            checkRow(row);
+            return isMissing(row) ? -1 : codes[row];
+        }
+
+        /**
+         * @return The codes of the values of the column, which must not be modified
+         */
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /**
+         * @return The distinct values of the column in the order they were first seen
+         */
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(Arrays.asList(dictionary).subList(0, dictionarySize));
+        }
+
+        @Override
+        public String getString(int row) {
+            return isMissing(row) ? null : dictionary[codes[row]];
+        }
+
+        @Override
+        public long getSizeBytes() {
+            long bytes = super.getSizeBytes() + codes.length * 4L + dictionary.length * 8L;
+            for (int i = 0; i < dictionarySize; i++) {
+                bytes += 40 + dictionary[i].length() * 2L;
+            }
+            return bytes;
+        }
+
+        @Override
+        boolean store(int row, String value) {
+            Integer code = lookup.get(value);
+            if (code == null) {
+                if (dictionarySize == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+                }
+                code = dictionarySize;
+                dictionary[dictionarySize++] = value;
+                lookup.put(value, code);
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        @Override
+        void resize(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return codes.length;
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            dictionary = Arrays.copyOf(dictionary, dictionarySize);
+            // only needed while values are added
+            lookup = null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nexosis.model;
+
+import java.nio.file.Path;
+
+/**
+ *  Put data into a DataSet from a CSV or JSON file, or from a byte range of one. The file is read again if the
+ *  request is retried, and the request is sent with a known Content-Length.
+ *  <p>
+ *  A range after the start of a CSV file is sent after the file's header line, given by {@code headerLength},
+ *  so that each range can be appended to the data set on its own. Use DataSet.From to upload a whole file and
+ *  DataSet.split to divide a large CSV file into ranges on line boundaries.
+ */
+public class DataSetFileSource implements IDataSetSource {
+    private final String name;
+    private final Path path;
+    private final long position;
+    private final long length;
+    private final long headerLength;
+    private String contentType = "text/csv";
+
+    /**
+     * @param name         The DataSet name
+     * @param path         The file holding the data
+     * @param position     Offset in the file of the first byte to send
+     * @param length       Number of bytes to send from the position
+     * @param headerLength Number of bytes at the start of the file sent before the range, or 0
+     */
+    public DataSetFileSource(String name, Path path, long position, long length, long headerLength) {
+        if (position < 0 || length < 0 || headerLength < 0)
+            throw new IllegalArgumentException("position, length and headerLength cannot be negative.");
+        if (headerLength > position)
+            throw new IllegalArgumentException("The header cannot overlap the range.");
+        this.name = name;
+        this.path = path;
+        this.position = position;
+        this.length = length;
+        this.headerLength = headerLength;
+    }
+
+    /**
+     *
+     * @return The DataSet name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The file holding the data
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return Offset in the file of the first byte sent
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return Number of bytes sent from the position
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return Number of bytes at the start of the file sent before the range
+     */
+    public long getHeaderLength() {
+        return headerLength;
+    }
+
+    /**
+     *
+     * @return The content type of the file, text/csv by default
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     *
+     * @param contentType text/csv or application/json
+     */
+    public void setContentType(String contentType) throws IllegalArgumentException {
+        if (!contentType.equalsIgnoreCase("text/csv") && !contentType.startsWith("application/json")) {
+            throw new IllegalArgumentException("contentType must be set to text/csv or application/json");
+        }
+
+        this.contentType = contentType;
+    }
+}
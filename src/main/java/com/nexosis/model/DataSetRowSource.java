@@ -0,0 +1,51 @@
+package com.nexosis.model;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ *  Put data into a DataSet from rows which are produced while the request is being sent, so the rows never
+ *  have to be held in memory together. Use DataSet.From to create one from an Iterator, a Stream or a
+ *  callback.
+ *  <p>
+ *  The rows are read once, so the request is not retried if it fails.
+ */
+public class DataSetRowSource implements IDataSetSource {
+    private final String name;
+    private final Columns columns;
+    private final Consumer<Consumer<Map<String, String>>> rows;
+
+    /**
+     * @param name    The DataSet name
+     * @param columns Metadata about each column, or null to let the API infer it
+     * @param rows    Called on the thread sending the request with a consumer to pass each row to in turn
+     */
+    public DataSetRowSource(String name, Columns columns, Consumer<Consumer<Map<String, String>>> rows) {
+        this.name = name;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Get the DataSet name
+     * @return The DataSet name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Metadata about each column, or null
+     */
+    public Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The callback producing the rows
+     */
+    public Consumer<Consumer<Map<String, String>>> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nexosis.model;
+
+import java.nio.file.Path;
+
+/**
+ * The outcome of writing a data set or session result to a file, with the rate it was downloaded at.
+ * <p>
+ * When session results are not complete the session status is set and the file is left as it was.
+ */
+public class FileDownload extends ReturnsStatus {
+    private final Path path;
+    private boolean written;
+    private long bytes;
+    private long elapsedNanos;
+
+    public FileDownload(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return The file the response was written to
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return true if the file was replaced with the response, false if the results were not ready
+     */
+    public boolean isWritten() {
+        return written;
+    }
+
+    /**
+     * @return Number of bytes written to the file, which are still compressed if compressed downloads are passed
+     * through
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Time from the start of the response body until the file was in place, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * @return Average rate the body was written at, or 0 if nothing was written
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+    }
+
+    public void setWritten(long bytes, long elapsedNanos) {
+        this.written = true;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nexosis.util;
+
+import com.google.api.client.http.HttpEncoding;
+import com.google.api.client.util.StreamingContent;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZip HTTP content encoding with a configurable compression level.
+ * <p>
+ * Content is compressed as it is written to the connection, so large request bodies are never held in memory.
+ * Usage:
+ * {@code
+ * request.setEncoding(new GzipEncoding(Deflater.BEST_SPEED));
+ * }
+ */
+public class GzipEncoding implements HttpEncoding {
+    private final int level;
+
+    /**
+     * @param level Deflater compression level from 1 (fastest) to 9 (smallest), or -1 for the default level
+     */
+    public GzipEncoding(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION))
+            throw new IllegalArgumentException("level must be between 1 and 9, or -1 for the default level.");
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getName() {
+        return "gzip";
+    }
+
+    public void encode(StreamingContent content, OutputStream out) throws IOException {
+        // the transport closes the connection stream itself once the request is written
+        OutputStream unclosable = new BufferedOutputStream(out) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        GZIPOutputStream zipper = new GZIPOutputStream(unclosable, 8192) {
+            {
+                def.setLevel(level);
+            }
+        };
+        content.writeTo(zipper);
+        zipper.close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.nexosis.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.api.client.util.Preconditions;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Jackson readers and writers built once per type from an {@link ObjectMapper} and reused.
+ * <p>
+ * {@code ObjectMapper.readValue} looks up the type and its deserializer on every call. A cached
+ * {@code ObjectReader} has already resolved them, and like {@code ObjectWriter} it is immutable, so one
+ * instance is safely shared by every thread.
+ * Usage:
+ * {@code
+ * JacksonBindings bindings = new JacksonBindings(mapper);
+ * SessionResult result = bindings.reader(SessionResult.class).readValue(in);
+ * }
+ */
+public class JacksonBindings {
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectMapper The configured mapper the readers and writers are built from
+     */
+    public JacksonBindings(final ObjectMapper objectMapper) {
+        this.objectMapper = Preconditions.checkNotNull(objectMapper);
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @return A reader binding JSON to the type
+     */
+    public ObjectReader reader(Type type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, t -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(t)));
+        }
+        return reader;
+    }
+
+    /**
+     * @return A writer serializing instances of the type
+     */
+    public ObjectWriter writer(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, objectMapper::writerFor);
+        }
+        return writer;
+    }
+
+    /**
+     * Drops the cached readers and writers, which must be done after a module is registered with the mapper.
+     */
+    public void clear() {
+        readers.clear();
+        writers.clear();
+    }
+}
@@ -14,6 +14,7 @@
 package com.nexosis.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.api.client.http.AbstractHttpContent;
 import com.google.api.client.json.Json;
 import com.google.api.client.util.Preconditions;
@@ -45,22 +46,57 @@ import java.io.OutputStream;
         private final Object data;
 
         /**
-         * Jackson {@link ObjectMapper} that will perform databinding.
+         * Jackson {@link ObjectWriter} that will perform databinding.
          */
-        private final ObjectMapper objectMapper;
+        private final ObjectWriter objectWriter;
+
+        /**
+         * The serialized data once {@link #buffer()} has been called.
+         */
+        private byte[] buffered;
 
         /**
          * @param objectMapper Jackson databinder
          * @param data         JSON key name/value data
          */
         public JacksonMapperHttpContent(final ObjectMapper objectMapper, final Object data) {
+            this(Preconditions.checkNotNull(objectMapper).writerFor(Preconditions.checkNotNull(data).getClass()), data);
+        }
+
+        /**
+         * @param objectWriter Jackson writer for the type of data, such as one cached by {@link JacksonBindings}
+         * @param data         JSON key name/value data
+         */
+        public JacksonMapperHttpContent(final ObjectWriter objectWriter, final Object data) {
             super(Json.MEDIA_TYPE);
-            this.objectMapper = Preconditions.checkNotNull(objectMapper);
+            this.objectWriter = Preconditions.checkNotNull(objectWriter);
             this.data = Preconditions.checkNotNull(data);
         }
 
+        /**
+         * Serializes the data now and keeps the bytes, so the length can be known before the content is written
+         * without serializing it twice.
+         *
+         * @return The length of the serialized data in bytes
+         */
+        public long buffer() throws IOException {
+            if (buffered == null) {
+                buffered = objectWriter.writeValueAsBytes(data);
+            }
+            return buffered.length;
+        }
+
+        @Override
+        public long getLength() throws IOException {
+            return buffered != null ? buffered.length : super.getLength();
+        }
+
         public void writeTo(OutputStream out) throws IOException {
-            objectMapper.writeValue(out, data);
+            if (buffered != null) {
+                out.write(buffered);
+            } else {
+                objectWriter.writeValue(out, data);
+            }
         }
 
     }
\ No newline at end of file
@@ -13,7 +13,6 @@
  */
 package com.nexosis.util;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.util.ObjectParser;
 import com.google.api.client.util.Preconditions;
@@ -35,41 +34,47 @@ import java.nio.charset.Charset;
  * MyDataType data = response.parseAs(MyDataType.class);
  * }
  *
- * Implementation is not thread-safe.
+ * Types are bound through the cached readers of a {@link JacksonBindings}, so the parser is thread-safe and one
+ * instance can be shared by every request.
  *
  * @author Damien Raude-Morvan
  */
 public final class JacksonMapperParser implements ObjectParser {
 
     /**
-     * Jackson {@link ObjectMapper} that will perform databinding.
+     * Cached Jackson readers that will perform databinding.
      */
-    private final ObjectMapper objectMapper;
+    private final JacksonBindings bindings;
 
     /**
      * @param objectMapper Jackson databinder
      */
     public JacksonMapperParser(final ObjectMapper objectMapper) {
-        this.objectMapper = Preconditions.checkNotNull(objectMapper);
+        this(new JacksonBindings(objectMapper));
+    }
+
+    /**
+     * @param bindings Jackson readers to share with other parsers
+     */
+    public JacksonMapperParser(final JacksonBindings bindings) {
+        this.bindings = Preconditions.checkNotNull(bindings);
     }
 
     public <T> T parseAndClose(final InputStream in, final Charset charset,
                                final Class<T> dataClass) throws IOException {
-        return objectMapper.readValue(in, dataClass);
+        return bindings.reader(dataClass).readValue(in);
     }
 
     public Object parseAndClose(final InputStream in, final Charset charset,
                                 final Type dataType) throws IOException {
-        JavaType javaType = objectMapper.getTypeFactory().constructType(dataType);
-        return objectMapper.readValue(in, javaType);
+        return bindings.reader(dataType).readValue(in);
     }
 
     public <T> T parseAndClose(final Reader reader, final Class<T> dataClass) throws IOException {
-        return objectMapper.readValue(reader, dataClass);
+        return bindings.reader(dataClass).readValue(reader);
     }
 
     public Object parseAndClose(final Reader reader, final Type dataType) throws IOException {
-        JavaType javaType = objectMapper.getTypeFactory().constructType(dataType);
-        return objectMapper.readValue(reader, javaType);
+        return bindings.reader(dataType).readValue(reader);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.nexosis;
+
+import org.junit.Assume;
+
+/**
+ * Gates tests which measure throughput rather than pass or fail. They are skipped unless the
+ * {@code nexosis.benchmarks} system property is true, which the build sets with {@code -PrunBenchmarks=true}.
+ */
+public final class Benchmarks {
+    private Benchmarks() {
+    }
+
+    /**
+     * Skips the calling test unless benchmarks were asked for.
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks run with -Dnexosis.benchmarks=true", Boolean.getBoolean("nexosis.benchmarks"));
+    }
+
+    /**
+     * Prints a measurement of a benchmark.
+     */
+    public static void report(String format, Object... args) {
+        System.out.println(String.format(format, args));
+    }
+}
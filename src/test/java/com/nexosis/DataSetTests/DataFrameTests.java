@@ -0,0 +1,224 @@
+package com.nexosis.DataSetTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.Benchmarks;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.model.Columns;
+import com.nexosis.model.DataFrame;
+import com.nexosis.model.DataRole;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.DataType;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DataFrameTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void columnsAreTypedByMetadata() throws Exception {
+        DataFrame frame = DataFrame.fromRows(columns(), Arrays.asList(
+                row("2017-01-01T00:00:00Z", "10.5", "blue"),
+                row("2017-01-02T00:00:00Z", "11", "red"),
+                row("2017-01-03T00:00:00Z", "12.25", "blue")));
+
+        Assert.assertEquals(3, frame.getRowCount());
+        Assert.assertArrayEquals(new double[]{10.5, 11, 12.25}, frame.getNumericColumn("sales").getValues(), 0);
+        Assert.assertEquals(new DateTime(2017, 1, 2, 0, 0, DateTimeZone.UTC).getMillis(), frame.getDateColumn("TIMESTAMP").getMillis(1));
+        Assert.assertEquals(Arrays.asList("blue", "red"), frame.getStringColumn("color").getDictionary());
+        Assert.assertArrayEquals(new int[]{0, 1, 0}, frame.getStringColumn("color").getCodes());
+        Assert.assertEquals(DataType.STRING, frame.getColumn("color").getDataType());
+    }
+
+    @Test
+    public void missingValuesAreTracked() throws Exception {
+        Map<String, String> sparse = new HashMap<>();
+        sparse.put("sales", "");
+        Map<String, String> late = row(null, "3", null);
+        late.put("extra", "x");
+
+        DataFrame frame = DataFrame.fromRows(columns(), Arrays.asList(row("2017-01-01T00:00:00Z", "1", "blue"), sparse, late));
+
+        DataFrame.NumericColumn sales = frame.getNumericColumn("sales");
+        Assert.assertTrue(sales.isMissing(1));
+        Assert.assertTrue(Double.isNaN(sales.getDouble(1)));
+        Assert.assertEquals(1, sales.getMissingCount());
+        Assert.assertTrue(frame.getDateColumn("timestamp").isMissing(1));
+        Assert.assertTrue(frame.getColumn("color").isMissing(2));
+        Assert.assertNull(frame.getColumn("color").getString(2));
+        Assert.assertEquals(2, frame.getColumn("extra").getMissingCount());
+        Assert.assertEquals("x", frame.getColumn("extra").getString(2));
+    }
+
+    @Test
+    public void rowsRoundTrip() throws Exception {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(row(new DateTime(2017, 1, 1, 0, 0, DateTimeZone.UTC).plusHours(i).toString(), Double.toString(i * 0.5), i % 3 == 0 ? "a" : "b"));
+        }
+        rows.get(7).remove("color");
+
+        List<Map<String, String>> converted = DataFrame.fromRows(columns(), rows).toRows();
+
+        Assert.assertEquals(200, converted.size());
+        Assert.assertEquals("3.5", converted.get(7).get("sales"));
+        Assert.assertEquals("3", converted.get(6).get("sales"));
+        Assert.assertFalse(converted.get(7).containsKey("color"));
+        Assert.assertEquals(DataFrame.fromRows(columns(), rows).toRows(), DataFrame.fromRows(columns(), converted).toRows());
+        Assert.assertEquals(new DateTime(rows.get(10).get("timestamp")).getMillis(), new DateTime(converted.get(10).get("timestamp")).getMillis());
+    }
+
+    @Test
+    public void rowsFromArraysMatchRowsFromMaps() throws Exception {
+        String[] names = new String[3];
+        String[] values = new String[3];
+        DataFrame.Builder builder = new DataFrame.Builder(columns());
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Map<String, String> row = row(new DateTime(2017, 1, 1, 0, 0, DateTimeZone.UTC).plusDays(i).toString(), Double.toString(i), i % 4 == 0 ? null : "c" + i % 3);
+            rows.add(row);
+            int count = 0;
+            for (Map.Entry<String, String> value : row.entrySet()) {
+                names[count] = value.getKey();
+                values[count] = value.getValue();
+                count++;
+            }
+            // the arrays are reused for every row, as the cursor does
+            builder.addRow(names, values, count);
+        }
+
+        Assert.assertEquals(DataFrame.fromRows(columns(), rows).toRows(), builder.build().toRows());
+    }
+
+    @Test
+    public void unparseableNumericColumnFallsBackToStrings() throws Exception {
+        DataFrame frame = DataFrame.fromRows(columns(), Arrays.asList(row(null, "1", null), row(null, "n/a", null)));
+
+        Assert.assertTrue(frame.getColumn("sales") instanceof DataFrame.StringColumn);
+        Assert.assertEquals("1", frame.getColumn("sales").getString(0));
+        Assert.assertEquals("n/a", frame.getColumn("sales").getString(1));
+    }
+
+    @Test
+    public void clientDecodesResponseIntoFrame() throws Exception {
+        StringBuilder body = new StringBuilder("{\"dataSetName\":\"sales\",\"columns\":{\"timestamp\":{\"dataType\":\"date\",\"role\":\"timestamp\"},")
+                .append("\"sales\":{\"dataType\":\"numeric\",\"role\":\"target\"}},\"data\":[");
+        for (int i = 0; i < 100; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"timestamp\":\"2017-01-01T00:00:00Z\",\"sales\":\"").append(i).append("\"}");
+        }
+        NexosisClient target = client(body.append("]}").toString());
+
+        DataFrame frame = target.getDataSets().getFrame(new DataSetDataQuery("sales"));
+        DataSetData data = target.getDataSets().get(new DataSetDataQuery("sales"));
+
+        Assert.assertEquals(100, frame.getRowCount());
+        Assert.assertEquals(99.0, frame.getNumericColumn("sales").getDouble(99), 0);
+        Assert.assertEquals(data.getData(), frame.toRows());
+    }
+
+    /**
+     * Not a pass or fail test: prints the memory held by a page as rows of maps and as a frame, and the time
+     * taken to sum a numeric column of each.
+     */
+    @Test
+    public void memoryAndScanBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        int rowCount = 100000;
+        long before = usedMemory();
+        List<Map<String, String>> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(row(new DateTime(2017, 1, 1, 0, 0, DateTimeZone.UTC).plusHours(i).toString(), Double.toString(i * 0.25), i % 5 == 0 ? "a" : "b"));
+        }
+        long rowBytes = usedMemory() - before;
+
+        before = usedMemory();
+        DataFrame frame = DataFrame.fromRows(columns(), rows);
+        long frameBytes = usedMemory() - before;
+
+        for (int round = 0; round < 5; round++) {
+            long started = System.nanoTime();
+            double rowSum = sum(rows, "sales");
+            long rowNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            double frameSum = sum(frame.getNumericColumn("sales"));
+            long frameNanos = System.nanoTime() - started;
+
+            Assert.assertEquals(rowSum, frameSum, 0.001);
+            Benchmarks.report("DataFrame: summing %d values took %dus from maps, %dus from the frame", rowCount, rowNanos / 1000, frameNanos / 1000);
+        }
+        Benchmarks.report("DataFrame: %d rows held about %dKB as maps, %dKB as a frame (estimated %dKB)",
+                rowCount, rowBytes / 1024, frameBytes / 1024, frame.getSizeBytes() / 1024);
+        Assert.assertEquals(rowCount, rows.size());
+    }
+
+    private static double sum(List<Map<String, String>> rows, String column) {
+        double sum = 0;
+        for (Map<String, String> row : rows) {
+            sum += Double.parseDouble(row.get(column));
+        }
+        return sum;
+    }
+
+    private static double sum(DataFrame.NumericColumn column) {
+        double sum = 0;
+        for (double value : column.getValues()) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Columns columns() {
+        Columns columns = new Columns();
+        columns.setColumnMetadata("timestamp", DataType.DATE, DataRole.TIMESTAMP);
+        columns.setColumnMetadata("sales", DataType.NUMERIC, DataRole.TARGET);
+        return columns;
+    }
+
+    private static Map<String, String> row(String timestamp, String sales, String color) {
+        Map<String, String> row = new LinkedHashMap<>();
+        if (timestamp != null)
+            row.put("timestamp", timestamp);
+        if (sales != null)
+            row.put("sales", sales);
+        if (color != null)
+            row.put("color", color);
+        return row;
+    }
+
+    private NexosisClient client(final String body) {
+        return new NexosisClient(fakeApiKey, fakeEndpoint, new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        return new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent(body);
+                    }
+                };
+            }
+        });
+    }
+}
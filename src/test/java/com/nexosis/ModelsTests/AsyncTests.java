@@ -0,0 +1,171 @@
+package com.nexosis.ModelsTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.model.ModelPredictionRequest;
+import com.nexosis.model.ModelPredictionResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void predictAsyncCompletesWithResult() throws Exception {
+        UUID modelId = UUID.randomUUID();
+
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                MockLowLevelHttpRequest request = new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                        response.setStatusCode(200);
+                        response.setContentType(Json.MEDIA_TYPE);
+                        response.setContent("{\"data\":[{\"column\":\"predicted\"}]}");
+                        return response;
+                    }
+                };
+                return request;
+            }
+        };
+
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+        ModelPredictionResult result = target.getModels().predictAsync(new ModelPredictionRequest(modelId, rows())).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("predicted", result.getData().get(0).get("column"));
+        target.close();
+    }
+
+    @Test
+    public void apiErrorsSurfaceAsNexosisClientException() throws Exception {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                        response.setStatusCode(404);
+                        response.setContentType(Json.MEDIA_TYPE);
+                        response.setContent("{\"statusCode\":404,\"message\":\"Not found\"}");
+                        return response;
+                    }
+                };
+            }
+        };
+
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+        try {
+            target.getModels().getAsync(UUID.randomUUID()).get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the future to complete exceptionally");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof NexosisClientException);
+            Assert.assertEquals(404, ((NexosisClientException) ee.getCause()).getStatusCode());
+        }
+        target.close();
+    }
+
+    @Test
+    public void errorsThrownByTheCallCompleteTheFuture() throws Exception {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        throw new AssertionError("broken transport");
+                    }
+                };
+            }
+        };
+
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+        try {
+            target.getModels().getAsync(UUID.randomUUID()).get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the future to complete exceptionally");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof AssertionError);
+            Assert.assertEquals("broken transport", ee.getCause().getMessage());
+        }
+        target.close();
+    }
+
+    @Test
+    public void argumentErrorsSurfaceAsNexosisClientException() throws Exception {
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint);
+        try {
+            target.getModels().predictAsync(new ModelPredictionRequest(UUID.randomUUID(), null)).get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the future to complete exceptionally");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof NexosisClientException);
+            Assert.assertEquals("Object data cannot be null.", ee.getCause().getMessage());
+        }
+        target.close();
+    }
+
+    @Test
+    public void rejectsRequestsBeyondTheQueueBound() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent("{}");
+                    }
+                };
+            }
+        };
+
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setAsyncThreads(1)
+                .setAsyncQueueSize(1)
+                .build();
+
+        // one request running, one waiting in the queue, the third has nowhere to go
+        target.getModels().getAsync(UUID.randomUUID());
+        target.getModels().getAsync(UUID.randomUUID());
+        CompletableFuture<?> rejected = target.getModels().getAsync(UUID.randomUUID());
+        try {
+            rejected.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the request to be rejected");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof NexosisClientException);
+        } finally {
+            release.countDown();
+            target.close();
+        }
+    }
+
+    private List<Map<String, String>> rows() {
+        Map<String, String> map = new HashMap<>();
+        map.put("column", "value");
+        List<Map<String, String>> data = new ArrayList<>();
+        data.add(map);
+        return data;
+    }
+}
@@ -225,6 +225,41 @@ public class NexosisClientTest {
         }
     }
 
+    @Test
+    public void exceptionKeepsTheStatusCodeItIsGiven() {
+        NexosisClientException exception = new NexosisClientException("Failed.");
+        exception.setStatusCode(HttpStatusCodes.STATUS_CODE_SERVICE_UNAVAILABLE);
+
+        Assert.assertEquals(HttpStatusCodes.STATUS_CODE_SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    @Test
+    public void unreadableErrorResponseKeepsTheStatusCode() throws Exception {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                        response.setStatusCode(502);
+                        response.setContentType("text/html");
+                        response.setContent("<html>Bad Gateway</html>");
+                        return response;
+                    }
+                };
+            }
+        };
+
+        try {
+            NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+            target.getAccountQuotas();
+            Assert.fail("Expected the 502 to be returned");
+        } catch (NexosisClientException exception) {
+            Assert.assertEquals(HttpStatusCodes.STATUS_CODE_BAD_GATEWAY, exception.getStatusCode());
+        }
+    }
+
     private static void setEnv(Map<String, String> newenv) {
         try {
             Class<?> processEnvironmentClass = Class.forName("java.lang.ProcessEnvironment");
@@ -0,0 +1,249 @@
+package com.nexosis.TransportTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.ChunkedUploadPolicy;
+import com.nexosis.impl.DataSet;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.RetryPolicy;
+import com.nexosis.model.DataSetDetail;
+import com.nexosis.model.DataSetDetailSource;
+import com.nexosis.model.DataSetSummary;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class ChunkedUploadTests {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Set<String> received = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Map<String, Integer> failuresByFirstRow = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long rowDelayMicros;
+    private volatile int failureStatus = 503;
+    private StubServer server;
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void rowsAreSplitIntoChunks() throws Exception {
+        NexosisClient target = client();
+
+        DataSetSummary summary = target.getDataSets().create(new DataSetDetailSource("sales", detail(1050)), new ChunkedUploadPolicy().setChunkSizeRows(100));
+
+        Assert.assertEquals("sales", summary.getDataSetName());
+        Assert.assertEquals(11, server.getRequestCount());
+        Assert.assertEquals(1050, received.size());
+    }
+
+    @Test
+    public void concurrentChunksAreBounded() throws Exception {
+        rowDelayMicros = 500;
+        NexosisClient target = client();
+
+        target.getDataSets().create(DataSet.From("sales", null, IntStream.range(0, 2000).mapToObj(ChunkedUploadTests::row)),
+                new ChunkedUploadPolicy().setChunkSizeRows(100).setMaxConcurrency(3));
+
+        Assert.assertEquals(2000, received.size());
+        Assert.assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    public void onlyFailedChunksAreRetried() throws Exception {
+        failureStatus = 429;
+        failuresByFirstRow.put("300", 2);
+        failuresByFirstRow.put("700", 1);
+        NexosisClient target = client(new RetryPolicy().setBaseDelayMillis(1));
+
+        target.getDataSets().create(new DataSetDetailSource("sales", detail(1000)),
+                new ChunkedUploadPolicy().setChunkSizeRows(100));
+
+        Assert.assertEquals(1000, received.size());
+        Assert.assertEquals(10 + 3, server.getRequestCount());
+    }
+
+    @Test
+    public void chunksAreNotRetriedWhenTheServerMayHaveAppendedThem() throws Exception {
+        failuresByFirstRow.put("300", 1);
+        NexosisClient target = client(new RetryPolicy().setBaseDelayMillis(1));
+
+        try {
+            target.getDataSets().create(new DataSetDetailSource("sales", detail(1000)),
+                    new ChunkedUploadPolicy().setChunkSizeRows(100));
+            Assert.fail("Expected the failed chunk to be reported");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(900, received.size());
+        Assert.assertEquals(10, server.getRequestCount());
+    }
+
+    @Test
+    public void failedChunksAreReportedAfterTheOthersFinish() throws Exception {
+        failureStatus = 400;
+        failuresByFirstRow.put("500", 1);
+        NexosisClient target = client();
+
+        try {
+            target.getDataSets().create(new DataSetDetailSource("sales", detail(1000)),
+                    new ChunkedUploadPolicy().setChunkSizeRows(100));
+            Assert.fail("Expected the failed chunk to be reported");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(400, nce.getStatusCode());
+            Assert.assertTrue(nce.getMessage(), nce.getMessage().contains("1 of 10 chunks"));
+            Assert.assertTrue(nce.getMessage(), nce.getMessage().contains("rows 500-599"));
+        }
+        Assert.assertEquals(900, received.size());
+        Assert.assertEquals(10, server.getRequestCount());
+    }
+
+    @Test
+    public void failedFirstChunkStopsTheUpload() throws Exception {
+        failuresByFirstRow.put("0", 10);
+        NexosisClient target = client();
+
+        try {
+            target.getDataSets().create(new DataSetDetailSource("sales", detail(1000)),
+                    new ChunkedUploadPolicy().setChunkSizeRows(100));
+            Assert.fail("Expected the first chunk to fail");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+        Assert.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void uploadOnABusyExecutorSendsChunksItself() throws Exception {
+        server = new StubServer(this::respond);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setExecutor(executor)
+                .build();
+
+        try {
+            // the only thread is busy uploading, so the chunks it queues can never start on the executor
+            target.getDataSets().createAsync(new DataSetDetailSource("sales", detail(1000)),
+                    new ChunkedUploadPolicy().setChunkSizeRows(100).setMaxConcurrency(3)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1000, received.size());
+        Assert.assertEquals(10, server.getRequestCount());
+    }
+
+    /**
+     * Not a pass or fail test: prints the time to upload rows to a server which takes 20us to store each row,
+     * in one request and in chunks.
+     */
+    @Test
+    public void throughputBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        rowDelayMicros = 20;
+        NexosisClient target = client();
+        DataSetDetail detail = detail(50000);
+
+        for (int round = 0; round < 2; round++) {
+            long started = System.nanoTime();
+            target.getDataSets().create(new DataSetDetailSource("sales", detail));
+            long single = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            target.getDataSets().create(new DataSetDetailSource("sales", detail), new ChunkedUploadPolicy().setChunkSizeRows(5000).setMaxConcurrency(4));
+            long chunked = System.nanoTime() - started;
+
+            Benchmarks.report("ChunkedUpload: 50000 rows took %dms in one request, %dms in chunks of 5000 with 4 connections",
+                    single / 1000000, chunked / 1000000);
+        }
+    }
+
+    private NexosisClient client() throws IOException {
+        server = new StubServer(this::respond);
+        return new NexosisClient("abcdefg", server.getEndpoint());
+    }
+
+    private NexosisClient client(RetryPolicy retryPolicy) throws IOException {
+        server = new StubServer(this::respond);
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setRetryPolicy(retryPolicy)
+                .build();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        int status = 200;
+        String body = "{\"dataSetName\":\"sales\"}";
+        try {
+            DataSetDetail detail = mapper.readValue(StubServer.drain(exchange.getRequestBody()), DataSetDetail.class);
+            String firstRow = detail.getData().get(0).get("id");
+            Integer failures = failuresByFirstRow.get(firstRow);
+            if (failures != null && failures > 0) {
+                failuresByFirstRow.put(firstRow, failures - 1);
+                status = failureStatus;
+                body = "{\"statusCode\":" + failureStatus + ",\"message\":\"failed\"}";
+            } else {
+                sleepMicros(rowDelayMicros * detail.getData().size());
+                for (Map<String, String> row : detail.getData()) {
+                    received.add(row.get("id"));
+                }
+            }
+        } finally {
+            // before the response is sent, after which the client may already send its next chunk
+            inFlight.decrementAndGet();
+        }
+        StubServer.respond(exchange, status, Json.MEDIA_TYPE, body);
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DataSetDetail detail(int count) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        DataSetDetail detail = new DataSetDetail();
+        detail.setData(rows);
+        return detail;
+    }
+
+    private static Map<String, String> row(int i) {
+        Map<String, String> row = new HashMap<>();
+        row.put("id", Integer.toString(i));
+        row.put("sales", Double.toString(i * 1.25));
+        return row;
+    }
+}
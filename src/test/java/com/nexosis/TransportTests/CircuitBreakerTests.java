@@ -0,0 +1,140 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.nexosis.impl.CircuitBreaker;
+import com.nexosis.impl.CircuitBreakerPolicy;
+import com.nexosis.impl.CircuitOpenException;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class CircuitBreakerTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void breakerOpensWhenFailureRateIsReached() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(503, 200, 503, 503);
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(4).setFailureRateThreshold(0.75));
+
+        for (int i = 0; i < 4; i++) {
+            getModel(target);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, target.getCircuitBreaker("models").getState());
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the breaker to fail the request");
+        } catch (CircuitOpenException coe) {
+            Assert.assertEquals("models", coe.getFamily());
+        }
+        Assert.assertEquals(4, transport.requestCount());
+        Assert.assertEquals(1, target.getCircuitBreaker("models").getRejections());
+    }
+
+    @Test
+    public void breakersAreKeptPerFamily() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(503, 503);
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(2));
+
+        getModel(target);
+        getModel(target);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, target.getCircuitBreaker("models").getState());
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, target.getCircuitBreaker("sessions").getState());
+        target.getSessions().get(UUID.randomUUID());
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenBreaker() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(404, 404, 404);
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(2));
+
+        for (int i = 0; i < 3; i++) {
+            getModel(target);
+        }
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, target.getCircuitBreaker("models").getState());
+        Assert.assertEquals(3, transport.requestCount());
+    }
+
+    @Test
+    public void halfOpenBreakerClosesAfterSuccessfulTrials() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(503, 503, 200, 200);
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(2).setOpenMillis(50).setHalfOpenCalls(2));
+
+        getModel(target);
+        getModel(target);
+        Thread.sleep(100);
+
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, target.getCircuitBreaker("models").getState());
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(UUID.randomUUID());
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, target.getCircuitBreaker("models").getState());
+    }
+
+    @Test
+    public void halfOpenBreakerReopensWhenTrialFails() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(503, 503, 503);
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(2).setOpenMillis(50).setHalfOpenCalls(1));
+
+        getModel(target);
+        getModel(target);
+        Thread.sleep(100);
+        getModel(target);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, target.getCircuitBreaker("models").getState());
+        Assert.assertEquals(3, transport.requestCount());
+    }
+
+    @Test
+    public void slowCallsOpenBreaker() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignored) {
+                }
+                return super.buildRequest(method, url);
+            }
+        };
+        NexosisClient target = client(transport, new CircuitBreakerPolicy().setMinimumCalls(2).setSlowCallMillis(10).setSlowCallRateThreshold(1));
+
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, target.getCircuitBreaker("models").getState());
+    }
+
+    @Test
+    public void breakersAreOffByDefault() throws Exception {
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, new RetryTests.ScriptedTransport(503, 503, 503));
+
+        for (int i = 0; i < 3; i++) {
+            getModel(target);
+        }
+        Assert.assertNull(target.getCircuitBreaker("models"));
+    }
+
+    private void getModel(NexosisClient target) throws CircuitOpenException {
+        try {
+            target.getModels().get(UUID.randomUUID());
+        } catch (CircuitOpenException coe) {
+            throw coe;
+        } catch (NexosisClientException ignored) {
+        }
+    }
+
+    private NexosisClient client(RetryTests.ScriptedTransport transport, CircuitBreakerPolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setCircuitBreakerPolicy(policy)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.model.ModelSummary;
+import com.nexosis.model.SessionResultStatus;
+import com.nexosis.model.SessionStatus;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CoalescingTests {
+    private StubServer server;
+    private NexosisClient target;
+    private volatile int expectedCalls;
+    private volatile int status = 200;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                // hold the first request until every caller has joined it
+                long deadline = System.currentTimeMillis() + 5000;
+                while (target.getCoalescingStatistics().getCalls() < expectedCalls && System.currentTimeMillis() < deadline) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                String path = exchange.getRequestURI().getPath();
+                if (status != 200) {
+                    StubServer.respond(exchange, status, Json.MEDIA_TYPE, "{\"statusCode\":" + status + ",\"message\":\"Not found\"}");
+                } else if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Nexosis-Session-Status", "Completed");
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"modelId\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\"}");
+                }
+            }
+        });
+        target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setRequestCoalescing(true)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+        server.close();
+    }
+
+    @Test
+    public void concurrentIdenticalGetsShareOneRequest() throws Exception {
+        UUID id = UUID.randomUUID();
+        expectedCalls = 8;
+
+        List<CompletableFuture<ModelSummary>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(target.getModels().getAsync(id));
+        }
+
+        List<ModelSummary> models = new ArrayList<>();
+        for (CompletableFuture<ModelSummary> call : calls) {
+            ModelSummary model = call.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(id, model.getModelId());
+            for (ModelSummary other : models) {
+                Assert.assertNotSame(other, model);
+            }
+            models.add(model);
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+        Assert.assertEquals(7, target.getCoalescingStatistics().getCoalesced());
+    }
+
+    @Test
+    public void concurrentIdenticalHeadsShareOneRequest() throws Exception {
+        UUID id = UUID.randomUUID();
+        expectedCalls = 4;
+
+        List<CompletableFuture<SessionResultStatus>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(target.getSessions().getStatusAsync(id));
+        }
+        for (CompletableFuture<SessionResultStatus> call : calls) {
+            Assert.assertEquals(SessionStatus.COMPLETED, call.get(10, TimeUnit.SECONDS).getStatus());
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+        Assert.assertEquals(3, target.getCoalescingStatistics().getCoalesced());
+    }
+
+    @Test
+    public void differentResourcesAreNotCoalesced() throws Exception {
+        expectedCalls = 2;
+
+        CompletableFuture<ModelSummary> first = target.getModels().getAsync(UUID.randomUUID());
+        CompletableFuture<ModelSummary> second = target.getModels().getAsync(UUID.randomUUID());
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, server.getRequestCount());
+        Assert.assertEquals(0, target.getCoalescingStatistics().getCoalesced());
+    }
+
+    @Test
+    public void waitersSeeTheError() throws Exception {
+        UUID id = UUID.randomUUID();
+        expectedCalls = 3;
+        status = 404;
+
+        List<CompletableFuture<ModelSummary>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(target.getModels().getAsync(id));
+        }
+        for (CompletableFuture<ModelSummary> call : calls) {
+            try {
+                call.get(10, TimeUnit.SECONDS);
+                Assert.fail("Expected the 404 to be returned");
+            } catch (ExecutionException ee) {
+                Assert.assertEquals(404, ((NexosisClientException) ee.getCause()).getStatusCode());
+            }
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void waitersSeeAnErrorAsItWasThrown() throws Exception {
+        final NexosisClient[] client = new NexosisClient[1];
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (client[0].getCoalescingStatistics().getCalls() < 3 && System.currentTimeMillis() < deadline) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                throw new StackOverflowError("failed");
+            }
+        };
+        client[0] = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHttpTransport(transport)
+                .setRequestCoalescing(true)
+                .build();
+        final UUID id = UUID.randomUUID();
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<ModelSummary>> calls = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                calls.add(callers.submit(() -> client[0].getModels().get(id)));
+            }
+            for (Future<ModelSummary> call : calls) {
+                try {
+                    call.get(10, TimeUnit.SECONDS);
+                    Assert.fail("Expected the error to be thrown");
+                } catch (ExecutionException ee) {
+                    Assert.assertTrue(ee.getCause().toString(), ee.getCause() instanceof StackOverflowError);
+                }
+            }
+        } finally {
+            callers.shutdownNow();
+            client[0].close();
+        }
+    }
+
+    @Test
+    public void sequentialCallsSendTheirOwnRequests() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        target.getModels().get(id);
+        target.getModels().get(id);
+
+        Assert.assertEquals(2, server.getRequestCount());
+        Assert.assertEquals(0, target.getCoalescingStatistics().getCoalesced());
+    }
+}
@@ -0,0 +1,209 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.CompressionPolicy;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.model.DataSetDetail;
+import com.nexosis.model.DataSetDetailSource;
+import com.nexosis.model.DataSetStreamSource;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+public class CompressionTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void largeStreamIsCompressed() throws Exception {
+        byte[] csv = scaledCsv(10);
+        CapturingTransport transport = new CapturingTransport();
+        NexosisClient target = client(transport, new CompressionPolicy());
+
+        target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(csv)));
+
+        Assert.assertEquals("gzip", transport.contentEncoding);
+        Assert.assertArrayEquals(csv, gunzip(transport.body));
+        Assert.assertTrue(transport.body.length < csv.length);
+    }
+
+    @Test
+    public void largeJsonBodyIsCompressed() throws Exception {
+        CapturingTransport transport = new CapturingTransport();
+        NexosisClient target = client(transport, new CompressionPolicy().setMinSizeBytes(100));
+
+        target.getDataSets().create(new DataSetDetailSource("test", detail(100)));
+
+        Assert.assertEquals("gzip", transport.contentEncoding);
+        Assert.assertTrue(new String(gunzip(transport.body), "UTF-8").contains("\"sales\":\"120.75\""));
+    }
+
+    @Test
+    public void compressedJsonBodyIsSerializedOnce() throws Exception {
+        CapturingTransport transport = new CapturingTransport();
+        NexosisClient target = client(transport, new CompressionPolicy().setMinSizeBytes(100));
+        final AtomicInteger serialized = new AtomicInteger();
+        DataSetDetail detail = new DataSetDetail() {
+            @Override
+            public List<Map<String, String>> getData() {
+                serialized.incrementAndGet();
+                return super.getData();
+            }
+        };
+        detail.setData(detail(100).getData());
+        serialized.set(0);
+
+        target.getDataSets().create(new DataSetDetailSource("test", detail));
+
+        Assert.assertEquals("gzip", transport.contentEncoding);
+        Assert.assertEquals(1, serialized.get());
+    }
+
+    @Test
+    public void smallBodiesAreSentUncompressed() throws Exception {
+        CapturingTransport transport = new CapturingTransport();
+        NexosisClient target = client(transport, new CompressionPolicy().setMinSizeBytes(100 * 1024));
+
+        target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(scaledCsv(1))));
+        Assert.assertNull(transport.contentEncoding);
+        Assert.assertArrayEquals(scaledCsv(1), transport.body);
+
+        target.getDataSets().create(new DataSetDetailSource("test", detail(1)));
+        Assert.assertNull(transport.contentEncoding);
+    }
+
+    @Test
+    public void bodiesAreUncompressedByDefault() throws Exception {
+        CapturingTransport transport = new CapturingTransport();
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+
+        target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(scaledCsv(10))));
+
+        Assert.assertNull(transport.contentEncoding);
+    }
+
+    /**
+     * Uploads producttest.csv scaled up to about 12MB to a local server with and without compression, reporting
+     * the bytes sent and the time taken.
+     */
+    @Test
+    public void compressionBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        byte[] csv = scaledCsv(1000);
+        final AtomicLong received = new AtomicLong();
+
+        try (StubServer server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                byte[] body = StubServer.drain(exchange.getRequestBody());
+                received.set(body.length);
+                StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{}");
+            }
+        })) {
+            for (CompressionPolicy policy : new CompressionPolicy[]{null, new CompressionPolicy().setLevel(1), new CompressionPolicy()}) {
+                try (NexosisClient target = new NexosisClient.Builder()
+                        .setApiKey(fakeApiKey)
+                        .setEndpoint(server.getEndpoint())
+                        .setCompressionPolicy(policy)
+                        .build()) {
+                    long started = System.nanoTime();
+                    target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(csv)));
+                    long millis = (System.nanoTime() - started) / 1000000;
+
+                    Benchmarks.report("gzip level %s: %d of %d bytes sent in %dms",
+                            policy == null ? "off" : String.valueOf(policy.getLevel()), received.get(), csv.length, millis);
+                    if (policy == null) {
+                        Assert.assertEquals(csv.length, received.get());
+                    } else {
+                        Assert.assertTrue(received.get() * 4 < csv.length);
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] scaledCsv(int copies) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("src/test/java/com/nexosis/CsvFiles/producttest.csv"));
+        StringBuilder csv = new StringBuilder(lines.get(0)).append('\n');
+        for (int i = 0; i < copies; i++) {
+            for (String line : lines.subList(1, lines.size())) {
+                csv.append(line).append('\n');
+            }
+        }
+        return csv.toString().getBytes("UTF-8");
+    }
+
+    private static DataSetDetail detail(int rows) {
+        List<Map<String, String>> data = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, String> row = new HashMap<>();
+            row.put("timestamp", "2015-06-14T00:00:00Z");
+            row.put("sales", "120.75");
+            data.add(row);
+        }
+        DataSetDetail detail = new DataSetDetail();
+        detail.setData(data);
+        return detail;
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return StubServer.drain(in);
+        }
+    }
+
+    private NexosisClient client(MockHttpTransport transport, CompressionPolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setCompressionPolicy(policy)
+                .build();
+    }
+
+    /**
+     * Records the encoding and the bytes written for the body of the last request.
+     */
+    static class CapturingTransport extends MockHttpTransport {
+        String contentEncoding;
+        byte[] body;
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    contentEncoding = getContentEncoding();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    getStreamingContent().writeTo(out);
+                    body = out.toByteArray();
+
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    response.setContentType(Json.MEDIA_TYPE);
+                    response.setContent("{}");
+                    return response;
+                }
+            };
+        }
+    }
+}
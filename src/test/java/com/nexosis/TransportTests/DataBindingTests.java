@@ -0,0 +1,169 @@
+package com.nexosis.TransportTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.Benchmarks;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.ModelPredictionRequest;
+import com.nexosis.model.ModelPredictionResult;
+import com.nexosis.model.PagingInfo;
+import com.nexosis.model.SessionResult;
+import com.nexosis.util.JacksonBindings;
+import com.nexosis.util.JacksonMapperHttpContent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class DataBindingTests {
+    private final static String ROWS = rows(1000);
+
+    @Test
+    public void bytecodeBindingParsesTheSameModels() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        NexosisClient reflective = client(false, "{\"sessionId\":\"" + sessionId + "\",\"status\":\"completed\",\"data\":" + ROWS + "}");
+        NexosisClient generated = client(true, "{\"sessionId\":\"" + sessionId + "\",\"status\":\"completed\",\"data\":" + ROWS + "}");
+
+        SessionResult expected = reflective.getSessions().getResultAnomalyScores(sessionId, new PagingInfo(0, 1000));
+        SessionResult actual = generated.getSessions().getResultAnomalyScores(sessionId, new PagingInfo(0, 1000));
+
+        Assert.assertEquals(1000, actual.getData().size());
+        Assert.assertEquals(expected.getData(), actual.getData());
+        Assert.assertEquals(sessionId, actual.getSessionId());
+        Assert.assertEquals(expected.getStatus(), actual.getStatus());
+    }
+
+    @Test
+    public void dataSetsAndPredictionsAreBoundWithBytecode() throws Exception {
+        NexosisClient dataSets = client(true, "{\"dataSetName\":\"sales\",\"pageNumber\":2,\"data\":" + ROWS + "}");
+        DataSetData data = dataSets.getDataSets().get(new DataSetDataQuery("sales"));
+        Assert.assertEquals("sales", data.getDataSetName());
+        Assert.assertEquals(1000, data.getData().size());
+
+        NexosisClient predictions = client(true, "{\"modelId\":\"" + UUID.randomUUID() + "\",\"data\":" + ROWS + "}");
+        ModelPredictionRequest request = new ModelPredictionRequest();
+        request.setModelId(UUID.randomUUID());
+        request.setData(Collections.singletonList(Collections.singletonMap("x", "1")));
+        ModelPredictionResult result = predictions.getModels().predict(request);
+        Assert.assertEquals(1000, result.getData().size());
+    }
+
+    @Test
+    public void cachedReadersAreSharedAcrossThreads() throws Exception {
+        NexosisClient target = client(false, "{\"sessionId\":\"" + UUID.randomUUID() + "\",\"status\":\"completed\",\"data\":" + ROWS + "}");
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[16];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = target.getSessions().getResultAnomalyScoresAsync(UUID.randomUUID(), new PagingInfo(0, 1000));
+        }
+        for (CompletableFuture<?> call : calls) {
+            Assert.assertEquals(1000, ((SessionResult) call.get(10, TimeUnit.SECONDS)).getData().size());
+        }
+    }
+
+    @Test
+    public void cachedWriterMatchesTheMapper() throws Exception {
+        ObjectMapper mapper = mapper(false);
+        Map<String, Object> body = new HashMap<>();
+        body.put("requestedDate", new DateTime(2017, 5, 1, 12, 0, DateTimeZone.UTC));
+        body.put("rows", 3);
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        new JacksonMapperHttpContent(new JacksonBindings(mapper).writer(body.getClass()), body).writeTo(written);
+
+        Assert.assertEquals(mapper.writeValueAsString(body), new String(written.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Not a pass or fail test: prints the parse throughput of a large page of rows with an ObjectMapper, a cached
+     * ObjectReader, and a cached ObjectReader with bytecode generated binding.
+     */
+    @Test
+    public void parseThroughputBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        byte[] payload = ("{\"sessionId\":\"" + UUID.randomUUID() + "\",\"status\":\"completed\",\"data\":" + rows(50000) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        ObjectMapper mapper = mapper(false);
+        JacksonBindings cached = new JacksonBindings(mapper);
+        JacksonBindings generated = new JacksonBindings(mapper(true));
+
+        for (int round = 0; round < 2; round++) {
+            measure("ObjectMapper.readValue", payload, () -> mapper.readValue(new ByteArrayInputStream(payload), SessionResult.class));
+            measure("cached ObjectReader", payload, () -> cached.reader(SessionResult.class).readValue(new ByteArrayInputStream(payload)));
+            measure("cached ObjectReader + Afterburner", payload, () -> generated.reader(SessionResult.class).readValue(new ByteArrayInputStream(payload)));
+        }
+    }
+
+    private interface Parse {
+        Object run() throws IOException;
+    }
+
+    private static void measure(String name, byte[] payload, Parse parse) throws IOException {
+        int iterations = 20;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Assert.assertEquals(50000, ((SessionResult) parse.run()).getData().size());
+        }
+        long elapsed = System.nanoTime() - started;
+        Benchmarks.report("DataBinding: %s parsed %d MB/s", name, payload.length * (long) iterations * 1000 / elapsed);
+    }
+
+    private static ObjectMapper mapper(boolean bytecode) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JodaModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (bytecode) {
+            mapper.registerModule(new AfterburnerModule());
+        }
+        return mapper;
+    }
+
+    private static String rows(int count) {
+        StringBuilder rows = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            rows.append(i == 0 ? "" : ",")
+                    .append("{\"timestamp\":\"2017-01-01T").append(String.format("%02d", i % 24)).append(":00:00Z\",")
+                    .append("\"sales\":\"").append(i * 1.5).append("\",\"anomaly\":\"").append(i % 7 == 0).append("\"}");
+        }
+        return rows.append("]").toString();
+    }
+
+    private NexosisClient client(boolean bytecodeBinding, final String body) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint("https://nada.nexosis.com/not-here")
+                .setHttpTransport(new MockHttpTransport() {
+                    @Override
+                    public MockLowLevelHttpRequest buildRequest(String method, String url) {
+                        return new MockLowLevelHttpRequest(url) {
+                            @Override
+                            public LowLevelHttpResponse execute() {
+                                return new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent(body);
+                            }
+                        };
+                    }
+                })
+                .setBytecodeBinding(bytecodeBinding)
+                .build();
+    }
+}
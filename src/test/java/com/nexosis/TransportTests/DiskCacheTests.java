@@ -0,0 +1,135 @@
+package com.nexosis.TransportTests;
+
+import com.nexosis.impl.DiskCachePolicy;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.model.PagingInfo;
+import com.nexosis.model.SessionResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+public class DiskCacheTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void completedResultsSurviveARestart() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        UUID id = UUID.randomUUID();
+
+        ResourceCacheTests.SessionTransport first = new ResourceCacheTests.SessionTransport("completed", 50);
+        SessionResult downloaded = client(first, new DiskCachePolicy(directory)).getSessions().getResultAnomalyScores(id, new PagingInfo(0, 50));
+
+        ResourceCacheTests.SessionTransport second = new ResourceCacheTests.SessionTransport("completed", 50);
+        NexosisClient restarted = client(second, new DiskCachePolicy(directory));
+        SessionResult stored = restarted.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 50));
+
+        Assert.assertEquals(1, first.requestCount());
+        Assert.assertEquals(0, second.requestCount());
+        Assert.assertEquals(downloaded.getData(), stored.getData());
+        Assert.assertEquals(downloaded.getSessionId(), stored.getSessionId());
+        Assert.assertEquals(1, restarted.getDiskCacheStatistics().getHits());
+        Assert.assertTrue(new File(folder.getRoot(), id + ".results").exists());
+    }
+
+    @Test
+    public void pagesOfOneSessionShareAFile() throws Exception {
+        ResourceCacheTests.SessionTransport transport = new ResourceCacheTests.SessionTransport("completed", 10);
+        NexosisClient target = client(transport, new DiskCachePolicy(folder.getRoot().toPath()));
+        UUID id = UUID.randomUUID();
+
+        for (int page = 0; page < 3; page++) {
+            target.getSessions().getResultClassScores(id, new PagingInfo(page, 10));
+        }
+        for (int page = 0; page < 3; page++) {
+            target.getSessions().getResultClassScores(id, new PagingInfo(page, 10));
+        }
+
+        Assert.assertEquals(3, transport.requestCount());
+        Assert.assertEquals(3, target.getDiskCacheStatistics().getWrites());
+        Assert.assertEquals(1, folder.getRoot().list().length);
+        Assert.assertEquals(Files.size(new File(folder.getRoot(), id + ".results").toPath()), target.getDiskCacheStatistics().getBytes());
+    }
+
+    @Test
+    public void sessionsStillRunningAreNotWritten() throws Exception {
+        ResourceCacheTests.SessionTransport transport = new ResourceCacheTests.SessionTransport("started", 10);
+        NexosisClient target = client(transport, new DiskCachePolicy(folder.getRoot().toPath()));
+        UUID id = UUID.randomUUID();
+
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+
+        Assert.assertEquals(2, transport.requestCount());
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void leastRecentlyUsedSessionsAreEvicted() throws Exception {
+        ResourceCacheTests.SessionTransport transport = new ResourceCacheTests.SessionTransport("completed", 100);
+        NexosisClient target = client(transport, new DiskCachePolicy(folder.getRoot().toPath()).setMaxBytes(8 * 1024));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        target.getSessions().getResultAnomalyScores(first, new PagingInfo(0, 100));
+        target.getSessions().getResultAnomalyScores(second, new PagingInfo(0, 100));
+
+        Assert.assertEquals(1, target.getDiskCacheStatistics().getEvictions());
+        Assert.assertFalse(new File(folder.getRoot(), first + ".results").exists());
+        Assert.assertTrue(new File(folder.getRoot(), second + ".results").exists());
+        Assert.assertTrue(target.getDiskCacheStatistics().getBytes() <= 8 * 1024);
+    }
+
+    @Test
+    public void incompleteRecordIsCutOff() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        UUID id = UUID.randomUUID();
+        ResourceCacheTests.SessionTransport transport = new ResourceCacheTests.SessionTransport("completed", 10);
+        client(transport, new DiskCachePolicy(directory)).getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+
+        Path file = directory.resolve(id + ".results");
+        long complete = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 100, 'x'}, StandardOpenOption.APPEND);
+
+        NexosisClient restarted = client(transport, new DiskCachePolicy(directory));
+        restarted.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        restarted.getSessions().getResultAnomalyScores(id, new PagingInfo(1, 10));
+
+        Assert.assertEquals(2, transport.requestCount());
+        Assert.assertEquals(1, restarted.getDiskCacheStatistics().getHits());
+        Assert.assertTrue(Files.size(file) > complete);
+        Assert.assertEquals(Files.size(file), restarted.getDiskCacheStatistics().getBytes());
+    }
+
+    @Test
+    public void removingASessionDeletesItsFile() throws Exception {
+        ResourceCacheTests.SessionTransport transport = new ResourceCacheTests.SessionTransport("completed", 10);
+        NexosisClient target = client(transport, new DiskCachePolicy(folder.getRoot().toPath()));
+        UUID id = UUID.randomUUID();
+
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        target.getSessions().remove(id);
+
+        Assert.assertEquals(0, folder.getRoot().list().length);
+        Assert.assertEquals(0, target.getDiskCacheStatistics().getBytes());
+    }
+
+    private NexosisClient client(ResourceCacheTests.SessionTransport transport, DiskCachePolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setDiskCachePolicy(policy)
+                .build();
+    }
+}
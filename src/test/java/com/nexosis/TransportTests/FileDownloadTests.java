@@ -0,0 +1,187 @@
+package com.nexosis.TransportTests;
+
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.FileDownload;
+import com.nexosis.model.SessionResultQuery;
+import com.nexosis.model.SessionStatus;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public class FileDownloadTests {
+    private StubServer server;
+    private Path directory;
+    private volatile String sessionStatus;
+    private volatile long bodyLength = 64 * 1024;
+    private volatile boolean truncate;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("nexosis-download");
+        server = new StubServer(this::respond);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        for (File file : directory.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void dataSetIsWrittenToFile() throws Exception {
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("sales.csv");
+
+        DataSetDataQuery query = new DataSetDataQuery("sales");
+        query.setContentType("text/csv");
+        FileDownload result = target.getDataSets().download(query, file);
+
+        Assert.assertTrue(result.isWritten());
+        Assert.assertEquals(bodyLength, result.getBytes());
+        Assert.assertTrue(result.getBytesPerSecond() > 0);
+        Assert.assertArrayEquals(body(bodyLength), Files.readAllBytes(file));
+        Assert.assertEquals(1, directory.toFile().listFiles().length);
+    }
+
+    @Test
+    public void existingFileIsReplaced() throws Exception {
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("sales.csv");
+        Files.write(file, "old".getBytes(StandardCharsets.UTF_8));
+
+        target.getDataSets().download(new DataSetDataQuery("sales"), file);
+
+        Assert.assertArrayEquals(body(bodyLength), Files.readAllBytes(file));
+    }
+
+    @Test
+    public void failedDownloadLeavesFileAsItWas() throws Exception {
+        truncate = true;
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("sales.csv");
+        Files.write(file, "old".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            target.getDataSets().download(new DataSetDataQuery("sales"), file);
+            Assert.fail("Expected the truncated body to fail");
+        } catch (NexosisClientException expected) {
+        }
+
+        Assert.assertEquals("old", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        Assert.assertEquals(1, directory.toFile().listFiles().length);
+    }
+
+    @Test
+    public void incompleteSessionResultsAreNotWritten() throws Exception {
+        sessionStatus = "Started";
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("results.csv");
+
+        FileDownload result = target.getSessions().downloadResults(results(), file);
+
+        Assert.assertEquals(SessionStatus.STARTED, result.getSessionStatus());
+        Assert.assertFalse(result.isWritten());
+        Assert.assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void completedSessionResultsAreWritten() throws Exception {
+        sessionStatus = "Completed";
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("results.csv");
+
+        FileDownload result = target.getSessions().downloadResultsAsync(results(), file).get();
+
+        Assert.assertEquals(SessionStatus.COMPLETED, result.getSessionStatus());
+        Assert.assertTrue(result.isWritten());
+        Assert.assertArrayEquals(body(bodyLength), Files.readAllBytes(file));
+    }
+
+    /**
+     * Not a pass or fail test: prints the rate and the bytes allocated by the calling thread to save a 256MB
+     * export through an OutputStream and to a Path.
+     */
+    @Test
+    public void downloadBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        bodyLength = 256L * 1024 * 1024;
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+        Path file = directory.resolve("large.csv");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < 2; round++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long started = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                target.getDataSets().get(new DataSetDataQuery("sales"), out);
+            }
+            long streamNanos = System.nanoTime() - started;
+            long streamBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+            Files.delete(file);
+
+            allocated = threads.getThreadAllocatedBytes(thread);
+            FileDownload result = target.getDataSets().download(new DataSetDataQuery("sales"), file);
+            long fileBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+            Assert.assertEquals(bodyLength, Files.size(file));
+            Files.delete(file);
+
+            Benchmarks.report("FileDownload: %dMB at %dMB/s and %dKB allocated to a stream, %dMB/s and %dKB to a file",
+                    bodyLength / (1024 * 1024), (long) (bodyLength * 1e9 / streamNanos / (1024 * 1024)), streamBytes / 1024,
+                    (long) (result.getBytesPerSecond() / (1024 * 1024)), fileBytes / 1024);
+        }
+    }
+
+    private static SessionResultQuery results() {
+        SessionResultQuery query = new SessionResultQuery();
+        query.setSessionId(UUID.randomUUID());
+        return query;
+    }
+
+    private static byte[] body(long length) {
+        byte[] body = new byte[(int) Math.min(length, 1024 * 1024)];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        StubServer.drain(exchange.getRequestBody());
+        exchange.getResponseHeaders().set("Content-Type", "text/csv");
+        if (sessionStatus != null) {
+            exchange.getResponseHeaders().set("Nexosis-Session-Status", sessionStatus);
+        }
+        long length = bodyLength;
+        exchange.sendResponseHeaders(200, length);
+        byte[] block = body(length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long remaining = truncate ? length / 2 : length;
+            while (remaining > 0) {
+                int count = (int) Math.min(block.length, remaining);
+                out.write(block, 0, count);
+                remaining -= count;
+            }
+        } catch (IOException ignored) {
+            // the exchange is closed early when the body is truncated
+        }
+    }
+}
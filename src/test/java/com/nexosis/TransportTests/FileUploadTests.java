@@ -0,0 +1,189 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.DataSet;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.RetryPolicy;
+import com.nexosis.model.DataSetFileSource;
+import com.nexosis.model.DataSetStreamSource;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FileUploadTests {
+    private final static String HEADER = "timestamp,sales\n";
+    private StubServer server;
+    private Path csv;
+    private volatile String contentLength;
+    private volatile String transferEncoding;
+    private volatile byte[] body;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder data = new StringBuilder(HEADER);
+        for (int i = 0; i < 1000; i++) {
+            data.append("2017-01-01T").append(String.format("%02d", i % 24)).append(":00:00Z,").append(i * 1.5).append('\n');
+        }
+        csv = Files.createTempFile("nexosis-upload", ".csv");
+        Files.write(csv, data.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        Files.deleteIfExists(csv);
+    }
+
+    @Test
+    public void fileIsSentWithItsLength() throws Exception {
+        NexosisClient target = client();
+
+        target.getDataSets().create(DataSet.From("sales", csv));
+
+        Assert.assertEquals(String.valueOf(Files.size(csv)), contentLength);
+        Assert.assertNull(transferEncoding);
+        Assert.assertArrayEquals(Files.readAllBytes(csv), body);
+    }
+
+    @Test
+    public void rangeIsSentAfterTheHeader() throws Exception {
+        NexosisClient target = client();
+        byte[] file = Files.readAllBytes(csv);
+
+        target.getDataSets().create(new DataSetFileSource("sales", csv, 100, 50, HEADER.length()));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(file, 0, HEADER.length());
+        expected.write(file, 100, 50);
+        Assert.assertArrayEquals(expected.toByteArray(), body);
+        Assert.assertEquals(String.valueOf(HEADER.length() + 50), contentLength);
+    }
+
+    @Test
+    public void splitRangesEndOnLinesAndCoverTheFile() throws Exception {
+        byte[] file = Files.readAllBytes(csv);
+        List<DataSetFileSource> ranges = DataSet.split("sales", csv, 4096);
+
+        Assert.assertTrue(ranges.size() > 1);
+        long next = 0;
+        for (DataSetFileSource range : ranges) {
+            Assert.assertEquals(next, range.getPosition());
+            Assert.assertEquals(next == 0 ? 0 : HEADER.length(), range.getHeaderLength());
+            Assert.assertTrue(range.getHeaderLength() + range.getLength() <= 4096 + 64);
+            Assert.assertEquals('\n', file[(int) (range.getPosition() + range.getLength() - 1)]);
+            next = range.getPosition() + range.getLength();
+        }
+        Assert.assertEquals(file.length, next);
+
+        NexosisClient target = client();
+        StringBuilder uploaded = new StringBuilder();
+        for (DataSetFileSource range : ranges) {
+            target.getDataSets().create(range);
+            String sent = new String(body, StandardCharsets.UTF_8);
+            Assert.assertTrue(sent.startsWith(HEADER));
+            uploaded.append(uploaded.length() == 0 ? sent : sent.substring(HEADER.length()));
+        }
+        Assert.assertEquals(new String(file, StandardCharsets.UTF_8), uploaded.toString());
+    }
+
+    @Test
+    public void fileUploadIsRetried() throws Exception {
+        failures.set(1);
+        server = new StubServer(this::capture);
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setRetryPolicy(new RetryPolicy().setBaseDelayMillis(1))
+                .build();
+
+        target.getDataSets().create(DataSet.From("sales", csv));
+
+        Assert.assertEquals(2, server.getRequestCount());
+        Assert.assertArrayEquals(Files.readAllBytes(csv), body);
+    }
+
+    /**
+     * Not a pass or fail test: prints the time and the bytes allocated by the calling thread to upload a 64MB
+     * file as a stream and as a file.
+     */
+    @Test
+    public void uploadBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        Path large = Files.createTempFile("nexosis-upload-large", ".csv");
+        try {
+            byte[] block = Files.readAllBytes(csv);
+            try (java.io.OutputStream out = Files.newOutputStream(large)) {
+                for (long written = 0; written < 64L * 1024 * 1024; written += block.length) {
+                    out.write(block);
+                }
+            }
+            final AtomicLong received = new AtomicLong();
+            server = new StubServer(exchange -> {
+                byte[] buffer = new byte[64 * 1024];
+                InputStream in = exchange.getRequestBody();
+                for (int read; (read = in.read(buffer)) >= 0; ) {
+                    received.addAndGet(read);
+                }
+                StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"dataSetName\":\"sales\"}");
+            });
+            NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().getId();
+
+            for (int round = 0; round < 2; round++) {
+                long allocated = threads.getThreadAllocatedBytes(thread);
+                long started = System.nanoTime();
+                try (InputStream in = Files.newInputStream(large)) {
+                    target.getDataSets().create(new DataSetStreamSource("sales", in));
+                }
+                long streamNanos = System.nanoTime() - started;
+                long streamBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+                allocated = threads.getThreadAllocatedBytes(thread);
+                started = System.nanoTime();
+                target.getDataSets().create(DataSet.From("sales", large));
+                long fileNanos = System.nanoTime() - started;
+                long fileBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+                Benchmarks.report("FileUpload: %dMB took %dms and %dKB allocated as a stream, %dms and %dKB as a file",
+                        Files.size(large) / (1024 * 1024), streamNanos / 1000000, streamBytes / 1024, fileNanos / 1000000, fileBytes / 1024);
+            }
+        } finally {
+            Files.deleteIfExists(large);
+        }
+    }
+
+    private NexosisClient client() throws IOException {
+        server = new StubServer(this::capture);
+        return new NexosisClient("abcdefg", server.getEndpoint());
+    }
+
+    private void capture(HttpExchange exchange) throws IOException {
+        contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        body = StubServer.drain(exchange.getRequestBody());
+        if (failures.getAndDecrement() > 0) {
+            StubServer.respond(exchange, 503, Json.MEDIA_TYPE, "{\"statusCode\":503,\"message\":\"unavailable\"}");
+        } else {
+            StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"dataSetName\":\"sales\"}");
+        }
+    }
+}
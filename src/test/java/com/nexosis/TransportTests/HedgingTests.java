@@ -0,0 +1,172 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.StubServer;
+import com.nexosis.impl.HedgingPolicy;
+import com.nexosis.impl.NexosisClient;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HedgingTests {
+    private StubServer server;
+    private final AtomicInteger slowRequest = new AtomicInteger(-1);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                if (server.getRequestCount() == slowRequest.get()) {
+                    try {
+                        Thread.sleep(3000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void slowGetIsAnsweredByHedge() throws Exception {
+        try (NexosisClient target = client(new HedgingPolicy().setMinSamples(10).setMinDelayMillis(200))) {
+            warmUp(target, 10);
+            slowRequest.set(server.getRequestCount() + 1);
+
+            long started = System.currentTimeMillis();
+            target.getModels().get(UUID.randomUUID());
+            long elapsed = System.currentTimeMillis() - started;
+
+            Assert.assertTrue("Took " + elapsed + "ms", elapsed < 2000);
+            Assert.assertEquals(1, target.getHedgingStatistics().getHedges());
+            Assert.assertEquals(1, target.getHedgingStatistics().getHedgeWins());
+        }
+    }
+
+    @Test
+    public void slowDeleteIsNotHedged() throws Exception {
+        try (NexosisClient target = client(new HedgingPolicy().setMinSamples(10).setMinDelayMillis(200))) {
+            UUID id = UUID.randomUUID();
+            for (int i = 0; i < 10; i++) {
+                target.getSessions().remove(id);
+            }
+            slowRequest.set(server.getRequestCount() + 1);
+
+            target.getSessions().remove(id);
+
+            Assert.assertEquals(11, server.getRequestCount());
+            Assert.assertEquals(0, target.getHedgingStatistics().getRequests());
+            Assert.assertEquals(0, target.getHedgingStatistics().getHedges());
+        }
+    }
+
+    @Test
+    public void hedgesAreLimitedByBudget() throws Exception {
+        try (NexosisClient target = client(new HedgingPolicy().setMinSamples(10).setBudgetCapacity(0).setMaxExtraLoad(0))) {
+            warmUp(target, 10);
+            slowRequest.set(server.getRequestCount() + 1);
+
+            long started = System.currentTimeMillis();
+            target.getModels().get(UUID.randomUUID());
+
+            Assert.assertTrue(System.currentTimeMillis() - started >= 2500);
+            Assert.assertEquals(0, target.getHedgingStatistics().getHedges());
+            Assert.assertEquals(1, target.getHedgingStatistics().getBudgetRejections());
+        }
+    }
+
+    @Test
+    public void requestsAreNotHedgedByDefault() throws Exception {
+        try (NexosisClient target = client(null)) {
+            warmUp(target, 30);
+            Assert.assertEquals(0, target.getHedgingStatistics().getRequests());
+        }
+    }
+
+    @Test
+    public void requestsWhichCannotBeHedgedAreSentOnTheCallersThread() throws Exception {
+        ThreadRecordingTransport transport = new ThreadRecordingTransport();
+        try (NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHttpTransport(transport)
+                .setHedgingPolicy(new HedgingPolicy().setMinSamples(5).setBudgetCapacity(0).setMaxExtraLoad(0))
+                .build()) {
+            warmUp(target, 10);
+        }
+
+        Assert.assertEquals(10, transport.threads.size());
+        for (String thread : transport.threads) {
+            Assert.assertEquals(Thread.currentThread().getName(), thread);
+        }
+    }
+
+    @Test
+    public void hedgeableRequestsAreSentFromThePool() throws Exception {
+        ThreadRecordingTransport transport = new ThreadRecordingTransport();
+        try (NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHttpTransport(transport)
+                .setHedgingPolicy(new HedgingPolicy().setMinSamples(5))
+                .build()) {
+            warmUp(target, 10);
+        }
+
+        Assert.assertEquals(Thread.currentThread().getName(), transport.threads.get(4));
+        Assert.assertTrue(transport.threads.get(5), transport.threads.get(5).startsWith("nexosis-hedge-"));
+    }
+
+    private void warmUp(NexosisClient target, int calls) throws Exception {
+        for (int i = 0; i < calls; i++) {
+            target.getModels().get(UUID.randomUUID());
+        }
+    }
+
+    /**
+     * Records the thread each request is sent on.
+     */
+    static class ThreadRecordingTransport extends MockHttpTransport {
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+            threads.add(Thread.currentThread().getName());
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    return new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent("{}");
+                }
+            };
+        }
+    }
+
+    private NexosisClient client(HedgingPolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHedgingPolicy(policy)
+                .build();
+    }
+}
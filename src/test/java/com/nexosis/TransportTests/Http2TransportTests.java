@@ -0,0 +1,285 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.CompressionPolicy;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.DataSetStreamSource;
+import com.nexosis.model.ModelSummary;
+import com.sun.net.httpserver.HttpExchange;
+import okhttp3.internal.http2.Header;
+import okhttp3.internal.http2.Http2Connection;
+import okhttp3.internal.http2.Http2Stream;
+import okio.BufferedSink;
+import okio.Okio;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Http2TransportTests {
+    private StubServer server;
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                bytesReceived.addAndGet(StubServer.drain(exchange.getRequestBody()).length);
+                String path = exchange.getRequestURI().getPath();
+                if (path.endsWith("/missing")) {
+                    StubServer.respond(exchange, 404, Json.MEDIA_TYPE, "{\"statusCode\":404,\"message\":\"Not found\"}");
+                } else {
+                    String id = path.substring(path.lastIndexOf('/') + 1);
+                    StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"modelId\":\"" + id + "\"}");
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void requestsAreSentOverReusedConnection() throws Exception {
+        try (NexosisClient target = http2Client()) {
+            for (int i = 0; i < 50; i++) {
+                UUID id = UUID.randomUUID();
+                ModelSummary model = target.getModels().get(id);
+                Assert.assertEquals(id, model.getModelId());
+            }
+        }
+        Assert.assertEquals(50, server.getRequestCount());
+        Assert.assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void bodiesAreStreamed() throws Exception {
+        byte[] csv = "timeStamp,sales\n2015-06-14 00:00:00,120.75\n".getBytes(StandardCharsets.UTF_8);
+
+        try (NexosisClient target = http2Client()) {
+            target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(csv)));
+        }
+        Assert.assertEquals(csv.length, bytesReceived.get());
+    }
+
+    @Test
+    public void compressedBodiesAreSent() throws Exception {
+        byte[] csv = new byte[64 * 1024];
+
+        try (NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHttp2(true)
+                .setCompressionPolicy(new CompressionPolicy())
+                .build()) {
+            target.getDataSets().create(new DataSetStreamSource("test", new ByteArrayInputStream(csv)));
+        }
+        Assert.assertTrue(bytesReceived.get() > 0 && bytesReceived.get() < csv.length);
+    }
+
+    @Test
+    public void errorsAreReturned() throws Exception {
+        try (NexosisClient target = http2Client()) {
+            target.getDataSets().get(new DataSetDataQuery("missing"));
+            Assert.fail("Expected the 404 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(404, nce.getStatusCode());
+            Assert.assertEquals("Not found", nce.getErrorResponse().getMessage());
+        }
+    }
+
+    @Test
+    public void concurrentRequestsAreMultiplexedOverH2c() throws Exception {
+        try (H2cServer h2c = new H2cServer();
+             NexosisClient target = new NexosisClient.Builder()
+                     .setApiKey("abcdefg")
+                     .setEndpoint(h2c.getEndpoint())
+                     .setHttp2PriorKnowledge(true)
+                     .build()) {
+            // the connection is made first, as requests racing to connect may each open their own
+            target.getModels().get(UUID.randomUUID());
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<UUID> ids = new ArrayList<>();
+                List<Future<ModelSummary>> models = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    final UUID id = UUID.randomUUID();
+                    ids.add(id);
+                    models.add(executor.submit(() -> target.getModels().get(id)));
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    Assert.assertEquals(ids.get(i), models.get(i).get(10, TimeUnit.SECONDS).getModelId());
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            Assert.assertEquals(1, h2c.connections.get());
+            Assert.assertEquals(1 + 16, h2c.streams.get());
+            Assert.assertTrue(h2c.maxOpenStreams.get() > 1);
+        }
+    }
+
+    /**
+     * Sends the same concurrent load through NetHttpTransport, the pooled Apache transport and OkHttp, reporting the
+     * requests per second and connections used by each. The stub server only speaks HTTP/1.1, so this compares
+     * connection handling; over TLS OkHttp would multiplex the requests on one HTTP/2 connection.
+     */
+    @Test
+    public void throughputComparison() throws Exception {
+        Benchmarks.assumeEnabled();
+        String[] names = {"NetHttpTransport", "pooled", "http2"};
+        for (String name : names) {
+            int connectionsBefore = server.getConnectionCount();
+            try (NexosisClient target = "NetHttpTransport".equals(name)
+                    ? new NexosisClient("abcdefg", server.getEndpoint(), new NetHttpTransport())
+                    : new NexosisClient.Builder()
+                    .setApiKey("abcdefg")
+                    .setEndpoint(server.getEndpoint())
+                    .setHttp2("http2".equals(name))
+                    .build()) {
+                // warm up
+                load(target, 8, 200);
+
+                long started = System.nanoTime();
+                int requests = load(target, 32, 2000);
+                double seconds = (System.nanoTime() - started) / 1e9;
+
+                Benchmarks.report("%s: %.0f requests/s, %d connections", name, requests / seconds,
+                        server.getConnectionCount() - connectionsBefore);
+            }
+        }
+    }
+
+    private static int load(final NexosisClient target, int threads, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(new Callable<ModelSummary>() {
+                    @Override
+                    public ModelSummary call() throws Exception {
+                        return target.getModels().get(UUID.randomUUID());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return requests;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Answers model requests over cleartext HTTP/2 with prior knowledge, holding each stream open briefly so
+     * concurrent requests overlap.
+     */
+    private static class H2cServer implements Closeable {
+        private final ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        private final ExecutorService acceptor = Executors.newSingleThreadExecutor();
+        private final List<Http2Connection> open = new CopyOnWriteArrayList<>();
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger streams = new AtomicInteger();
+        final AtomicInteger openStreams = new AtomicInteger();
+        final AtomicInteger maxOpenStreams = new AtomicInteger();
+
+        H2cServer() throws IOException {
+            acceptor.execute(this::accept);
+        }
+
+        String getEndpoint() {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/v1";
+        }
+
+        private void accept() {
+            try {
+                while (!socket.isClosed()) {
+                    Socket accepted = socket.accept();
+                    connections.incrementAndGet();
+                    Http2Connection connection = new Http2Connection.Builder(false)
+                            .socket(accepted)
+                            .listener(new Http2Connection.Listener() {
+                                @Override
+                                public void onStream(Http2Stream stream) throws IOException {
+                                    respond(stream);
+                                }
+                            })
+                            .build();
+                    open.add(connection);
+                    connection.start();
+                }
+            } catch (IOException closed) {
+                // the server was closed
+            }
+        }
+
+        private void respond(Http2Stream stream) throws IOException {
+            streams.incrementAndGet();
+            maxOpenStreams.accumulateAndGet(openStreams.incrementAndGet(), Math::max);
+            try {
+                String path = stream.takeHeaders().get(Header.TARGET_PATH_UTF8);
+                Okio.buffer(stream.getSource()).readByteArray();
+                TimeUnit.MILLISECONDS.sleep(50);
+                String id = path.substring(path.lastIndexOf('/') + 1);
+
+                stream.writeHeaders(Arrays.asList(
+                        new Header(Header.RESPONSE_STATUS, "200"),
+                        new Header("content-type", Json.MEDIA_TYPE)), true);
+                try (BufferedSink body = Okio.buffer(stream.getSink())) {
+                    body.writeUtf8("{\"modelId\":\"" + id + "\"}");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                openStreams.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            for (Http2Connection connection : open) {
+                connection.close();
+            }
+            acceptor.shutdownNow();
+        }
+    }
+
+    private NexosisClient http2Client() {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setHttp2(true)
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.Benchmarks;
+import com.nexosis.impl.CallContext;
+import com.nexosis.impl.Interceptor;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.RetryPolicy;
+import com.nexosis.util.Action;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class InterceptorTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void phasesRunInOrderAroundTheTransformer() throws Exception {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(new RetryTests.ScriptedTransport(200))
+                .addInterceptor(new Recording("outer", calls))
+                .addInterceptor(new Recording("inner", calls))
+                .build();
+        target.getModels().setHttpMessageTransformer(new Action<HttpRequest, HttpResponse>() {
+            @Override
+            public void invoke(HttpRequest request, HttpResponse response) {
+                calls.add(response == null ? "transformer request" : "transformer response");
+            }
+        });
+
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(Arrays.asList("outer request", "inner request", "transformer request",
+                "transformer response", "inner response", "outer response"), calls);
+    }
+
+    @Test
+    public void retriedAttemptsPassThroughTheChainAgain() throws Exception {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(new RetryTests.ScriptedTransport(503, 200))
+                .setRetryPolicy(new RetryPolicy().setBaseDelayMillis(1))
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public void onRequest(CallContext context) {
+                        calls.add("request " + context.getAttempt() + " " + context.getTemplate());
+                    }
+
+                    @Override
+                    public void onResponse(CallContext context) {
+                        calls.add("response " + context.getAttempt() + " " + context.getResponse().getStatusCode());
+                    }
+
+                    @Override
+                    public void onException(CallContext context, Exception error) {
+                        calls.add("exception " + context.getAttempt() + " " + ((HttpResponseException) error).getStatusCode()
+                                + (context.isRetrying() ? " retrying" : ""));
+                    }
+                })
+                .build();
+
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(Arrays.asList("request 1 GET models/{id}", "exception 1 503 retrying",
+                "request 2 GET models/{id}", "response 2 200"), calls);
+    }
+
+    @Test
+    public void headersAndAttributesAreCarriedThroughTheCall() throws Exception {
+        final List<String> traceIds = Collections.synchronizedList(new ArrayList<String>());
+        final List<Long> timings = Collections.synchronizedList(new ArrayList<Long>());
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public MockLowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        traceIds.add(getFirstHeaderValue("X-Trace-Id"));
+                        return new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent("{}");
+                    }
+                };
+            }
+        };
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public void onRequest(CallContext context) {
+                        String traceId = UUID.randomUUID().toString();
+                        context.setAttribute("trace", traceId);
+                        context.getRequest().getHeaders().set("X-Trace-Id", traceId);
+                    }
+
+                    @Override
+                    public void onResponse(CallContext context) {
+                        traceIds.add((String) context.getAttribute("trace"));
+                        timings.add(context.getAttemptNanos());
+                        timings.add(context.getElapsedNanos());
+                    }
+                })
+                .build();
+
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(2, traceIds.size());
+        Assert.assertNotNull(traceIds.get(0));
+        Assert.assertEquals(traceIds.get(0), traceIds.get(1));
+        Assert.assertTrue(timings.get(0) >= 0);
+        Assert.assertTrue(timings.get(1) >= timings.get(0));
+    }
+
+    @Test
+    public void failingRequestPhaseAbortsTheCall() throws Exception {
+        RetryTests.ScriptedTransport transport = new RetryTests.ScriptedTransport(200);
+        final NexosisClientException refusal = new NexosisClientException("Refused by interceptor.");
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public void onRequest(CallContext context) throws Exception {
+                        throw refusal;
+                    }
+                })
+                .build();
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the interceptor to refuse the call");
+        } catch (NexosisClientException nce) {
+            Assert.assertSame(refusal, nce);
+        }
+        Assert.assertEquals(0, transport.requestCount());
+    }
+
+    @Test
+    public void failingResponsePhaseIsNotRetriedAndReleasesTheResponse() throws Exception {
+        final List<MockLowLevelHttpResponse> responses = Collections.synchronizedList(new ArrayList<MockLowLevelHttpResponse>());
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setRetryPolicy(new RetryPolicy().setBaseDelayMillis(1))
+                .setHttpTransport(new MockHttpTransport() {
+                    @Override
+                    public MockLowLevelHttpRequest buildRequest(String method, String url) {
+                        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent("{}");
+                        responses.add(response);
+                        return new MockLowLevelHttpRequest(url).setResponse(response);
+                    }
+                })
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public void onResponse(CallContext context) throws Exception {
+                        throw new IOException("Rejected by interceptor.");
+                    }
+                })
+                .build();
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the interceptor to fail the call");
+        } catch (NexosisClientException nce) {
+            Assert.assertTrue(nce.getCause() instanceof IOException);
+        }
+        Assert.assertEquals(1, responses.size());
+        Assert.assertTrue(responses.get(0).isDisconnected());
+    }
+
+    /**
+     * Not a pass or fail test: prints the cost per call of a chain of interceptors which do nothing.
+     */
+    @Test
+    public void pipelineOverheadBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        int calls = 20000;
+        for (int interceptors : new int[]{0, 1, 5, 0, 1, 5}) {
+            NexosisClient.Builder builder = new NexosisClient.Builder()
+                    .setApiKey(fakeApiKey)
+                    .setEndpoint(fakeEndpoint)
+                    .setHttpTransport(new MockHttpTransport() {
+                        @Override
+                        public MockLowLevelHttpRequest buildRequest(String method, String url) {
+                            return new MockLowLevelHttpRequest(url).setResponse(
+                                    new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent("{}"));
+                        }
+                    });
+            for (int i = 0; i < interceptors; i++) {
+                builder.addInterceptor(new Interceptor() {
+                });
+            }
+            NexosisClient target = builder.build();
+            UUID id = UUID.randomUUID();
+
+            long started = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                target.getModels().get(id);
+            }
+            long elapsed = System.nanoTime() - started;
+            Benchmarks.report("Interceptors: %d no-op interceptors, %dns per call", interceptors, elapsed / calls);
+        }
+    }
+
+    private static class Recording implements Interceptor {
+        private final String name;
+        private final List<String> calls;
+
+        Recording(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void onRequest(CallContext context) {
+            calls.add(name + " request");
+        }
+
+        @Override
+        public void onResponse(CallContext context) {
+            calls.add(name + " response");
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.EndpointMetrics;
+import com.nexosis.impl.LatencyHistogram;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.Sessions;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.PredictionDomain;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsTests {
+    private final static String MODEL = "{\"modelId\":\"" + UUID.randomUUID() + "\",\"dataSourceName\":\"metrics\"}";
+
+    private StubServer server;
+    private volatile CountDownLatch release;
+    private volatile int lastRequestBytes;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                lastRequestBytes = StubServer.drain(exchange.getRequestBody()).length;
+                CountDownLatch latch = release;
+                if (latch != null) {
+                    try {
+                        latch.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+                    StubServer.respond(exchange, 404, Json.MEDIA_TYPE, "{\"statusCode\":404,\"message\":\"not found\"}");
+                } else if (exchange.getRequestMethod().equals("POST")) {
+                    StubServer.respond(exchange, 201, Json.MEDIA_TYPE, "{\"sessionId\":\"" + UUID.randomUUID() + "\"}");
+                } else {
+                    StubServer.respond(exchange, 200, Json.MEDIA_TYPE, MODEL);
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void requestsAreRecordedByTemplate() throws Exception {
+        try (NexosisClient target = client(true)) {
+            target.getModels().get(UUID.randomUUID());
+            target.getModels().get(UUID.randomUUID());
+
+            EndpointMetrics metrics = target.getMetrics().getEndpoint("GET models/{id}");
+            Assert.assertNotNull(metrics);
+            Assert.assertEquals(1, target.getMetrics().getEndpoints().size());
+            Assert.assertEquals(2, metrics.getRequests());
+            Assert.assertEquals(2, metrics.getStatusCount(200));
+            Assert.assertEquals(0, metrics.getInFlight());
+            Assert.assertEquals(2, metrics.getLatency().getCount());
+            Assert.assertEquals(2, metrics.getDeserialization().getCount());
+            Assert.assertEquals(2L * MODEL.getBytes(StandardCharsets.UTF_8).length, metrics.getResponseBytes());
+        }
+    }
+
+    @Test
+    public void errorStatusesAreCounted() throws Exception {
+        try (NexosisClient target = client(true)) {
+            try {
+                target.getDataSets().get(new DataSetDataQuery("missing"));
+                Assert.fail("Expected the 404 to be returned");
+            } catch (NexosisClientException nce) {
+                Assert.assertEquals(404, nce.getStatusCode());
+            }
+
+            EndpointMetrics metrics = target.getMetrics().getEndpoint("GET data/{name}");
+            Assert.assertEquals(1, metrics.getStatusCount(404));
+            Assert.assertEquals(1, metrics.getStatusCounts().size());
+        }
+    }
+
+    @Test
+    public void requestBodiesAreCounted() throws Exception {
+        try (NexosisClient target = client(true)) {
+            target.getSessions().trainModel(Sessions.trainModel("data", PredictionDomain.REGRESSION, "target", null));
+
+            EndpointMetrics metrics = target.getMetrics().getEndpoint("POST sessions/model");
+            Assert.assertEquals(1, metrics.getStatusCount(201));
+            Assert.assertTrue(metrics.getRequestBytes() > 0);
+            Assert.assertEquals(lastRequestBytes, metrics.getRequestBytes());
+        }
+    }
+
+    @Test
+    public void requestsWaitingForAResponseAreInFlight() throws Exception {
+        release = new CountDownLatch(1);
+        try (NexosisClient target = client(true)) {
+            CompletableFuture<?> first = target.getModels().getAsync(UUID.randomUUID());
+            CompletableFuture<?> second = target.getModels().getAsync(UUID.randomUUID());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            EndpointMetrics metrics;
+            while ((metrics = target.getMetrics().getEndpoint("GET models/{id}")) == null || metrics.getInFlight() < 2) {
+                Assert.assertTrue("requests never became in flight", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(0, metrics.getInFlight());
+        }
+    }
+
+    @Test
+    public void connectionFailuresAreCountedAsErrors() throws Exception {
+        String endpoint = server.getEndpoint();
+        server.close();
+        try (NexosisClient target = new NexosisClient.Builder().setApiKey("abcdefg").setEndpoint(endpoint).build()) {
+            try {
+                target.getModels().get(UUID.randomUUID());
+                Assert.fail("Expected the connection to fail");
+            } catch (NexosisClientException expected) {
+            }
+
+            EndpointMetrics metrics = target.getMetrics().getEndpoint("GET models/{id}");
+            Assert.assertEquals(1, metrics.getErrors());
+            Assert.assertEquals(0, metrics.getInFlight());
+        }
+    }
+
+    @Test
+    public void metricsCanBeDisabled() throws Exception {
+        try (NexosisClient target = client(false)) {
+            target.getModels().get(UUID.randomUUID());
+            Assert.assertTrue(target.getMetrics().getEndpoints().isEmpty());
+        }
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinOnePercent() throws Exception {
+        try (NexosisClient target = client(true)) {
+            target.getModels().get(UUID.randomUUID());
+            LatencyHistogram histogram = target.getMetrics().getEndpoint("GET models/{id}").getLatency();
+            Assert.assertTrue(histogram.getPercentileMicros(1) > 0);
+            Assert.assertEquals(histogram.getMaxMicros(), histogram.getPercentileMicros(1));
+        }
+
+        long[] values = {5, 127, 128, 1000, 999999, 123456789};
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            recordMicros(histogram, value);
+            long reported = histogram.getPercentileMicros(0.5);
+            Assert.assertTrue(value + " reported as " + reported, Math.abs(reported - value) <= value / 100);
+        }
+    }
+
+    @Test
+    public void concurrentRecordingsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        recordConcurrently(histogram, 4, 20_000);
+
+        Assert.assertEquals(4 * 20_000, histogram.getCount());
+        Assert.assertTrue(histogram.getMaxMicros() >= 19_999);
+    }
+
+    /**
+     * Not a pass or fail test: prints the cost of recording a duration from several threads at once.
+     */
+    @Test
+    public void recordingBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        final int threads = 4;
+        final int perThread = 2_000_000;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        long started = System.nanoTime();
+        recordConcurrently(histogram, threads, perThread);
+        long elapsed = System.nanoTime() - started;
+
+        Assert.assertEquals((long) threads * perThread, histogram.getCount());
+        Benchmarks.report("LatencyHistogram: %d threads recorded %d durations, %dns per record per thread",
+                threads, histogram.getCount(), elapsed * threads / histogram.getCount());
+    }
+
+    private static void recordConcurrently(final LatencyHistogram histogram, int threads, final int perThread) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    recordMicros(histogram, i & 0xFFFFF);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static void recordMicros(LatencyHistogram histogram, long micros) {
+        histogram.recordNanos(micros * 1000);
+    }
+
+    private NexosisClient client(boolean metrics) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setMetrics(metrics)
+                .build();
+    }
+}
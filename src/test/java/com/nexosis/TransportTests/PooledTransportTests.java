@@ -0,0 +1,154 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.Sessions;
+import com.nexosis.model.PredictionDomain;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PooledTransportTests {
+    private StubServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void sequentialCallsReuseOneConnection() throws Exception {
+        int calls = 200;
+
+        try (NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .build()) {
+            for (int i = 0; i < calls; i++) {
+                target.getModels().get(UUID.randomUUID());
+            }
+        }
+
+        Assert.assertEquals(calls, server.getRequestCount());
+        Assert.assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void concurrentCallsAreBoundedByPerRouteLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        try (final NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setMaxConnectionsPerRoute(4)
+                .build()) {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return target.getModels().get(UUID.randomUUID());
+                    }
+                }));
+            }
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(400, server.getRequestCount());
+        Assert.assertTrue("Opened " + server.getConnectionCount() + " connections", server.getConnectionCount() <= 4);
+    }
+
+    @Test
+    public void postOnADroppedConnectionIsSentOnce() throws Exception {
+        Assert.assertEquals(1, requestsSentToADroppingServer("POST ", target ->
+                target.getSessions().trainModel(Sessions.trainModel("data", PredictionDomain.REGRESSION, "target", null))));
+    }
+
+    @Test
+    public void getOnADroppedConnectionIsOnlyRetriedByTheRetryPolicy() throws Exception {
+        Assert.assertEquals(1, requestsSentToADroppingServer("GET ", target -> target.getModels().get(UUID.randomUUID())));
+    }
+
+    private interface Call {
+        void run(NexosisClient target) throws NexosisClientException;
+    }
+
+    /**
+     * Makes a call to a server which closes every connection after reading the request headers.
+     *
+     * @return The number of requests the server saw which start with the given request line prefix
+     */
+    private static int requestsSentToADroppingServer(final String requestLine, Call call) throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (final ServerSocket dropping = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        try (Socket socket = dropping.accept()) {
+                            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                            for (String line; (line = in.readLine()) != null && !line.isEmpty(); ) {
+                                if (line.startsWith(requestLine)) {
+                                    requests.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                } catch (IOException closed) {
+                    // the test is over
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            try (NexosisClient target = new NexosisClient.Builder()
+                    .setApiKey("abcdefg")
+                    .setEndpoint("http://127.0.0.1:" + dropping.getLocalPort() + "/")
+                    .build()) {
+                call.run(target);
+                Assert.fail("Expected the dropped connection to fail the call");
+            } catch (NexosisClientException expected) {
+                // closed without a response
+            }
+        }
+        return requests.get();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPool() {
+        new NexosisClient.Builder().setMaxConnections(0);
+    }
+}
@@ -0,0 +1,262 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.PageIterator;
+import com.nexosis.impl.PrefetchPolicy;
+import com.nexosis.impl.UncheckedClientException;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.PagingInfo;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PrefetchTests {
+    private final static Pattern PAGE = Pattern.compile("(?:^|&)page=(\\d+)");
+    private StubServer server;
+    private volatile int totalPages = 5;
+    private volatile int rowsPerPage = 3;
+    private volatile long latencyMillis;
+    private volatile int failingPage = -1;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void allRowsAreStreamedInOrder() throws Exception {
+        NexosisClient target = client();
+
+        List<String> rows;
+        try (Stream<Map<String, String>> stream = target.getDataSets().getAllRows(new DataSetDataQuery("sales"), new PrefetchPolicy())) {
+            rows = stream.map(row -> row.get("row")).collect(Collectors.toList());
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int page = 0; page < totalPages; page++) {
+            for (int row = 0; row < rowsPerPage; row++) {
+                expected.add(page + "-" + row);
+            }
+        }
+        Assert.assertEquals(expected, rows);
+        Assert.assertEquals(totalPages, server.getRequestCount());
+    }
+
+    @Test
+    public void iterationStartsAtTheQueryPage() throws Exception {
+        NexosisClient target = client();
+        DataSetDataQuery query = new DataSetDataQuery("sales");
+        query.setPage(new PagingInfo(3, 10));
+
+        List<Integer> pages = new ArrayList<>();
+        try (PageIterator<DataSetData> iterator = target.getDataSets().getPages(query, new PrefetchPolicy())) {
+            iterator.forEachRemaining(page -> pages.add(page.getPageNumber()));
+        }
+
+        Assert.assertEquals(Arrays.asList(3, 4), pages);
+    }
+
+    @Test
+    public void prefetchStopsAtTheDepth() throws Exception {
+        totalPages = 20;
+        NexosisClient target = client();
+
+        try (PageIterator<DataSetData> pages = target.getDataSets().getPages(new DataSetDataQuery("sales"), new PrefetchPolicy().setPrefetchDepth(3))) {
+            pages.next();
+            // the caller is slow to ask for the next page
+            TimeUnit.MILLISECONDS.sleep(300);
+            Assert.assertEquals(1 + 3, server.getRequestCount());
+
+            pages.next();
+            TimeUnit.MILLISECONDS.sleep(300);
+            Assert.assertEquals(1 + 1 + 3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void requestsAreBoundedByConcurrency() throws Exception {
+        totalPages = 20;
+        latencyMillis = 30;
+        NexosisClient target = client();
+
+        try (Stream<Map<String, String>> rows = target.getDataSets().getAllRows(new DataSetDataQuery("sales"),
+                new PrefetchPolicy().setPrefetchDepth(6).setMaxConcurrency(3))) {
+            Assert.assertEquals(20 * rowsPerPage, rows.count());
+        }
+        Assert.assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    public void pagesAreFetchedOnDemandWithoutDepth() throws Exception {
+        NexosisClient target = client();
+
+        try (PageIterator<DataSetData> pages = target.getDataSets().getPages(new DataSetDataQuery("sales"), new PrefetchPolicy().setPrefetchDepth(0))) {
+            pages.next();
+            pages.next();
+            TimeUnit.MILLISECONDS.sleep(100);
+            Assert.assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void failedPageIsThrownInOrder() throws Exception {
+        failingPage = 2;
+        NexosisClient target = client();
+
+        PageIterator<DataSetData> pages = target.getDataSets().getPages(new DataSetDataQuery("sales"), new PrefetchPolicy().setPrefetchDepth(3));
+        Assert.assertEquals(0, pages.next().getPageNumber());
+        Assert.assertEquals(1, pages.next().getPageNumber());
+        try {
+            pages.next();
+            Assert.fail("Expected page 2 to fail");
+        } catch (UncheckedClientException uce) {
+            Assert.assertEquals(404, uce.getCause().getStatusCode());
+        }
+        Assert.assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void pagesArePrefetchedOnTheClientExecutor() throws Exception {
+        totalPages = 10;
+        server = new StubServer(this::respond);
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setExecutor(executor)
+                .build();
+
+        try (Stream<Map<String, String>> rows = target.getDataSets().getAllRows(new DataSetDataQuery("sales"),
+                new PrefetchPolicy().setPrefetchDepth(2).setMaxConcurrency(2))) {
+            Assert.assertEquals(totalPages * rowsPerPage, rows.count());
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(tasks.get() > 0);
+    }
+
+    @Test
+    public void iteratorOnABusyExecutorFetchesPagesItself() throws Exception {
+        latencyMillis = 10;
+        server = new StubServer(this::respond);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setExecutor(executor)
+                .build();
+
+        try {
+            // the only thread is busy reading, so the pages it prefetches can never start on the executor
+            Future<Long> rows = executor.submit(() -> {
+                try (Stream<Map<String, String>> stream = target.getDataSets().getAllRows(new DataSetDataQuery("sales"),
+                        new PrefetchPolicy().setPrefetchDepth(3).setMaxConcurrency(3))) {
+                    return stream.count();
+                }
+            });
+            Assert.assertEquals(totalPages * rowsPerPage, (long) rows.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(totalPages, server.getRequestCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Not a pass or fail test: prints the time to read 20 pages from a server taking 20ms a page, spending 20ms
+     * processing each page, with and without prefetching.
+     */
+    @Test
+    public void prefetchBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        totalPages = 20;
+        latencyMillis = 20;
+        NexosisClient target = client();
+
+        for (int round = 0; round < 2; round++) {
+            long sequential = readAll(target, new PrefetchPolicy().setPrefetchDepth(0));
+            long prefetched = readAll(target, new PrefetchPolicy());
+            long concurrent = readAll(target, new PrefetchPolicy().setPrefetchDepth(4).setMaxConcurrency(4));
+            Benchmarks.report("Prefetch: 20 pages took %dms fetched on demand, %dms prefetching one page and %dms prefetching four at once",
+                    sequential, prefetched, concurrent);
+        }
+    }
+
+    private static long readAll(NexosisClient target, PrefetchPolicy policy) throws Exception {
+        long started = System.nanoTime();
+        try (PageIterator<DataSetData> pages = target.getDataSets().getPages(new DataSetDataQuery("sales"), policy)) {
+            while (pages.hasNext()) {
+                pages.next();
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private NexosisClient client() throws IOException {
+        server = new StubServer(this::respond);
+        return new NexosisClient("abcdefg", server.getEndpoint());
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Matcher matcher = PAGE.matcher(exchange.getRequestURI().getRawQuery());
+            int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            // before the response is sent, after which the client may already send its next request
+            inFlight.decrementAndGet();
+            if (page == failingPage) {
+                StubServer.respond(exchange, 404, Json.MEDIA_TYPE, "{\"statusCode\":404,\"message\":\"not found\"}");
+                return;
+            }
+
+            StringBuilder body = new StringBuilder("{\"pageNumber\":").append(page)
+                    .append(",\"totalPages\":").append(totalPages)
+                    .append(",\"pageSize\":").append(rowsPerPage)
+                    .append(",\"data\":[");
+            for (int row = 0; row < rowsPerPage; row++) {
+                body.append(row == 0 ? "" : ",").append("{\"row\":\"").append(page).append('-').append(row).append("\"}");
+            }
+            body.append("]}");
+            StubServer.respond(exchange, 200, Json.MEDIA_TYPE, body.toString());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
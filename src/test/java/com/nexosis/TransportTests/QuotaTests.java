@@ -0,0 +1,126 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.QuotaType;
+import com.nexosis.model.ModelPredictionRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.nexosis.util.NexosisHeaders.*;
+
+public class QuotaTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void budgetIsUpdatedFromResponseHeaders() throws Exception {
+        QuotaTransport transport = new QuotaTransport(100, 40);
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+
+        Assert.assertEquals(-1, target.getQuotaBudget().getRemaining(QuotaType.PREDICTION));
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(100, target.getQuotaBudget().getAllotted(QuotaType.PREDICTION));
+        Assert.assertEquals(40, target.getQuotaBudget().getCurrent(QuotaType.PREDICTION));
+        Assert.assertEquals(60, target.getQuotaBudget().getRemaining(QuotaType.PREDICTION));
+    }
+
+    @Test
+    public void predictionsAreHeldBackWhenQuotaIsUsedUp() throws Exception {
+        QuotaTransport transport = new QuotaTransport(10, 10);
+        NexosisClient target = client(transport, 60 * 1000);
+
+        target.getModels().get(UUID.randomUUID());
+        try {
+            target.getModels().predict(new ModelPredictionRequest(UUID.randomUUID(), rows()));
+            Assert.fail("Expected the prediction to be held back");
+        } catch (NexosisClientException nce) {
+            Assert.assertTrue(nce.getMessage().contains("prediction quota"));
+        }
+
+        // only the GET went out, and other requests still do
+        Assert.assertEquals(1, transport.requests.get());
+        target.getModels().get(UUID.randomUUID());
+        Assert.assertEquals(2, transport.requests.get());
+    }
+
+    @Test
+    public void usedUpQuotaIsRecheckedPeriodically() throws Exception {
+        QuotaTransport transport = new QuotaTransport(10, 10);
+        NexosisClient target = client(transport, 0);
+
+        target.getModels().get(UUID.randomUUID());
+        transport.current = 0;
+        target.getModels().predict(new ModelPredictionRequest(UUID.randomUUID(), rows()));
+
+        Assert.assertEquals(2, transport.requests.get());
+        Assert.assertEquals(10, target.getQuotaBudget().getRemaining(QuotaType.PREDICTION));
+    }
+
+    @Test
+    public void requestsAreNotHeldBackByDefault() throws Exception {
+        QuotaTransport transport = new QuotaTransport(10, 10);
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().predict(new ModelPredictionRequest(UUID.randomUUID(), rows()));
+
+        Assert.assertEquals(2, transport.requests.get());
+    }
+
+    private NexosisClient client(MockHttpTransport transport, long recheckMillis) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setQuotaLimiting(true)
+                .setQuotaRecheckMillis(recheckMillis)
+                .build();
+    }
+
+    private List<Map<String, String>> rows() {
+        Map<String, String> map = new HashMap<>();
+        map.put("column", "value");
+        List<Map<String, String>> data = new ArrayList<>();
+        data.add(map);
+        return data;
+    }
+
+    static class QuotaTransport extends MockHttpTransport {
+        final AtomicInteger requests = new AtomicInteger();
+        volatile int allotted;
+        volatile int current;
+
+        QuotaTransport(int allotted, int current) {
+            this.allotted = allotted;
+            this.current = current;
+        }
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+            requests.incrementAndGet();
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    response.setStatusCode(200);
+                    response.setContentType(Json.MEDIA_TYPE);
+                    response.setContent("{}");
+                    response.addHeader(NEXOSIS_ACCOUNT_PREDICTION_COUNT_ALLOTTED, Integer.toString(allotted));
+                    response.addHeader(NEXOSIS_ACCOUNT_PREDICTION_COUNT_CURRENT, Integer.toString(current));
+                    return response;
+                }
+            };
+        }
+    }
+}
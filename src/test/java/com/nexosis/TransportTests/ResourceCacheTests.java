@@ -0,0 +1,177 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.ResourceCachePolicy;
+import com.nexosis.model.ModelRemoveCriteria;
+import com.nexosis.model.ModelSummary;
+import com.nexosis.model.PagingInfo;
+import com.nexosis.model.SessionResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class ResourceCacheTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void completedResultsAreServedFromMemory() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 10);
+        NexosisClient target = client(transport, new ResourceCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        SessionResult first = target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        SessionResult second = target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(10, second.getData().size());
+        Assert.assertEquals(1, transport.requestCount());
+        Assert.assertEquals(1, target.getResourceCacheStatistics().getHits());
+        Assert.assertEquals(1, target.getResourceCacheStatistics().getMisses());
+        Assert.assertTrue(target.getResourceCacheStatistics().getWeightBytes() > 10 * 2 * 40);
+    }
+
+    @Test
+    public void pagesAreCachedSeparately() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 10);
+        NexosisClient target = client(transport, new ResourceCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(1, 10));
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(1, 10));
+
+        Assert.assertEquals(2, transport.requestCount());
+    }
+
+    @Test
+    public void sessionsStillRunningAreNotCached() throws Exception {
+        SessionTransport transport = new SessionTransport("started", 10);
+        NexosisClient target = client(transport, new ResourceCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        target.getSessions().getFeatureImportanceScores(id, new PagingInfo(0, 10));
+        transport.status = "completed";
+        target.getSessions().getFeatureImportanceScores(id, new PagingInfo(0, 10));
+        target.getSessions().getFeatureImportanceScores(id, new PagingInfo(0, 10));
+
+        Assert.assertEquals(2, transport.requestCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvictedByWeight() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 100);
+        NexosisClient target = client(transport, new ResourceCachePolicy().setMaxWeightBytes(40 * 1024));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        target.getSessions().getResultClassScores(first, new PagingInfo(0, 100));
+        target.getSessions().getResultClassScores(second, new PagingInfo(0, 100));
+        target.getSessions().getResultClassScores(first, new PagingInfo(0, 100));
+
+        Assert.assertEquals(3, transport.requestCount());
+        Assert.assertTrue(target.getResourceCacheStatistics().getEvictions() >= 1);
+        Assert.assertTrue(target.getResourceCacheStatistics().getWeightBytes() <= 40 * 1024);
+    }
+
+    @Test
+    public void resultsExpire() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 10);
+        NexosisClient target = client(transport, new ResourceCachePolicy().setTimeToLiveMillis(1));
+        UUID id = UUID.randomUUID();
+
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+        Thread.sleep(10);
+        target.getSessions().getResultAnomalyScores(id, new PagingInfo(0, 10));
+
+        Assert.assertEquals(2, transport.requestCount());
+        Assert.assertEquals(1, target.getResourceCacheStatistics().getExpirations());
+    }
+
+    @Test
+    public void removingAModelDropsItFromTheCache() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 0);
+        NexosisClient target = client(transport, new ResourceCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        ModelSummary model = target.getModels().get(id);
+        Assert.assertSame(model, target.getModels().get(id));
+
+        ModelRemoveCriteria criteria = new ModelRemoveCriteria();
+        criteria.setModelId(id);
+        target.getModels().remove(criteria);
+        target.getModels().get(id);
+
+        Assert.assertEquals(Collections.frequency(transport.methods, "GET"), 2);
+    }
+
+    @Test
+    public void cacheIsOffByDefault() throws Exception {
+        SessionTransport transport = new SessionTransport("completed", 10);
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+        UUID id = UUID.randomUUID();
+
+        target.getModels().get(id);
+        target.getModels().get(id);
+
+        Assert.assertEquals(2, transport.requestCount());
+    }
+
+    private NexosisClient client(MockHttpTransport transport, ResourceCachePolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setResourceCachePolicy(policy)
+                .build();
+    }
+
+    /**
+     * Answers every GET with a session in the current status and the given number of result rows.
+     */
+    static class SessionTransport extends MockHttpTransport {
+        final List<String> methods = Collections.synchronizedList(new ArrayList<String>());
+        final int rows;
+        volatile String status;
+
+        SessionTransport(String status, int rows) {
+            this.status = status;
+            this.rows = rows;
+        }
+
+        int requestCount() {
+            return methods.size();
+        }
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+            methods.add(method);
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    StringBuilder body = new StringBuilder("{\"sessionId\":\"" + UUID.randomUUID() + "\",\"status\":\"" + status + "\"");
+                    body.append(",\"scores\":{\"a\":0.5},\"data\":[");
+                    for (int i = 0; i < rows; i++) {
+                        body.append(i == 0 ? "" : ",").append("{\"timestamp\":\"2017-01-0").append(i % 9 + 1).append("\",\"anomaly\":\"").append(i).append(".125\"}");
+                    }
+                    body.append("]}");
+
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    response.setContentType(Json.MEDIA_TYPE);
+                    response.setContent(body.toString());
+                    return response;
+                }
+            };
+        }
+    }
+}
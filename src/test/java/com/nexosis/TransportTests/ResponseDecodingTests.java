@@ -0,0 +1,158 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.ModelSummary;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ResponseDecodingTests {
+    private final static String CSV = "timeStamp,sales,transactions\n2015-06-14 00:00:00,120.75,3\n";
+
+    private StubServer server;
+    private volatile String acceptEncoding;
+    private volatile String responseEncoding = "gzip";
+    private volatile int status = 200;
+    private volatile String body;
+    private volatile byte[] sent;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                StubServer.drain(exchange.getRequestBody());
+                acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                if (acceptEncoding != null && acceptEncoding.contains(responseEncoding)) {
+                    bytes = encode(bytes, responseEncoding);
+                    exchange.getResponseHeaders().set("Content-Encoding", responseEncoding);
+                }
+                sent = bytes;
+                exchange.getResponseHeaders().set("Content-Type", Json.MEDIA_TYPE);
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void gzipResponseIsParsed() throws Exception {
+        UUID id = UUID.randomUUID();
+        body = "{\"modelId\":\"" + id + "\"}";
+
+        try (NexosisClient target = client(false)) {
+            ModelSummary model = target.getModels().get(id);
+
+            Assert.assertEquals(id, model.getModelId());
+            Assert.assertEquals("gzip, deflate", acceptEncoding);
+        }
+    }
+
+    @Test
+    public void deflateResponseIsParsed() throws Exception {
+        UUID id = UUID.randomUUID();
+        body = "{\"modelId\":\"" + id + "\"}";
+        responseEncoding = "deflate";
+
+        try (NexosisClient target = client(false)) {
+            Assert.assertEquals(id, target.getModels().get(id).getModelId());
+        }
+    }
+
+    @Test
+    public void compressedErrorIsDecoded() throws Exception {
+        body = "{\"statusCode\":404,\"message\":\"Model not found\"}";
+        status = 404;
+
+        try (NexosisClient target = client(false)) {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 404 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(404, nce.getStatusCode());
+            Assert.assertEquals("Model not found", nce.getErrorResponse().getMessage());
+        }
+    }
+
+    @Test
+    public void downloadIsDecodedIntoOutputStream() throws Exception {
+        body = CSV;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (NexosisClient target = client(false)) {
+            target.getDataSets().get(new DataSetDataQuery("test"), output);
+        }
+        Assert.assertEquals(CSV, output.toString("UTF-8"));
+    }
+
+    @Test
+    public void downloadIsPassedThroughCompressed() throws Exception {
+        body = CSV;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (NexosisClient target = client(true)) {
+            target.getDataSets().get(new DataSetDataQuery("test"), output);
+        }
+        Assert.assertEquals("gzip", acceptEncoding);
+        Assert.assertArrayEquals(sent, output.toByteArray());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            Assert.assertEquals(CSV, new String(StubServer.drain(in), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void compressionIsNotAskedForWhenDisabled() throws Exception {
+        UUID id = UUID.randomUUID();
+        body = "{\"modelId\":\"" + id + "\"}";
+
+        try (NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setResponseCompression(false)
+                .build()) {
+            Assert.assertEquals(id, target.getModels().get(id).getModelId());
+        }
+        Assert.assertNull(acceptEncoding);
+    }
+
+    private NexosisClient client(boolean compressedPassThrough) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setCompressedPassThrough(compressedPassThrough)
+                .build();
+    }
+
+    private static byte[] encode(byte[] bytes, String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = "gzip".equals(encoding) ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+            encoder.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,232 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.PageIterator;
+import com.nexosis.impl.PrefetchPolicy;
+import com.nexosis.impl.ResultPages;
+import com.nexosis.impl.ValidatorCachePolicy;
+import com.nexosis.model.Outlier;
+import com.nexosis.model.OutliersResponse;
+import com.nexosis.model.PagingInfo;
+import com.nexosis.model.SessionResult;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ResultPagesTests {
+    private final static Pattern PAGE = Pattern.compile("(?:^|&)page=(\\d+)");
+    private StubServer server;
+    private volatile int totalPages = 7;
+    private volatile int rowsPerPage = 3;
+    private volatile long maxLatencyMillis = 20;
+    private volatile boolean randomLatency = true;
+    private volatile int failingPage = -1;
+    private volatile boolean validators = false;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void pagesAreMergedInOrder() throws Exception {
+        NexosisClient target = client();
+
+        SessionResult result = target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.ANOMALY_SCORES, null,
+                new PrefetchPolicy().setPrefetchDepth(4).setMaxConcurrency(4));
+
+        List<String> expected = new ArrayList<>();
+        for (int page = 0; page < totalPages; page++) {
+            for (int row = 0; row < rowsPerPage; row++) {
+                expected.add(page + "-" + row);
+            }
+        }
+        List<String> rows = new ArrayList<>();
+        for (Map<String, String> row : result.getData()) {
+            rows.add(row.get("row"));
+        }
+        Assert.assertEquals(expected, rows);
+        Assert.assertEquals(totalPages, server.getRequestCount());
+    }
+
+    @Test
+    public void outlierArraysAreMerged() throws Exception {
+        NexosisClient target = client();
+
+        OutliersResponse result = target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.OUTLIERS, new PagingInfo(0, 3),
+                new PrefetchPolicy().setPrefetchDepth(3).setMaxConcurrency(3));
+
+        Assert.assertEquals(totalPages * rowsPerPage, result.getOutliers().length);
+        int index = 0;
+        for (Outlier outlier : result.getOutliers()) {
+            Assert.assertEquals(index++, outlier.getActual(), 0);
+        }
+    }
+
+    @Test
+    public void pagesAreStreamedInOrder() throws Exception {
+        NexosisClient target = client();
+
+        List<Integer> pages = new ArrayList<>();
+        try (PageIterator<SessionResult> iterator = target.getSessions().getResultPages(UUID.randomUUID(), ResultPages.CLASS_SCORES,
+                new PagingInfo(2, 3), new PrefetchPolicy().setPrefetchDepth(4).setMaxConcurrency(4))) {
+            iterator.forEachRemaining(page -> pages.add(((Number) page.getAdditionalProperties().get("pageNumber")).intValue()));
+        }
+
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6), pages);
+    }
+
+    @Test
+    public void requestsAreBoundedByConcurrency() throws Exception {
+        totalPages = 30;
+        randomLatency = false;
+        NexosisClient target = client();
+
+        target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.ANOMALY_SCORES, null,
+                new PrefetchPolicy().setPrefetchDepth(8).setMaxConcurrency(4));
+
+        Assert.assertEquals(4, maxInFlight.get());
+    }
+
+    @Test
+    public void failedPageFailsTheMerge() throws Exception {
+        failingPage = 4;
+        NexosisClient target = client();
+
+        try {
+            target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.DISTANCE_METRICS, null,
+                    new PrefetchPolicy().setPrefetchDepth(4).setMaxConcurrency(4));
+            Assert.fail("Expected page 4 to fail");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(404, nce.getStatusCode());
+        }
+    }
+
+    @Test
+    public void mergingDoesNotChangeCachedPages() throws Exception {
+        validators = true;
+        server = new StubServer(this::respond);
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setValidatorCachePolicy(new ValidatorCachePolicy())
+                .build();
+        UUID id = UUID.randomUUID();
+        PagingInfo first = new PagingInfo(0, rowsPerPage);
+
+        SessionResult once = target.getSessions().getAllResults(id, ResultPages.ANOMALY_SCORES, first,
+                new PrefetchPolicy().setPrefetchDepth(2).setMaxConcurrency(2));
+        SessionResult twice = target.getSessions().getAllResults(id, ResultPages.ANOMALY_SCORES, first,
+                new PrefetchPolicy().setPrefetchDepth(2).setMaxConcurrency(2));
+        SessionResult page = target.getSessions().getResultAnomalyScores(id, first);
+
+        Assert.assertEquals(totalPages * rowsPerPage, once.getData().size());
+        Assert.assertEquals(once.getData(), twice.getData());
+        Assert.assertEquals(rowsPerPage, page.getData().size());
+        Assert.assertEquals("0-0", page.getData().get(0).get("row"));
+        Assert.assertTrue(target.getValidatorCacheStatistics().getNotModified() > 0);
+    }
+
+    /**
+     * Not a pass or fail test: prints the time to read 40 pages of anomaly scores from a server taking 25ms a page,
+     * one page at a time and eight at once.
+     */
+    @Test
+    public void concurrentPagesBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        totalPages = 40;
+        rowsPerPage = 50;
+        maxLatencyMillis = 25;
+        randomLatency = false;
+        NexosisClient target = client();
+
+        for (int round = 0; round < 2; round++) {
+            long started = System.nanoTime();
+            SessionResult sequential = target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.ANOMALY_SCORES, null,
+                    new PrefetchPolicy().setPrefetchDepth(0));
+            long sequentialMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            started = System.nanoTime();
+            SessionResult concurrent = target.getSessions().getAllResults(UUID.randomUUID(), ResultPages.ANOMALY_SCORES, null,
+                    new PrefetchPolicy().setPrefetchDepth(8).setMaxConcurrency(8));
+            long concurrentMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            Assert.assertEquals(sequential.getData(), concurrent.getData());
+            Benchmarks.report("ResultPages: 40 pages took %dms one at a time and %dms eight at once", sequentialMillis, concurrentMillis);
+        }
+    }
+
+    private NexosisClient client() throws IOException {
+        server = new StubServer(this::respond);
+        return new NexosisClient("abcdefg", server.getEndpoint());
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        int page;
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            Matcher matcher = PAGE.matcher(query == null ? "" : query);
+            page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+            // random latency so pages arrive out of order
+            TimeUnit.MILLISECONDS.sleep(randomLatency ? ThreadLocalRandom.current().nextLong(maxLatencyMillis) : maxLatencyMillis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            // before the response is sent, after which the client may already send its next request
+            inFlight.decrementAndGet();
+        }
+
+        if (page == failingPage) {
+            StubServer.respond(exchange, 404, Json.MEDIA_TYPE, "{\"statusCode\":404,\"message\":\"not found\"}");
+            return;
+        }
+        String etag = "\"p" + page + "\"";
+        if (validators) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                StubServer.respond(exchange, 304, Json.MEDIA_TYPE, "");
+                return;
+            }
+        }
+        boolean outliers = exchange.getRequestURI().getPath().endsWith("/outliers");
+        StringBuilder body = new StringBuilder("{\"status\":\"completed\",\"pageNumber\":").append(page)
+                .append(",\"totalPages\":").append(totalPages)
+                .append(",\"pageSize\":").append(rowsPerPage)
+                .append(",\"data\":[");
+        for (int row = 0; row < rowsPerPage; row++) {
+            body.append(row == 0 ? "" : ",");
+            if (outliers) {
+                body.append("{\"timeStamp\":\"2017-01-01T00:00:00Z\",\"sales:actual\":\"").append(page * rowsPerPage + row)
+                        .append("\",\"sales:smooth\":\"0\"}");
+            } else {
+                body.append("{\"row\":\"").append(page).append('-').append(row).append("\"}");
+            }
+        }
+        body.append("]}");
+        StubServer.respond(exchange, 200, Json.MEDIA_TYPE, body.toString());
+    }
+}
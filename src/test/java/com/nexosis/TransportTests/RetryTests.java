@@ -0,0 +1,207 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.RetryPolicy;
+import com.nexosis.impl.Sessions;
+import com.nexosis.model.PredictionDomain;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+public class RetryTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void getIsRetriedOnServiceUnavailable() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 502, 200);
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(1));
+
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertEquals(3, transport.requestCount());
+        Assert.assertEquals(2, target.getRetryStatistics().getRetries());
+        Assert.assertEquals(1, target.getRetryStatistics().getRecovered());
+    }
+
+    @Test
+    public void nonIdempotentPostIsNotRetriedOnServerError() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 200);
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(1));
+
+        try {
+            target.getSessions().trainModel(Sessions.trainModel("data", PredictionDomain.REGRESSION, "target", null));
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+
+        Assert.assertEquals(1, transport.requestCount());
+        Assert.assertEquals(0, target.getRetryStatistics().getRetries());
+    }
+
+    @Test
+    public void nonIdempotentPostIsRetriedWhenThrottled() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(429, 200);
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(1));
+
+        target.getSessions().trainModel(Sessions.trainModel("data", PredictionDomain.REGRESSION, "target", null));
+
+        Assert.assertEquals(2, transport.requestCount());
+        Assert.assertEquals(Arrays.asList("POST", "POST"), transport.methods);
+    }
+
+    @Test
+    public void retryAfterTakesPrecedenceOverBackoff() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 200);
+        transport.retryAfter = "0";
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(60 * 1000).setMaxDelayMillis(60 * 1000));
+
+        long started = System.currentTimeMillis();
+        target.getModels().get(UUID.randomUUID());
+
+        Assert.assertTrue(System.currentTimeMillis() - started < 10 * 1000);
+        Assert.assertEquals(2, transport.requestCount());
+    }
+
+    @Test
+    public void retryAfterBeyondMaxDelayIsNotWaitedFor() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 200);
+        transport.retryAfter = "120";
+        NexosisClient target = client(transport, new RetryPolicy().setMaxDelayMillis(1000));
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, transport.requestCount());
+    }
+
+    @Test
+    public void attemptsAreCapped() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 503, 503, 503, 200);
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(1).setMaxAttempts(3));
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(3, transport.requestCount());
+        Assert.assertEquals(1, target.getRetryStatistics().getExhausted());
+    }
+
+    @Test
+    public void retryBudgetLimitsRetriesAcrossRequests() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 200, 503, 200);
+        NexosisClient target = client(transport, new RetryPolicy().setBaseDelayMillis(1).setBudgetCapacity(1).setBudgetRatio(0));
+
+        target.getModels().get(UUID.randomUUID());
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 503 to be returned once the budget was spent");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, target.getRetryStatistics().getRetries());
+        Assert.assertEquals(1, target.getRetryStatistics().getBudgetRejections());
+    }
+
+    @Test
+    public void retriesAreOffByDefault() throws Exception {
+        ScriptedTransport transport = new ScriptedTransport(503, 200);
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, transport.requestCount());
+    }
+
+    @Test
+    public void changingTheNoRetryPolicyDoesNotAffectOtherClients() throws Exception {
+        RetryPolicy.none().setMaxAttempts(5);
+        ScriptedTransport transport = new ScriptedTransport(503, 200);
+        NexosisClient target = new NexosisClient(fakeApiKey, fakeEndpoint, transport);
+
+        try {
+            target.getModels().get(UUID.randomUUID());
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, transport.requestCount());
+        Assert.assertNotSame(RetryPolicy.none(), RetryPolicy.none());
+    }
+
+    private NexosisClient client(MockHttpTransport transport, RetryPolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setRetryPolicy(policy)
+                .build();
+    }
+
+    /**
+     * Answers each request with the next status code in the script.
+     */
+    static class ScriptedTransport extends MockHttpTransport {
+        final LinkedList<Integer> statusCodes;
+        final List<String> methods = Collections.synchronizedList(new ArrayList<String>());
+        String retryAfter;
+
+        ScriptedTransport(Integer... statusCodes) {
+            this.statusCodes = new LinkedList<>(Arrays.asList(statusCodes));
+        }
+
+        int requestCount() {
+            return methods.size();
+        }
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+            methods.add(method);
+            final int status;
+            synchronized (statusCodes) {
+                status = statusCodes.isEmpty() ? 200 : statusCodes.removeFirst();
+            }
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    response.setStatusCode(status);
+                    response.setContentType(Json.MEDIA_TYPE);
+                    if (status == 200) {
+                        response.setContent("{}");
+                    } else {
+                        response.setContent("{\"statusCode\":" + status + ",\"message\":\"unavailable\"}");
+                        if (retryAfter != null) {
+                            response.addHeader("Retry-After", retryAfter);
+                        }
+                    }
+                    return response;
+                }
+            };
+        }
+    }
+}
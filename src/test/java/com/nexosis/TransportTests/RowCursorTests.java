@@ -0,0 +1,184 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.Benchmarks;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.RowCursor;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.SessionResult;
+import com.nexosis.model.SessionResultQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class RowCursorTests {
+    private final static String COLUMNS = "{\"timestamp\":{\"dataType\":\"date\",\"role\":\"timestamp\"},\"sales\":{\"dataType\":\"numeric\",\"role\":\"target\"}}";
+
+    @Test
+    public void rowsMatchTheParsedPage() throws Exception {
+        String body = "{\"dataSetName\":\"sales\",\"columns\":" + COLUMNS + ",\"data\":" + rows(250) + ",\"pageNumber\":0,\"totalCount\":250}";
+        ResponseTransport transport = new ResponseTransport(body);
+        NexosisClient target = client(transport);
+
+        DataSetData expected = target.getDataSets().get(new DataSetDataQuery("sales"));
+        List<Map<String, String>> actual = new ArrayList<>();
+        try (RowCursor cursor = target.getDataSets().getRows(new DataSetDataQuery("sales"))) {
+            Assert.assertEquals(expected.getColumns(), cursor.getColumns());
+            Assert.assertEquals("sales", cursor.getProperties().get("dataSetName"));
+            Assert.assertFalse(cursor.getProperties().containsKey("totalCount"));
+
+            while (cursor.next()) {
+                actual.add(cursor.getRow());
+            }
+            Assert.assertEquals(250L, cursor.getRowCount());
+            Assert.assertEquals(250, cursor.getProperties().get("totalCount"));
+        }
+
+        Assert.assertEquals(expected.getData(), actual);
+        Assert.assertTrue(transport.last.isDisconnected());
+    }
+
+    @Test
+    public void reusedRowIsRefilled() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        NexosisClient target = client(new ResponseTransport("{\"sessionId\":\"" + sessionId + "\",\"status\":\"completed\",\"data\":" + rows(3) + "}"));
+        SessionResultQuery query = new SessionResultQuery();
+        query.setSessionId(sessionId);
+
+        try (RowCursor cursor = target.getSessions().getResultRows(query).setReuseRows(true)) {
+            Assert.assertNull(cursor.getColumns());
+            Assert.assertEquals("completed", cursor.getProperties().get("status"));
+
+            Assert.assertTrue(cursor.next());
+            Map<String, String> first = cursor.getRow();
+            Assert.assertEquals("0.0", first.get("sales"));
+            Assert.assertTrue(cursor.next());
+            Assert.assertSame(first, cursor.getRow());
+            Assert.assertEquals("1.5", first.get("sales"));
+            Assert.assertEquals(3, first.size());
+        }
+    }
+
+    @Test
+    public void nullAndNonStringValuesAreRead() throws Exception {
+        NexosisClient target = client(new ResponseTransport("{\"data\":[{\"a\":null,\"b\":12,\"c\":true,\"d\":{\"x\":1}},{}]}"));
+
+        try (RowCursor cursor = target.getDataSets().getRows(new DataSetDataQuery("sales"))) {
+            Assert.assertTrue(cursor.next());
+            Map<String, String> row = cursor.getRow();
+            Assert.assertTrue(row.containsKey("a"));
+            Assert.assertNull(row.get("a"));
+            Assert.assertEquals("12", row.get("b"));
+            Assert.assertEquals("true", row.get("c"));
+            Assert.assertEquals("{\"x\":1}", row.get("d"));
+            Assert.assertTrue(cursor.next());
+            Assert.assertTrue(cursor.getRow().isEmpty());
+            Assert.assertFalse(cursor.next());
+            Assert.assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void responseWithoutRowsIsEmpty() throws Exception {
+        ResponseTransport transport = new ResponseTransport("{\"dataSetName\":\"sales\"}");
+        RowCursor cursor = client(transport).getDataSets().getRows(new DataSetDataQuery("sales"));
+
+        Assert.assertFalse(cursor.next());
+        Assert.assertEquals("sales", cursor.getProperties().get("dataSetName"));
+        Assert.assertTrue(transport.last.isDisconnected());
+    }
+
+    @Test
+    public void closingEarlyReleasesTheConnection() throws Exception {
+        ResponseTransport transport = new ResponseTransport("{\"data\":" + rows(100) + "}");
+        RowCursor cursor = client(transport).getDataSets().getRows(new DataSetDataQuery("sales"));
+
+        Assert.assertTrue(cursor.next());
+        cursor.close();
+
+        Assert.assertTrue(transport.last.isDisconnected());
+        Assert.assertFalse(cursor.next());
+    }
+
+    /**
+     * Not a pass or fail test: prints the bytes allocated reading a large page into a list and with a cursor.
+     */
+    @Test
+    public void allocationBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        String body = "{\"dataSetName\":\"sales\",\"columns\":" + COLUMNS + ",\"data\":" + rows(20000) + "}";
+        NexosisClient target = client(new ResponseTransport(body));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            DataSetData page = target.getDataSets().get(new DataSetDataQuery("sales"));
+            long listed = threads.getThreadAllocatedBytes(thread) - before;
+            Assert.assertEquals(20000, page.getData().size());
+
+            before = threads.getThreadAllocatedBytes(thread);
+            long count = 0;
+            try (RowCursor cursor = target.getDataSets().getRows(new DataSetDataQuery("sales")).setReuseRows(true)) {
+                while (cursor.next()) {
+                    count += cursor.getRow().size();
+                }
+            }
+            long streamed = threads.getThreadAllocatedBytes(thread) - before;
+            Assert.assertEquals(20000 * 3, count);
+
+            Benchmarks.report("RowCursor: 20000 rows allocated %dKB as a list, %dKB with a reused row", listed / 1024, streamed / 1024);
+        }
+    }
+
+    private static String rows(int count) {
+        StringBuilder rows = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            rows.append(i == 0 ? "" : ",")
+                    .append("{\"timestamp\":\"2017-01-01T").append(String.format("%02d", i % 24)).append(":00:00Z\",")
+                    .append("\"sales\":\"").append(i * 1.5).append("\",\"anomaly\":\"").append(i % 7 == 0).append("\"}");
+        }
+        return rows.append("]").toString();
+    }
+
+    private NexosisClient client(MockHttpTransport transport) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint("https://nada.nexosis.com/not-here")
+                .setHttpTransport(transport)
+                .build();
+    }
+
+    /**
+     * Answers every request with the same body, keeping the last response to check it was disconnected.
+     */
+    static class ResponseTransport extends MockHttpTransport {
+        private final String body;
+        volatile MockLowLevelHttpResponse last;
+
+        ResponseTransport(String body) {
+            this.body = body;
+        }
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() {
+                    last = new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE).setContent(body);
+                    return last;
+                }
+            };
+        }
+    }
+}
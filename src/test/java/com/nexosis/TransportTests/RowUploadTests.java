@@ -0,0 +1,206 @@
+package com.nexosis.TransportTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.CompressionPolicy;
+import com.nexosis.impl.DataSet;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.RetryPolicy;
+import com.nexosis.model.Columns;
+import com.nexosis.model.DataRole;
+import com.nexosis.model.DataSetDetail;
+import com.nexosis.model.DataType;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+public class RowUploadTests {
+    private StubServer server;
+    private volatile int status = 200;
+    private volatile String transferEncoding;
+    private volatile String contentLength;
+    private volatile byte[] body;
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void iteratorRowsAreSentChunked() throws Exception {
+        NexosisClient target = client(null);
+        List<Map<String, String>> rows = rows(500);
+
+        target.getDataSets().create(DataSet.From("sales", columns(), rows.iterator()));
+
+        Assert.assertEquals("chunked", transferEncoding);
+        Assert.assertNull(contentLength);
+        DataSetDetail sent = new ObjectMapper().readValue(body, DataSetDetail.class);
+        Assert.assertEquals(rows, sent.getData());
+        Assert.assertEquals(columns(), sent.getColumns());
+    }
+
+    @Test
+    public void rowsAreProducedWhileTheRequestIsSent() throws Exception {
+        NexosisClient target = client(null);
+        final AtomicInteger produced = new AtomicInteger();
+        Iterator<Map<String, String>> rows = new Iterator<Map<String, String>>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < 1000;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                return row(produced.getAndIncrement());
+            }
+        };
+
+        target.getDataSets().create(DataSet.From("sales", null, rows));
+
+        Assert.assertEquals(1000, produced.get());
+        Assert.assertEquals(1000, new ObjectMapper().readValue(body, DataSetDetail.class).getData().size());
+        Assert.assertFalse(new String(body, "UTF-8").contains("\"columns\""));
+    }
+
+    @Test
+    public void streamAndCallbackSourcesAreSent() throws Exception {
+        NexosisClient target = client(null);
+
+        target.getDataSets().create(DataSet.From("sales", columns(), IntStream.range(0, 10).mapToObj(RowUploadTests::row)));
+        Assert.assertEquals(rows(10), new ObjectMapper().readValue(body, DataSetDetail.class).getData());
+
+        target.getDataSets().create(DataSet.From("sales", columns(), sink -> {
+            for (int i = 0; i < 20; i++) {
+                sink.accept(row(i));
+            }
+        }));
+        Assert.assertEquals(rows(20), new ObjectMapper().readValue(body, DataSetDetail.class).getData());
+    }
+
+    @Test
+    public void streamedRowsAreCompressed() throws Exception {
+        NexosisClient target = client(new CompressionPolicy());
+
+        target.getDataSets().create(DataSet.From("sales", columns(), rows(100).iterator()));
+
+        Assert.assertEquals(rows(100), new ObjectMapper().readValue(body, DataSetDetail.class).getData());
+    }
+
+    @Test
+    public void streamedRowsAreNotRetried() throws Exception {
+        status = 503;
+        NexosisClient target = new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(startServer())
+                .setRetryPolicy(new RetryPolicy().setBaseDelayMillis(1))
+                .build();
+
+        try {
+            target.getDataSets().create(DataSet.From("sales", columns(), rows(10).iterator()));
+            Assert.fail("Expected the 503 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(503, nce.getStatusCode());
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Not a pass or fail test: prints the time and heap growth of uploading a million generated rows.
+     */
+    @Test
+    public void largeUploadBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        final AtomicLong received = new AtomicLong();
+        server = new StubServer(exchange -> {
+            byte[] buffer = new byte[64 * 1024];
+            InputStream in = exchange.getRequestBody();
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                received.addAndGet(read);
+            }
+            StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"dataSetName\":\"sales\"}");
+        });
+        NexosisClient target = new NexosisClient("abcdefg", server.getEndpoint());
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        long started = System.nanoTime();
+
+        target.getDataSets().create(DataSet.From("sales", columns(), IntStream.range(0, 1000000).mapToObj(RowUploadTests::row)));
+
+        long elapsed = System.nanoTime() - started;
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        Benchmarks.report("RowUpload: 1000000 rows, %dMB sent in %dms, heap grew %dKB",
+                received.get() / (1024 * 1024), elapsed / 1000000, (after - before) / 1024);
+    }
+
+    private NexosisClient client(CompressionPolicy compression) throws IOException {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(startServer())
+                .setCompressionPolicy(compression)
+                .build();
+    }
+
+    private String startServer() throws IOException {
+        server = new StubServer(this::capture);
+        return server.getEndpoint();
+    }
+
+    private void capture(HttpExchange exchange) throws IOException {
+        transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        body = StubServer.drain(in);
+        if (status == 200) {
+            StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"dataSetName\":\"sales\"}");
+        } else {
+            StubServer.respond(exchange, status, Json.MEDIA_TYPE, "{\"statusCode\":" + status + ",\"message\":\"unavailable\"}");
+        }
+    }
+
+    private static Columns columns() {
+        Columns columns = new Columns();
+        columns.setColumnMetadata("timestamp", DataType.DATE, DataRole.TIMESTAMP);
+        columns.setColumnMetadata("sales", DataType.NUMERIC, DataRole.TARGET);
+        return columns;
+    }
+
+    private static List<Map<String, String>> rows(int count) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    private static Map<String, String> row(int i) {
+        Map<String, String> row = new HashMap<>();
+        row.put("timestamp", "2017-01-01T" + String.format("%02d", i % 24) + ":00:00Z");
+        row.put("sales", Double.toString(i * 1.25));
+        return row;
+    }
+}
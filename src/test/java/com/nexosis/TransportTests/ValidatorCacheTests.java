@@ -0,0 +1,216 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.impl.NexosisClientException;
+import com.nexosis.impl.ValidatorCachePolicy;
+import com.nexosis.model.DataSetData;
+import com.nexosis.model.DataSetDataQuery;
+import com.nexosis.model.ModelSummary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ValidatorCacheTests {
+    private String fakeEndpoint = "https://nada.nexosis.com/not-here";
+    private String fakeApiKey = "abcdefg";
+
+    @Test
+    public void unchangedResourceIsServedFromCache() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        ModelSummary first = target.getModels().get(id);
+        ModelSummary second = target.getModels().get(id);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(id, second.getModelId());
+        Assert.assertEquals("\"v1\"", transport.ifNoneMatch.get(1));
+        Assert.assertEquals(1, target.getValidatorCacheStatistics().getNotModified());
+    }
+
+    @Test
+    public void changedResourceIsDownloaded() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        ModelSummary first = target.getModels().get(id);
+        transport.etag = "\"v2\"";
+        ModelSummary second = target.getModels().get(id);
+        ModelSummary third = target.getModels().get(id);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(second, third);
+        Assert.assertEquals("\"v2\"", transport.ifNoneMatch.get(2));
+    }
+
+    @Test
+    public void lastModifiedIsSentWhenThereIsNoEtag() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        transport.etag = null;
+        transport.lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        NexosisClient target = client(transport, new ValidatorCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        ModelSummary first = target.getModels().get(id);
+        Assert.assertSame(first, target.getModels().get(id));
+        Assert.assertEquals(transport.lastModified, transport.ifModifiedSince.get(1));
+    }
+
+    @Test
+    public void responsesWithoutValidatorsAreNotCached() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        transport.etag = null;
+        NexosisClient target = client(transport, new ValidatorCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        target.getModels().get(id);
+        target.getModels().get(id);
+
+        Assert.assertNull(transport.ifNoneMatch.get(1));
+        Assert.assertEquals(0, target.getValidatorCacheStatistics().getConditionalRequests());
+    }
+
+    @Test
+    public void excludedTypesAreNotCached() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy().exclude(ModelSummary.class));
+        UUID id = UUID.randomUUID();
+
+        ModelSummary first = target.getModels().get(id);
+        Assert.assertNotSame(first, target.getModels().get(id));
+        Assert.assertNull(transport.ifNoneMatch.get(1));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy().setMaxEntries(2));
+        UUID first = UUID.randomUUID();
+
+        target.getModels().get(first);
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(first);
+
+        Assert.assertNull(transport.ifNoneMatch.get(3));
+        Assert.assertEquals(2, target.getValidatorCacheStatistics().getEvictions());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedBeyondTheWeightLimit() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy().setMaxWeightBytes(600));
+        UUID first = UUID.randomUUID();
+
+        target.getModels().get(first);
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(UUID.randomUUID());
+        target.getModels().get(first);
+
+        Assert.assertNull(transport.ifNoneMatch.get(3));
+        Assert.assertTrue(target.getValidatorCacheStatistics().getEvictions() > 0);
+        Assert.assertTrue(target.getValidatorCacheStatistics().getWeightBytes() <= 600);
+    }
+
+    @Test
+    public void responsesLargerThanTheWeightLimitAreNotCached() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            rows.append(i == 0 ? "" : ",").append("{\"timestamp\":\"2017-01-01T00:00:00Z\",\"sales\":\"").append(i).append("\"}");
+        }
+        transport.body = "{\"dataSetName\":\"sales\",\"data\":[" + rows + "]}";
+        NexosisClient target = client(transport, new ValidatorCachePolicy().setMaxWeightBytes(64 * 1024));
+
+        DataSetData first = target.getDataSets().get(new DataSetDataQuery("sales"));
+        DataSetData second = target.getDataSets().get(new DataSetDataQuery("sales"));
+
+        Assert.assertEquals(1000, first.getData().size());
+        Assert.assertNotSame(first, second);
+        Assert.assertNull(transport.ifNoneMatch.get(1));
+        Assert.assertEquals(0, target.getValidatorCacheStatistics().getWeightBytes());
+    }
+
+    @Test
+    public void errorsOnConditionalRequestsAreThrown() throws Exception {
+        ValidatingTransport transport = new ValidatingTransport();
+        NexosisClient target = client(transport, new ValidatorCachePolicy());
+        UUID id = UUID.randomUUID();
+
+        target.getModels().get(id);
+        transport.status = 500;
+        try {
+            target.getModels().get(id);
+            Assert.fail("Expected the 500 to be returned");
+        } catch (NexosisClientException nce) {
+            Assert.assertEquals(500, nce.getStatusCode());
+        }
+    }
+
+    private NexosisClient client(MockHttpTransport transport, ValidatorCachePolicy policy) {
+        return new NexosisClient.Builder()
+                .setApiKey(fakeApiKey)
+                .setEndpoint(fakeEndpoint)
+                .setHttpTransport(transport)
+                .setValidatorCachePolicy(policy)
+                .build();
+    }
+
+    /**
+     * Answers with the current validators, and with 304 when the request carries them.
+     */
+    static class ValidatingTransport extends MockHttpTransport {
+        volatile String etag = "\"v1\"";
+        volatile String lastModified;
+        volatile int status = 200;
+        volatile String body;
+        final List<String> ifNoneMatch = new ArrayList<>();
+        final List<String> ifModifiedSince = new ArrayList<>();
+
+        @Override
+        public MockLowLevelHttpRequest buildRequest(String method, final String url) throws IOException {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    String requestEtag = getFirstHeaderValue("If-None-Match");
+                    String requestModified = getFirstHeaderValue("If-Modified-Since");
+                    ifNoneMatch.add(requestEtag);
+                    ifModifiedSince.add(requestModified);
+
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    if (status != 200) {
+                        response.setStatusCode(status);
+                        response.setContentType(Json.MEDIA_TYPE);
+                        response.setContent("{\"statusCode\":" + status + ",\"message\":\"failed\"}");
+                        return response;
+                    }
+                    if ((requestEtag != null && requestEtag.equals(etag))
+                            || (etag == null && requestModified != null && requestModified.equals(lastModified))) {
+                        response.setStatusCode(304);
+                        return response;
+                    }
+                    if (etag != null) {
+                        response.addHeader("ETag", etag);
+                    }
+                    if (lastModified != null) {
+                        response.addHeader("Last-Modified", lastModified);
+                    }
+                    response.setContentType(Json.MEDIA_TYPE);
+                    response.setContent(body != null ? body : "{\"modelId\":\"" + url.substring(url.lastIndexOf('/') + 1) + "\"}");
+                    return response;
+                }
+            };
+        }
+    }
+}
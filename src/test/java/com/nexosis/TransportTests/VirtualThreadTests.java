@@ -0,0 +1,126 @@
+package com.nexosis.TransportTests;
+
+import com.google.api.client.json.Json;
+import com.nexosis.Benchmarks;
+import com.nexosis.StubServer;
+import com.nexosis.impl.NexosisClient;
+import com.nexosis.model.ModelSummary;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadTests {
+    private StubServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(new StubServer.Responder() {
+            @Override
+            public void respond(HttpExchange exchange) throws IOException {
+                try {
+                    // stands in for the latency of the API
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                String path = exchange.getRequestURI().getPath();
+                StubServer.respond(exchange, 200, Json.MEDIA_TYPE, "{\"modelId\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\"}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void virtualThreadsAreUsedWhenSupported() throws Exception {
+        try (NexosisClient target = client(true)) {
+            Assert.assertEquals(runtimeHasVirtualThreads(), target.isUsingVirtualThreads());
+
+            UUID id = UUID.randomUUID();
+            Assert.assertEquals(id, target.getModels().getAsync(id).get(5, TimeUnit.SECONDS).getModelId());
+        }
+    }
+
+    @Test
+    public void virtualThreadsAreOffByDefault() throws Exception {
+        try (NexosisClient target = client(false)) {
+            Assert.assertFalse(target.isUsingVirtualThreads());
+        }
+    }
+
+    @Test
+    public void concurrentAsyncCallsAllComplete() throws Exception {
+        try (NexosisClient target = client(true)) {
+            List<UUID> ids = new ArrayList<>();
+            List<CompletableFuture<ModelSummary>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                futures.add(target.getModels().getAsync(id));
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals(ids.get(i), futures.get(i).get(30, TimeUnit.SECONDS).getModelId());
+            }
+        }
+    }
+
+    /**
+     * Makes 10,000 concurrent blocking calls against the stub with the default bounded pool and with virtual
+     * threads, reporting the time taken. Before Java 21 both runs use the bounded pool.
+     */
+    @Test
+    public void concurrentCallBenchmark() throws Exception {
+        Benchmarks.assumeEnabled();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (NexosisClient target = client(virtual)) {
+                // warm up
+                callConcurrently(target, 1000);
+
+                long started = System.nanoTime();
+                callConcurrently(target, 10000);
+                long millis = (System.nanoTime() - started) / 1000000;
+
+                Benchmarks.report("%s: 10000 calls in %dms",
+                        target.isUsingVirtualThreads() ? "virtual threads" : "bounded pool", millis);
+            }
+        }
+    }
+
+    private static void callConcurrently(NexosisClient target, int calls) throws Exception {
+        List<CompletableFuture<ModelSummary>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(target.getModels().getAsync(UUID.randomUUID()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get(2, TimeUnit.MINUTES);
+    }
+
+    private NexosisClient client(boolean virtualThreads) {
+        return new NexosisClient.Builder()
+                .setApiKey("abcdefg")
+                .setEndpoint(server.getEndpoint())
+                .setMaxConnectionsPerRoute(48)
+                .setVirtualThreads(virtualThreads)
+                .build();
+    }
+
+    private static boolean runtimeHasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}